@@ -3,11 +3,14 @@ package snake;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
-import java.util.Random;
+
+import snake.engine.Rules;
+import snake.engine.State;
 
 /**
- * Encapsulates the behaviour of the arena the {@link Snake} is looking for
- * "food" in.
+ * Encapsulates the arena the snake is looking for "food" in. The
+ * {@link Rules} of the arena are run by an {@link snake.engine.Engine} and the
+ * {@link Arena} draws each {@link State} it produces.
  * 
  * @author Joshua_Eddy
  * 
@@ -16,6 +19,18 @@ import java.util.Random;
  */
 public class Arena {
 
+	/**
+	 * The {@link Rules} of the arena. The grid is the space between the walls and
+	 * the snake starts in the top left corner.
+	 */
+	public static final Rules RULES = new Rules(
+			(Constants.WALL_LENGTH - (2 * Constants.WALL_WIDTH)) / Constants.SPACE_INTERVAL,
+			(Constants.WALL_LENGTH - Constants.WALL_WIDTH) / Constants.SPACE_INTERVAL,
+			(Constants.WALL_LENGTH / Constants.SPACE_INTERVAL) - 4,
+			(Constants.WALL_LENGTH / Constants.SPACE_INTERVAL) - 4, 1, 1, Direction.RIGHT,
+			(Constants.WALL_LENGTH / 2) / Constants.SPACE_INTERVAL,
+			(Constants.WALL_LENGTH / 2) / Constants.SPACE_INTERVAL);
+
 	/**
 	 * The top wall of the arena.
 	 */
@@ -36,11 +51,6 @@ public class Arena {
 	 */
 	private Rectangle bottomWall;
 
-	/**
-	 * The food the {@link Snake} "eats" to grow longer an gain points.s
-	 */
-	private Rectangle food;
-
 	/**
 	 * Constructs a new Arena for the {@link Game}.
 	 */
@@ -63,43 +73,18 @@ public class Arena {
 		rightWall = new Rectangle();
 		rightWall.setBounds(Constants.ARENA_X, Constants.ARENA_Y + Constants.WALL_LENGTH, Constants.WALL_LENGTH,
 				Constants.WALL_WIDTH);
-
-		// Food
-		food = new Rectangle();
-		food.setBounds(Constants.ARENA_X + Constants.WALL_WIDTH + (Constants.WALL_LENGTH / 2),
-				Constants.ARENA_Y + Constants.WALL_WIDTH + (Constants.WALL_LENGTH / 2), Constants.SPACE_INTERVAL,
-				Constants.SPACE_INTERVAL);
-	}
-
-	/**
-	 * Whether the specified coordinates are the same as the food in the arena.
-	 * 
-	 * @param x
-	 *            Integer x position of the snake head.
-	 * @param y
-	 *            Integer y position of the snake head.
-	 * @return {@code Boolean}
-	 */
-	public boolean eatedFood(int x, int y) {
-
-		// If the food's coordinates are the same as the parameter coordinates
-		// then the food has been eaten.
-		if (food.x == x && food.y == y) {
-
-			generateFood();
-			return true;
-		}
-		return false;
 	}
 
 	/**
-	 * Draws the visual representation of the {@link Arena} using a specified
-	 * {@link Graphics2D}.
+	 * Draws the visual representation of the {@link Arena} and the snake and
+	 * food in a specified {@link State} using a specified {@link Graphics2D}.
 	 * 
 	 * @param g
 	 *            {@link Graphics2D}
+	 * @param state
+	 *            {@link State} NOT NULL.
 	 */
-	public void draw(Graphics2D g) {
+	public void draw(Graphics2D g, State state) {
 
 		// Set wall colour
 		g.setColor(Color.BLACK);
@@ -114,66 +99,42 @@ public class Arena {
 		g.setColor(Color.GREEN);
 
 		// Draw food
-		g.fill(food);
+		g.fillRect(getX(state.getFoodColumn()), getY(state.getFoodRow()), Constants.SPACE_INTERVAL,
+				Constants.SPACE_INTERVAL);
+
+		// Set Snake colour to blue.
+		g.setColor(Color.BLUE);
+
+		// Iterate through each snake body part.
+		for (int index = 0; index < state.getLength(); index++) {
+			g.fillRect(getX(state.getColumn(index)), getY(state.getRow(index)), Constants.SPACE_INTERVAL,
+					Constants.SPACE_INTERVAL);
+		}
 
 	}
 
 	/**
-	 * Whether the specified coordinates have collided with the walls of the
-	 * {@link Arena}.
+	 * Retrieves the x coordinate of a specified column of the {@link Arena#RULES}
+	 * grid.
 	 * 
-	 * @param x
-	 *            Integer x position of the snake head.
-	 * @param y
-	 *            Integer y position of the snake head.
-	 * @param direction
-	 *            {@link Direction}
-	 * @return {@code Boolean}
+	 * @param column
+	 *            The column.
+	 * @return Integer x coordinate.
 	 */
-	public boolean hasCollided(int x, int y, Direction direction) {
-
-		switch (direction) {
-		case RIGHT:
-			return x + Constants.SPACE_INTERVAL > Constants.ARENA_X + Constants.WALL_LENGTH - Constants.WALL_WIDTH
-					- Constants.SPACE_INTERVAL;
-		case LEFT:
-			return x - Constants.SPACE_INTERVAL < Constants.ARENA_X + Constants.WALL_WIDTH;
-		case UP:
-			return y - Constants.SPACE_INTERVAL < Constants.ARENA_Y + Constants.WALL_WIDTH;
-		case DOWN:
-			return y + Constants.SPACE_INTERVAL > Constants.ARENA_Y + Constants.WALL_LENGTH
-					- Constants.SPACE_INTERVAL;
-		default:
-			return false;
-		}
-
+	public static int getX(int column) {
+		return (column * Constants.SPACE_INTERVAL) + Constants.ARENA_X + Constants.WALL_WIDTH;
 	}
 
 	/**
-	 * Moves the food to another random position.
+	 * Retrieves the y coordinate of a specified row of the {@link Arena#RULES}
+	 * grid.
 	 * 
-	 * @see #food
+	 * @param row
+	 *            The row.
+	 * @return Integer y coordinate.
 	 */
-	private void generateFood() {
-
-		int y;
-		int x;
-
-		// The number of space intervals in the arena.
-		int bound = (Constants.WALL_LENGTH / Constants.SPACE_INTERVAL) - 4;
-		Random generate = new Random();
-
-		// A random value in the grid.
-		int random;
-
-		random = generate.nextInt(bound);
-		x = (random * Constants.SPACE_INTERVAL) + Constants.ARENA_X + Constants.WALL_WIDTH;
-
-		random = generate.nextInt(bound);
-		y = (random * Constants.SPACE_INTERVAL) + Constants.ARENA_Y + Constants.WALL_WIDTH;
-
-		food.setLocation(x, y);
-
+	public static int getY(int row) {
+		return (row * Constants.SPACE_INTERVAL) + Constants.ARENA_Y + Constants.WALL_WIDTH;
 	}
 
 }
@@ -18,15 +18,21 @@ public class Constants {
 	 */
 	public static final int ARENA_X = 20;
 
+	/**
+	 * The width and height of the {@link Arena} in pixels, which can be set with
+	 * the <code>snake.arena</code> system property. Defaults to 500.
+	 */
+	public static final int ARENA_SIZE = Integer.getInteger("snake.arena", 500);
+
 	/**
 	 * The width of the {@link Arena}.
 	 */
-	public static final int ARENA_WIDTH = 500;
+	public static final int ARENA_WIDTH = ARENA_SIZE;
 
 	/**
 	 * The height of the {@link Arena}.
 	 */
-	public static final int ARENA_HEIGHT = 500;
+	public static final int ARENA_HEIGHT = ARENA_SIZE;
 
 	/**
 	 * The width of the walls of the {@link Arena}.
@@ -36,10 +42,10 @@ public class Constants {
 	/**
 	 * The length of the walls of the {@link Arena}.
 	 */
-	public static final int WALL_LENGTH = 500;
+	public static final int WALL_LENGTH = ARENA_SIZE;
 
 	/**
-	 * The number of milliseconds between each movement of the {@link Snake}.
+	 * The number of milliseconds between each movement of the snake.
 	 */
 	public static final long TIME_INTERVAL = 100;
 
@@ -3,7 +3,7 @@ package snake;
 import java.awt.event.KeyEvent;
 
 /**
- * The directions that a {@link Snake} can have.
+ * The directions that a snake can have.
  * 
  * @author Joshua_Eddy
  *
@@ -6,18 +6,31 @@ import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import snake.engine.Autopilot;
+import snake.engine.Engine;
+import snake.engine.Renderer;
+import snake.engine.State;
+import snake.replay.Replay;
+import snake.replay.ReplayWriter;
 
 /**
  * Plays the retro-game of Snake. This object handles all user inputs while
- * displaying the game world to the user.
+ * displaying the game world to the user. The rules of the game are run by an
+ * {@link Engine} which passes each {@link State} back to be drawn. Pressing A
+ * hands the snake over to an {@link Autopilot} and back. Every game is recorded
+ * by a {@link ReplayWriter} to a replay in the working directory.
  * 
  * 
  * @author Joshua_Eddy
  *
  * @see Applet
  * @see KeyListener
+ * @see Renderer
  */
-public class Game extends Applet implements KeyListener {
+public class Game extends Applet implements KeyListener, Renderer {
 
 	/**
 	 * Unused.
@@ -35,19 +48,37 @@ public class Game extends Applet implements KeyListener {
 	private Thread environmentThread;
 
 	/**
-	 * The player controlled snake.
+	 * The {@link Engine} that runs the rules of the game.
 	 */
-	private Snake snake;
+	private Engine engine;
 
 	/**
-	 * Whether the next input is to be accepted by the game or not.
+	 * The latest {@link State} of the game to be drawn.
 	 */
-	private boolean acceptInput;
+	private volatile State state;
+
+	/**
+	 * The {@link ReplayWriter} that records each move of the snake. Null if the
+	 * game is not being recorded.
+	 */
+	private ReplayWriter recorder;
 
 	/**
-	 * The current score the user has accumulated by playing the game.
+	 * The {@link Autopilot} that steers the snake while
+	 * {@link Game#autopilotEnabled} is set.
 	 */
-	private int score;
+	private Autopilot autopilot;
+
+	/**
+	 * Whether the snake is steered by the {@link Game#autopilot} rather than the
+	 * user. Set by the event thread and read by the thread that moves the snake.
+	 */
+	private volatile boolean autopilotEnabled;
+
+	/**
+	 * Whether the next input is to be accepted by the game or not.
+	 */
+	private boolean acceptInput;
 
 	/**
 	 * Whether the game is currently active or not.
@@ -73,7 +104,6 @@ public class Game extends Applet implements KeyListener {
 		run = true;
 		pause = false;
 		acceptInput = true;
-		score = 0;
 
 		arena = new Arena();
 
@@ -81,8 +111,22 @@ public class Game extends Applet implements KeyListener {
 		this.addKeyListener(this);
 
 		// Snake
-		direction = Direction.RIGHT;
-		snake = new Snake(direction);
+		long seed = System.nanoTime();
+		engine = new Engine(Arena.RULES, seed);
+		engine.setRenderer(this);
+		direction = Arena.RULES.getStartDirection();
+		state = engine.getState();
+
+		// Autopilot
+		autopilot = new Autopilot();
+		autopilotEnabled = false;
+
+		// Replay
+		try {
+			recorder = new ReplayWriter(Paths.get("snake-" + seed + Replay.EXTENSION), Arena.RULES, seed);
+		} catch (IOException | SecurityException e) {
+			System.err.println("The game will not be recorded: " + e.getMessage());
+		}
 
 	}
 
@@ -96,28 +140,59 @@ public class Game extends Applet implements KeyListener {
 		// snake has moved.
 		acceptInput = true;
 
-		// Get the current position of the snake head.
-		int x = snake.getHead().getPart().x;
-		int y = snake.getHead().getPart().y;
-
-		// If the snake has not collided with its own body or the arena.
-		if (!snake.isEatingItself() && !arena.hasCollided(x, y, direction)) {
-			
-			// If the snake has eaten the food. Add one to score and increase
-			// the snakes length.
-			if (arena.eatedFood(x, y)) {
-				snake.addPart();
-				score++;
-			}
-			
-			// Move Snake
-			snake.moveSnake(direction);
+		// Let the autopilot steer if it is enabled, keeping its direction so the user
+		// can take back control.
+		if (autopilotEnabled) {
+			engine.step(autopilot.decide(engine));
+			direction = engine.getDirection();
 		} else {
 
-			// Intercepted wall or collided with itself.
+			// Move Snake. The engine handles the collisions, food and score.
+			engine.step(direction);
+		}
+
+		// Record the direction the snake moved in.
+		if (recorder != null) {
+			try {
+				recorder.record(engine.getDirection());
+			} catch (IOException e) {
+				System.err.println("Recording stopped: " + e.getMessage());
+				stopRecording();
+			}
+		}
+
+		// Intercepted wall or collided with itself.
+		if (!engine.isAlive()) {
 			run = false;
+		}
+	}
+
+	/**
+	 * Closes the {@link Game#recorder} if the game is being recorded.
+	 */
+	private void stopRecording() {
 
+		if (recorder == null) {
+			return;
 		}
+
+		try {
+			recorder.close();
+		} catch (IOException e) {
+			System.err.println("The replay could not be saved: " + e.getMessage());
+		}
+		recorder = null;
+	}
+
+	/**
+	 * Redraws the canvas with a specified {@link State} of the game.
+	 * 
+	 * @param state
+	 *            {@link State}
+	 */
+	@Override
+	public void render(State state) {
+		this.state = state;
 		repaint();
 	}
 
@@ -133,17 +208,24 @@ public class Game extends Applet implements KeyListener {
 		setSize(Constants.ARENA_WIDTH + 100, Constants.ARENA_HEIGHT + 100);
 		Graphics2D g2 = (Graphics2D) g;
 
-		arena.draw(g2);
-
-		snake.draw(g2);
+		// Draw the arena, food and snake from the same state.
+		State state = this.state;
+		arena.draw(g2, state);
 
 		// Set to text colour.
 		g2.setColor(Color.RED);
 
 		// Draw score counter.
-		g2.drawString("Score: " + score, Constants.ARENA_X + (Constants.WALL_WIDTH / 2),
+		g2.drawString("Score: " + state.getScore(), Constants.ARENA_X + (Constants.WALL_WIDTH / 2),
 				Constants.WALL_LENGTH + Constants.ARENA_Y + (3 * Constants.WALL_WIDTH / 4));
 
+		if (autopilotEnabled) {
+
+			// If the autopilot is steering.
+			g2.drawString("AUTOPILOT", Constants.ARENA_X + Constants.WALL_LENGTH - (2 * Constants.WALL_WIDTH),
+					Constants.WALL_LENGTH + Constants.ARENA_Y + (3 * Constants.WALL_WIDTH / 4));
+		}
+
 		if (pause) {
 
 			// If the game is paused.
@@ -190,6 +272,9 @@ public class Game extends Applet implements KeyListener {
 							if (!pause)
 								move();
 						}
+
+						// The game is over so save the replay.
+						stopRecording();
 					}
 				};
 				environmentThread.start();
@@ -202,6 +287,12 @@ public class Game extends Applet implements KeyListener {
 
 					pause = !pause;
 
+				}
+				// If the user pressed A toggle the autopilot.
+				else if (event.getKeyCode() == KeyEvent.VK_A) {
+
+					autopilotEnabled = !autopilotEnabled;
+
 				}
 				// Otherwise if the input is to be accepted and the game is not
 				// paused. Process the direction the user pressed.
@@ -0,0 +1,548 @@
+package snake.engine;
+
+import java.util.Arrays;
+
+import snake.Direction;
+
+/**
+ * A {@link Controller} that steers the snake along the shortest safe path to
+ * the food.
+ * <p>
+ * The path is found with a breadth first search over the cells of the grid that
+ * knows when each part of the snake will leave its cell, so the path may pass
+ * through a cell that the tail will have left by the time the head gets there.
+ * The path is only taken if, once the snake has followed it and eaten, its head
+ * could still reach its tail, so that eating never shuts the snake in. A safe
+ * path is then cached and followed one cell per tick. The grid is only searched
+ * again when the food moves, when the snake does not end up where the path said
+ * it would or when the next cell of the path turns out to be blocked, which
+ * happens when the snake grows. If no safe path to the food exists the snake
+ * follows its own tail, which keeps open the way it came, until one does. Only
+ * if the tail cannot be reached either does the snake move towards whichever
+ * neighbouring cell has the most room around it. Cells occupied by anything
+ * other than the snake, such as the other snakes of a {@link MultiEngine}, are
+ * treated as walls.
+ * <p>
+ * Every search uses the same int arrays indexed by cell so following the path
+ * allocates nothing. As it caches the path of one game an {@link Autopilot}
+ * must not be shared between games.
+ *
+ * @author Joshua_Eddy
+ *
+ */
+public final class Autopilot implements Controller {
+
+	/**
+	 * The value of {@link Autopilot#target} and {@link Autopilot#expected} when
+	 * there is no path.
+	 */
+	private static final int NONE = -1;
+
+	/**
+	 * The {@link Rules} the arrays were sized for.
+	 */
+	private Rules rules;
+
+	/**
+	 * The cells of the path from the food back towards the head. The next cell
+	 * to move to is at the end of the path so each move shortens it by one.
+	 */
+	private int[] path;
+
+	/**
+	 * The number of cells of the path that have not been moved to.
+	 */
+	private int remaining;
+
+	/**
+	 * The cell of the food the path leads to.
+	 */
+	private int target;
+
+	/**
+	 * The cell the head should be in when the {@link Autopilot} next decides.
+	 */
+	private int expected;
+
+	/**
+	 * The cells waiting to be visited by the search, in the order they were
+	 * reached.
+	 */
+	private int[] queue;
+
+	/**
+	 * The cell each cell was reached from by the search.
+	 */
+	private int[] parent;
+
+	/**
+	 * The number of moves the search took to reach each cell.
+	 */
+	private int[] distance;
+
+	/**
+	 * The number of moves until the part of the snake in each cell leaves it.
+	 */
+	private int[] leaves;
+
+	/**
+	 * The search that each cell was last reached by. A cell has not been reached
+	 * by the current search unless its entry is {@link Autopilot#searches}.
+	 */
+	private int[] reached;
+
+	/**
+	 * The search that each entry of {@link Autopilot#leaves} was set by. The
+	 * cell is empty unless its entry is {@link Autopilot#searches}.
+	 */
+	private int[] marked;
+
+	/**
+	 * The number of cells reached by the last search.
+	 */
+	private int count;
+
+	/**
+	 * The number of searches that have been made, so that the arrays never need
+	 * to be cleared.
+	 */
+	private int searches;
+
+	/**
+	 * Constructs a new {@link Autopilot} without a path.
+	 */
+	public Autopilot() {
+		this.remaining = 0;
+		this.target = NONE;
+		this.expected = NONE;
+		this.searches = 0;
+	}
+
+	@Override
+	public Direction decide(GameView view) {
+
+		if (view.getRules() != rules) {
+			allocate(view.getRules());
+		}
+
+		int head = (int) view.getHead();
+
+		// Only search the grid again if the path is no longer valid.
+		if (remaining == 0 || head != expected || view.getFood() != target || !isFree(view, path[remaining - 1])) {
+			plan(view);
+		}
+
+		if (remaining > 0) {
+			expected = path[--remaining];
+			return getDirection(head, expected);
+		}
+
+		// There is no safe path to the food so wait for one by following the tail.
+		expected = NONE;
+		return follow(view);
+	}
+
+	/**
+	 * Discards the cached path so that the grid is searched again on the next
+	 * tick.
+	 */
+	private void reset() {
+		remaining = 0;
+		target = NONE;
+		expected = NONE;
+	}
+
+	/**
+	 * Sizes the arrays of the {@link Autopilot} for a specified {@link Rules}.
+	 *
+	 * @param rules
+	 *            {@link Rules} whose grid is small enough to hold in an array.
+	 *            NOT NULL.
+	 */
+	private void allocate(Rules rules) {
+
+		// The search needs an entry for every cell of the grid.
+		if (rules.getCells() > Occupancy.DENSE_CELLS) {
+			throw new IllegalArgumentException("The grid is too large for the autopilot to search.");
+		}
+
+		int cells = (int) rules.getCells();
+
+		this.rules = rules;
+		this.path = new int[cells];
+		this.queue = new int[cells];
+		this.parent = new int[cells];
+		this.distance = new int[cells];
+		this.leaves = new int[cells];
+		this.reached = new int[cells];
+		this.marked = new int[cells];
+		this.searches = 0;
+
+		reset();
+	}
+
+	/**
+	 * Searches the grid for the shortest path from the head of the snake to the
+	 * food and caches it. If there is no path, or the path is not
+	 * {@link Autopilot#isSafe(GameView) safe}, the cached path is left empty.
+	 *
+	 * @param view
+	 *            {@link GameView} NOT NULL.
+	 */
+	private void plan(GameView view) {
+
+		int head = (int) view.getHead();
+		int food = (int) view.getFood();
+
+		remaining = 0;
+		target = food;
+
+		if (search(view, head, food) != food) {
+			return;
+		}
+
+		// Walk back from the food to the head to store the path.
+		for (int cell = food; cell != head; cell = parent[cell]) {
+			path[remaining++] = cell;
+		}
+
+		if (remaining > 0 && !isSafe(view)) {
+			remaining = 0;
+		}
+	}
+
+	/**
+	 * Whether the snake would still have somewhere to go once it has followed
+	 * the cached path and eaten the food, which is when its head could still
+	 * reach its tail.
+	 *
+	 * @param view
+	 *            {@link GameView} NOT NULL.
+	 * @return {@code Boolean}
+	 */
+	private boolean isSafe(GameView view) {
+
+		next();
+		markFed(view);
+
+		int length = view.getLength();
+		int food = path[0];
+		int tail = length - 1 < remaining ? path[length - 1] : (int) view.getCell(length - 1 - remaining);
+		int behind = remaining > 1 ? path[1] : (int) view.getHead();
+
+		flood(view, food, NONE, food, behind);
+
+		return reached[tail] == searches;
+	}
+
+	/**
+	 * Retrieves the {@link Direction} towards the neighbouring cell from which the
+	 * tail of the snake is furthest away, so that following the tail takes the
+	 * longest way round and changes the shape of the snake rather than circling
+	 * in place. If the tail cannot be reached the snake
+	 * {@link Autopilot#escape(GameView) escapes} instead.
+	 *
+	 * @param view
+	 *            {@link GameView} NOT NULL.
+	 * @return The {@link Direction}, or null if every move is fatal.
+	 */
+	private Direction follow(GameView view) {
+
+		int head = (int) view.getHead();
+		int tail = (int) view.getCell(view.getLength() - 1);
+		Direction best = null;
+		int furthest = -1;
+
+		for (Direction direction : Direction.values()) {
+
+			int next = getNext(head, direction);
+
+			if (tail != head && direction != view.getDirection().getOpposite() && next != NONE
+					&& isFree(view, next) && search(view, next, tail) == tail && distance[tail] > furthest) {
+				furthest = distance[tail];
+				best = direction;
+			}
+		}
+
+		return best != null ? best : escape(view);
+	}
+
+	/**
+	 * Retrieves the {@link Direction} towards the neighbouring cell from which the
+	 * most cells can be reached.
+	 *
+	 * @param view
+	 *            {@link GameView} NOT NULL.
+	 * @return The {@link Direction}, or null if every move is fatal.
+	 */
+	private Direction escape(GameView view) {
+
+		int head = (int) view.getHead();
+		Direction best = null;
+		int most = -1;
+
+		for (Direction direction : Direction.values()) {
+
+			int next = getNext(head, direction);
+
+			if (direction != view.getDirection().getOpposite() && next != NONE && isFree(view, next)) {
+
+				// Count the cells reachable from the neighbour.
+				search(view, next, NONE);
+
+				if (count > most) {
+					most = count;
+					best = direction;
+				}
+			}
+		}
+
+		return best;
+	}
+
+	/**
+	 * Searches outwards from a specified cell for a specified target, only
+	 * entering a cell once the snake has left it.
+	 *
+	 * @param view
+	 *            {@link GameView} NOT NULL.
+	 * @param start
+	 *            The cell the search starts from.
+	 * @param target
+	 *            The cell that ends the search once reached, or
+	 *            {@link Autopilot#NONE} to reach every cell possible.
+	 * @return The target if it was reached, otherwise {@link Autopilot#NONE}.
+	 */
+	private int search(GameView view, int start, int target) {
+
+		next();
+		markSnake(view);
+
+		// The first move of the snake cannot reverse it back into its neck.
+		int head = (int) view.getHead();
+		return flood(view, start, target, head, getNext(head, view.getDirection().getOpposite()));
+	}
+
+	/**
+	 * Searches outwards from a specified cell for a specified target, using the
+	 * cells of the snake marked for the current search.
+	 *
+	 * @param view
+	 *            {@link GameView} NOT NULL.
+	 * @param start
+	 *            The cell the search starts from.
+	 * @param target
+	 *            The cell that ends the search once reached, or
+	 *            {@link Autopilot#NONE} to reach every cell possible.
+	 * @param head
+	 *            The cell of the head of the snake.
+	 * @param behind
+	 *            The cell the head cannot move back into on its first move.
+	 * @return The target if it was reached, otherwise {@link Autopilot#NONE}.
+	 */
+	private int flood(GameView view, int start, int target, int head, int behind) {
+
+		int columns = rules.getColumns();
+		int rows = rules.getRows();
+
+		int read = 0;
+		int write = 0;
+
+		queue[write++] = start;
+		reached[start] = searches;
+		distance[start] = start == head ? 0 : 1;
+
+		while (read < write) {
+
+			int cell = queue[read++];
+
+			if (cell == target) {
+				count = write;
+				return target;
+			}
+
+			int column = cell % columns;
+			int row = cell / columns;
+			int moves = distance[cell] + 1;
+
+			for (int side = 0; side < 4; side++) {
+
+				int neighbour;
+				switch (side) {
+				case 0:
+					neighbour = row > 0 ? cell - columns : NONE;
+					break;
+				case 1:
+					neighbour = row < rows - 1 ? cell + columns : NONE;
+					break;
+				case 2:
+					neighbour = column > 0 ? cell - 1 : NONE;
+					break;
+				default:
+					neighbour = column < columns - 1 ? cell + 1 : NONE;
+					break;
+				}
+
+				if (neighbour == NONE || reached[neighbour] == searches || (cell == head && neighbour == behind)) {
+					continue;
+				}
+
+				// Only enter the cell if the snake will have left it. A cell occupied by
+				// anything other than the snake is never entered.
+				if (marked[neighbour] == searches ? leaves[neighbour] > moves : view.isOccupied(neighbour)) {
+					continue;
+				}
+
+				reached[neighbour] = searches;
+				parent[neighbour] = cell;
+				distance[neighbour] = moves;
+				queue[write++] = neighbour;
+			}
+		}
+
+		count = write;
+		return NONE;
+	}
+
+	/**
+	 * Records how many moves it will take each part of the snake to leave its
+	 * cell for the current search.
+	 *
+	 * @param view
+	 *            {@link GameView} NOT NULL.
+	 */
+	private void markSnake(GameView view) {
+
+		int length = view.getLength();
+
+		// If the head is on the food the tail stays put for the next move.
+		int growth = view.getHead() == view.getFood() ? 1 : 0;
+
+		// Mark from the tail so that the part nearest the head wins if the snake
+		// overlaps itself.
+		for (int index = length - 1; index >= 0; index--) {
+			int cell = (int) view.getCell(index);
+			marked[cell] = searches;
+			leaves[cell] = length - index + growth;
+		}
+	}
+
+	/**
+	 * Records how many moves it will take each part of the snake to leave its
+	 * cell for the current search, as if the snake had followed the cached path
+	 * and its head were on the food.
+	 *
+	 * @param view
+	 *            {@link GameView} NOT NULL.
+	 */
+	private void markFed(GameView view) {
+
+		int length = view.getLength();
+
+		// The snake has left every cell it does not still cover.
+		for (int index = 0; index < length; index++) {
+			int cell = (int) view.getCell(index);
+			marked[cell] = searches;
+			leaves[cell] = 0;
+		}
+
+		// The head is on the food so the tail stays put for the next move. The
+		// path is behind the head and the rest of the snake behind the path.
+		for (int index = length - 1; index >= 0; index--) {
+			int cell = index < remaining ? path[index] : (int) view.getCell(index - remaining);
+			marked[cell] = searches;
+			leaves[cell] = length - index + 1;
+		}
+	}
+
+	/**
+	 * Whether the head of the snake can move into a specified neighbouring cell
+	 * on the next tick without colliding with itself.
+	 *
+	 * @param view
+	 *            {@link GameView} NOT NULL.
+	 * @param cell
+	 *            A cell next to the head.
+	 * @return {@code Boolean}
+	 */
+	private boolean isFree(GameView view, int cell) {
+
+		if (!view.isOccupied(cell)) {
+			return true;
+		}
+
+		// The tail leaves its cell before the head moves unless the snake grows.
+		int length = view.getLength();
+		return length > 1 && cell == view.getCell(length - 1) && view.getHead() != view.getFood();
+	}
+
+	/**
+	 * Starts a new search, clearing the marks of the previous searches if the
+	 * count of searches overflows.
+	 */
+	private void next() {
+
+		if (++searches == Integer.MAX_VALUE) {
+			Arrays.fill(reached, 0);
+			Arrays.fill(marked, 0);
+			searches = 1;
+		}
+	}
+
+	/**
+	 * Retrieves the cell next to a specified cell in a specified
+	 * {@link Direction}.
+	 *
+	 * @param cell
+	 *            A cell of the grid.
+	 * @param direction
+	 *            {@link Direction} NOT NULL.
+	 * @return The cell, or {@link Autopilot#NONE} if it is outside the grid.
+	 */
+	private int getNext(int cell, Direction direction) {
+
+		int column = rules.getColumn(cell);
+		int row = rules.getRow(cell);
+
+		switch (direction) {
+		case UP:
+			row--;
+			break;
+		case DOWN:
+			row++;
+			break;
+		case LEFT:
+			column--;
+			break;
+		default:
+			column++;
+			break;
+		}
+
+		return rules.isInside(column, row) ? (int) rules.getCell(column, row) : NONE;
+	}
+
+	/**
+	 * Retrieves the {@link Direction} from a specified cell to a neighbouring
+	 * cell.
+	 *
+	 * @param from
+	 *            A cell of the grid.
+	 * @param to
+	 *            A cell next to it.
+	 * @return {@link Direction}
+	 */
+	private Direction getDirection(int from, int to) {
+
+		if (to == from + 1) {
+			return Direction.RIGHT;
+		} else if (to == from - 1) {
+			return Direction.LEFT;
+		} else if (to < from) {
+			return Direction.UP;
+		} else {
+			return Direction.DOWN;
+		}
+	}
+
+}
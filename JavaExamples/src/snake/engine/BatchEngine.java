@@ -0,0 +1,584 @@
+package snake.engine;
+
+import java.util.Arrays;
+
+import snake.Direction;
+
+/**
+ * Runs many independent games of snake in lockstep. Every game follows exactly
+ * the same rules as an {@link Engine}, and a game started from seed
+ * <code>firstSeed + game</code> plays out exactly as
+ * <code>new Engine(rules, firstSeed + game)</code> would given the same turns.
+ * <p>
+ * The games are held as parallel primitive arrays rather than one object per
+ * game. Each tick first works out where every head moves and which games hit a
+ * wall in plain loops over those arrays, which the JIT can vectorise, then
+ * updates the grid of each game that is still alive. Rather than a body buffer
+ * each game keeps, for each occupied cell, the cell of the part in front of it
+ * so the tail can follow the snake in constant time. Each game needs two
+ * <code>int</code>s per cell of the grid and one per cell of the food area.
+ *
+ * @author Joshua_Eddy
+ *
+ * @see Engine
+ *
+ */
+public final class BatchEngine {
+
+	/**
+	 * The value in {@link BatchEngine#links} of a cell the snake does not
+	 * occupy.
+	 */
+	private static final int EMPTY = -1;
+
+	/**
+	 * The change in column of a move along each {@link Direction} by its ordinal.
+	 */
+	private static final int[] COLUMN_DELTAS = new int[Direction.values().length];
+
+	/**
+	 * The change in row of a move along each {@link Direction} by its ordinal.
+	 */
+	private static final int[] ROW_DELTAS = new int[Direction.values().length];
+
+	/**
+	 * Every {@link Direction} by its ordinal.
+	 */
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	static {
+		COLUMN_DELTAS[Direction.LEFT.ordinal()] = -1;
+		COLUMN_DELTAS[Direction.RIGHT.ordinal()] = 1;
+		ROW_DELTAS[Direction.UP.ordinal()] = -1;
+		ROW_DELTAS[Direction.DOWN.ordinal()] = 1;
+	}
+
+	/**
+	 * The {@link Rules} every game is played by.
+	 */
+	private final Rules rules;
+
+	/**
+	 * The number of games.
+	 */
+	private final int games;
+
+	/**
+	 * The number of cells in the grid of each game.
+	 */
+	private final int cells;
+
+	/**
+	 * The number of cells in the food area of each game.
+	 */
+	private final int foodCells;
+
+	/**
+	 * The column of the head of each game.
+	 */
+	private final int[] headColumns;
+
+	/**
+	 * The row of the head of each game.
+	 */
+	private final int[] headRows;
+
+	/**
+	 * The column the head of each game moves into this tick.
+	 */
+	private final int[] nextColumns;
+
+	/**
+	 * The row the head of each game moves into this tick.
+	 */
+	private final int[] nextRows;
+
+	/**
+	 * The ordinal of the {@link Direction} each snake is moving.
+	 */
+	private final int[] directions;
+
+	/**
+	 * The change in column each snake makes when it moves.
+	 */
+	private final int[] columnDeltas;
+
+	/**
+	 * The change in row each snake makes when it moves.
+	 */
+	private final int[] rowDeltas;
+
+	/**
+	 * The cell the tail of each snake is in.
+	 */
+	private final int[] tails;
+
+	/**
+	 * The number of cells each snake occupies.
+	 */
+	private final int[] lengths;
+
+	/**
+	 * The cell the food of each game is in.
+	 */
+	private final int[] foods;
+
+	/**
+	 * The score of each game.
+	 */
+	private final int[] scores;
+
+	/**
+	 * The number of ticks each snake has moved.
+	 */
+	private final long[] ticks;
+
+	/**
+	 * The seed of the random number generator of each game.
+	 */
+	private final long[] randoms;
+
+	/**
+	 * Whether each snake has not yet collided with a wall or itself.
+	 */
+	private final boolean[] alive;
+
+	/**
+	 * Whether the head of each snake has moved into a cell its body already
+	 * occupies. The snake dies at the start of the next tick.
+	 */
+	private final boolean[] biting;
+
+	/**
+	 * For every cell of every game the cell of the part of the snake in front of
+	 * the part in that cell, the cell itself for the head or
+	 * {@link BatchEngine#EMPTY}. The cells of game <code>g</code> start at
+	 * <code>g * cells</code>.
+	 */
+	private final int[] links;
+
+	/**
+	 * The Fenwick tree counting the empty cells of the food area of every game,
+	 * as held by {@link FreeCells}. The tree of game <code>g</code> starts after
+	 * <code>g * (foodCells + 1)</code>.
+	 */
+	private final int[] freeTrees;
+
+	/**
+	 * The number of empty cells in the food area of each game.
+	 */
+	private final int[] freeSizes;
+
+	/**
+	 * The number of games that are still alive.
+	 */
+	private int living;
+
+	/**
+	 * Constructs a new {@link BatchEngine} with every game at its start.
+	 *
+	 * @param rules
+	 *            The {@link Rules} every game is played by. NOT NULL.
+	 * @param games
+	 *            The number of games. Greater than zero.
+	 * @param firstSeed
+	 *            The seed of the first game. Each following game uses the next
+	 *            seed.
+	 */
+	public BatchEngine(Rules rules, int games, long firstSeed) {
+
+		if (rules == null) {
+			throw new IllegalArgumentException("Rules cannot be null.");
+		}
+		if (games <= 0) {
+			throw new IllegalArgumentException("There must be at least one game.");
+		}
+		if ((long) games * (rules.getCells() + 1) > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Too many games to hold the grid of each in one array.");
+		}
+
+		this.rules = rules;
+		this.games = games;
+		this.cells = (int) rules.getCells();
+		this.foodCells = rules.getFoodColumns() * rules.getFoodRows();
+
+		this.headColumns = new int[games];
+		this.headRows = new int[games];
+		this.nextColumns = new int[games];
+		this.nextRows = new int[games];
+		this.directions = new int[games];
+		this.columnDeltas = new int[games];
+		this.rowDeltas = new int[games];
+		this.tails = new int[games];
+		this.lengths = new int[games];
+		this.foods = new int[games];
+		this.scores = new int[games];
+		this.ticks = new long[games];
+		this.randoms = new long[games];
+		this.alive = new boolean[games];
+		this.biting = new boolean[games];
+		this.links = new int[games * cells];
+		this.freeTrees = new int[games * (foodCells + 1)];
+		this.freeSizes = new int[games];
+
+		Arrays.fill(links, EMPTY);
+
+		int start = (int) rules.getStart();
+		int direction = rules.getStartDirection().ordinal();
+
+		// Start every game in the same way as an engine.
+		for (int game = 0; game < games; game++) {
+
+			headColumns[game] = rules.getColumn(start);
+			headRows[game] = rules.getRow(start);
+			directions[game] = direction;
+			columnDeltas[game] = COLUMN_DELTAS[direction];
+			rowDeltas[game] = ROW_DELTAS[direction];
+			tails[game] = start;
+			lengths[game] = 1;
+			foods[game] = (int) rules.getFirstFood();
+			randoms[game] = Lcg.scramble(firstSeed + game);
+			alive[game] = true;
+
+			FreeCells.fill(freeTrees, game * (foodCells + 1), foodCells);
+			freeSizes[game] = foodCells;
+			enter(game, start);
+		}
+
+		this.living = games;
+	}
+
+	/**
+	 * Moves every game that is still alive on by one tick.
+	 *
+	 * @param turns
+	 *            The {@link Direction} each snake is turned to before it moves, by
+	 *            game. A null element or a {@link Direction} opposite to the one
+	 *            the snake is moving carries the snake on in a straight line. If
+	 *            the array is null every snake carries on in a straight line.
+	 * @return The number of games that are still alive.
+	 */
+	public int step(Direction[] turns) {
+
+		if (turns != null && turns.length != games) {
+			throw new IllegalArgumentException("There must be one turn for each game.");
+		}
+
+		// Turn each snake that is alive unless it would turn back on itself.
+		if (turns != null) {
+			for (int game = 0; game < games; game++) {
+				Direction turn = turns[game];
+				if (turn != null && alive[game] && turn != DIRECTIONS[directions[game]].getOpposite()) {
+					int direction = turn.ordinal();
+					directions[game] = direction;
+					columnDeltas[game] = COLUMN_DELTAS[direction];
+					rowDeltas[game] = ROW_DELTAS[direction];
+				}
+			}
+		}
+
+		// Work out where every head moves.
+		for (int game = 0; game < games; game++) {
+			nextColumns[game] = headColumns[game] + columnDeltas[game];
+		}
+		for (int game = 0; game < games; game++) {
+			nextRows[game] = headRows[game] + rowDeltas[game];
+		}
+
+		// A snake dies if it bit itself last tick or would move into a wall.
+		int columns = rules.getColumns();
+		int rows = rules.getRows();
+		for (int game = 0; game < games; game++) {
+			alive[game] = alive[game] & !biting[game] & nextColumns[game] >= 0 & nextColumns[game] < columns
+					& nextRows[game] >= 0 & nextRows[game] < rows;
+		}
+
+		// Move every snake that is still alive.
+		living = 0;
+		for (int game = 0; game < games; game++) {
+			if (alive[game]) {
+				move(game);
+				living++;
+			}
+		}
+
+		return living;
+	}
+
+	/**
+	 * Retrieves an immutable copy of the current state of a specified game, the
+	 * same as {@link Engine#getState()}.
+	 *
+	 * @param game
+	 *            The index of the game.
+	 * @return {@link State}
+	 */
+	public State getState(int game) {
+
+		int base = game * cells;
+		long[] body = new long[lengths[game]];
+
+		// Follow the snake from the tail to the head.
+		int cell = tails[game];
+		for (int index = body.length - 1; index > 0; index--) {
+			body[index] = cell;
+			cell = links[base + cell];
+		}
+		body[0] = getHead(game);
+
+		return new State(rules, body, DIRECTIONS[directions[game]], foods[game], scores[game], alive[game],
+				ticks[game], randoms[game]);
+	}
+
+	/**
+	 * @return The {@link Rules} every game is played by.
+	 */
+	public Rules getRules() {
+		return rules;
+	}
+
+	/**
+	 * @return The number of games.
+	 */
+	public int getGames() {
+		return games;
+	}
+
+	/**
+	 * @return The number of games that are still alive.
+	 */
+	public int getLiving() {
+		return living;
+	}
+
+	/**
+	 * Retrieves whether the snake of a specified game has not yet collided.
+	 *
+	 * @param game
+	 *            The index of the game.
+	 * @return {@code Boolean}
+	 */
+	public boolean isAlive(int game) {
+		return alive[game];
+	}
+
+	/**
+	 * Retrieves the cell the head of the snake of a specified game is in.
+	 *
+	 * @param game
+	 *            The index of the game.
+	 * @return The cell.
+	 */
+	public int getHead(int game) {
+		return (headRows[game] * rules.getColumns()) + headColumns[game];
+	}
+
+	/**
+	 * Retrieves the {@link Direction} the snake of a specified game is moving.
+	 *
+	 * @param game
+	 *            The index of the game.
+	 * @return {@link Direction}
+	 */
+	public Direction getDirection(int game) {
+		return DIRECTIONS[directions[game]];
+	}
+
+	/**
+	 * Retrieves whether any part of the snake of a specified game is in a
+	 * specified cell.
+	 *
+	 * @param game
+	 *            The index of the game.
+	 * @param cell
+	 *            A cell of the grid.
+	 * @return {@code Boolean}
+	 */
+	public boolean isOccupied(int game, int cell) {
+		return links[(game * cells) + cell] != EMPTY;
+	}
+
+	/**
+	 * Retrieves the number of cells the snake of a specified game occupies.
+	 *
+	 * @param game
+	 *            The index of the game.
+	 * @return The length.
+	 */
+	public int getLength(int game) {
+		return lengths[game];
+	}
+
+	/**
+	 * Retrieves the cell the food of a specified game is in.
+	 *
+	 * @param game
+	 *            The index of the game.
+	 * @return The cell.
+	 */
+	public int getFood(int game) {
+		return foods[game];
+	}
+
+	/**
+	 * Retrieves the number of pieces of food eaten in a specified game.
+	 *
+	 * @param game
+	 *            The index of the game.
+	 * @return The score.
+	 */
+	public int getScore(int game) {
+		return scores[game];
+	}
+
+	/**
+	 * Retrieves the number of ticks the snake of a specified game has moved.
+	 *
+	 * @param game
+	 *            The index of the game.
+	 * @return The number of ticks.
+	 */
+	public long getTick(int game) {
+		return ticks[game];
+	}
+
+	/**
+	 * Moves the snake of a specified game into the cell worked out by
+	 * {@link BatchEngine#step(Direction[])} in the same way as an
+	 * {@link Engine}.
+	 *
+	 * @param game
+	 *            The index of a game that is alive.
+	 */
+	private void move(int game) {
+
+		int base = game * cells;
+		int head = getHead(game);
+		int next = (nextRows[game] * rules.getColumns()) + nextColumns[game];
+
+		// If the snake has eaten the food keep its tail so that it grows.
+		boolean grow = head == foods[game];
+
+		links[base + head] = next;
+
+		if (grow) {
+			lengths[game]++;
+		} else {
+
+			// The tail leaves its cell and the part in front becomes the tail.
+			int tail = tails[game];
+			tails[game] = links[base + tail];
+			links[base + tail] = EMPTY;
+			addFree(game, tail);
+		}
+
+		// The head enters its cell.
+		enter(game, next);
+		headColumns[game] = nextColumns[game];
+		headRows[game] = nextRows[game];
+
+		// Add one to the score and place new food now that the cells the snake
+		// occupies are known.
+		if (grow) {
+			scores[game]++;
+			foods[game] = generateFood(game);
+		}
+		ticks[game]++;
+	}
+
+	/**
+	 * Records the head of the snake of a specified game entering a specified
+	 * cell.
+	 *
+	 * @param game
+	 *            The index of the game.
+	 * @param cell
+	 *            A cell of the grid.
+	 */
+	private void enter(int game, int cell) {
+
+		int index = (game * cells) + cell;
+
+		// If the cell is already occupied the snake has bitten itself. The link of
+		// the cell is kept so the rest of the body can still be followed.
+		if (links[index] != EMPTY) {
+			biting[game] = true;
+		} else {
+			links[index] = cell;
+			removeFree(game, cell);
+		}
+	}
+
+	/**
+	 * Adds a cell that has become empty to the free cells of a specified game in
+	 * the same way as {@link FreeCells#add(int)}.
+	 *
+	 * @param game
+	 *            The index of the game.
+	 * @param cell
+	 *            A cell of the grid.
+	 */
+	private void addFree(int game, int cell) {
+
+		int position = FreeCells.getPosition(rules, cell);
+
+		if (position >= 0) {
+			freeSizes[game]++;
+			FreeCells.update(freeTrees, game * (foodCells + 1), foodCells, position, 1);
+		}
+	}
+
+	/**
+	 * Removes a cell that has become occupied from the free cells of a specified
+	 * game in the same way as {@link FreeCells#remove(int)}.
+	 *
+	 * @param game
+	 *            The index of the game.
+	 * @param cell
+	 *            A cell of the grid.
+	 */
+	private void removeFree(int game, int cell) {
+
+		int position = FreeCells.getPosition(rules, cell);
+
+		if (position >= 0) {
+			freeSizes[game]--;
+			FreeCells.update(freeTrees, game * (foodCells + 1), foodCells, position, -1);
+		}
+	}
+
+	/**
+	 * Retrieves a random empty cell of a specified game in which food can be
+	 * placed in the same way as an {@link Engine}.
+	 *
+	 * @param game
+	 *            The index of the game.
+	 * @return The cell.
+	 */
+	private int generateFood(int game) {
+
+		if (freeSizes[game] == 0) {
+			return foods[game];
+		}
+
+		int index = nextInt(game, freeSizes[game]);
+		return (int) FreeCells.getCell(rules, FreeCells.select(freeTrees, game * (foodCells + 1), foodCells, index));
+	}
+
+	/**
+	 * Retrieves the next random integer between zero and a specified bound from
+	 * the random number generator of a specified game in the same way as an
+	 * {@link Engine}.
+	 *
+	 * @param game
+	 *            The index of the game.
+	 * @param bound
+	 *            The exclusive upper bound. Greater than zero.
+	 * @return The random integer.
+	 */
+	private int nextInt(int game, int bound) {
+		randoms[game] = Lcg.nextInt(randoms[game], bound);
+		return Lcg.getInt(randoms[game], bound);
+	}
+
+}
@@ -0,0 +1,26 @@
+package snake.engine;
+
+import snake.Direction;
+
+/**
+ * Decides which {@link Direction} a snake moves each tick in place of a player
+ * at a keyboard.
+ *
+ * @author Joshua_Eddy
+ *
+ * @see GameView
+ *
+ */
+public interface Controller {
+
+	/**
+	 * Decides which {@link Direction} the snake turns to before its next move.
+	 *
+	 * @param view
+	 *            The {@link GameView} of the game before the move. NOT NULL.
+	 * @return The {@link Direction} to turn to, or null to carry on in a
+	 *         straight line.
+	 */
+	public Direction decide(GameView view);
+
+}
@@ -0,0 +1,573 @@
+package snake.engine;
+
+import snake.Direction;
+
+/**
+ * Runs a single game of snake without displaying it. Each tick the snake's
+ * head is checked for collisions with itself and the walls, then the snake
+ * moves one cell along its {@link Direction} and finally the food is eaten if
+ * the head was on it. A snake that has eaten keeps its tail for one tick so it
+ * grows by one cell. The cells the snake occupies are tracked by an
+ * {@link Occupancy} and its body is held in a circular buffer so that no tick
+ * has to walk the body of the snake. Food is placed uniformly among the
+ * {@link FreeCells} so it never appears inside the snake. If the food area is
+ * too large for {@link FreeCells} random cells of it are drawn until an empty
+ * one is found, which only takes more than one draw in the rare case that the
+ * snake is in the way.
+ * <p>
+ * An {@link Engine} is mutable so that {@link Engine#advance(Direction)} can
+ * move the snake without allocating anything. {@link Engine#step(Direction)}
+ * also returns an immutable {@link State} of the game and passes it to the
+ * {@link Renderer}, if there is one. The {@link Engine} is also the
+ * {@link GameView} of its game.
+ *
+ * @author Joshua_Eddy
+ *
+ * @see Rules
+ * @see State
+ *
+ */
+public final class Engine implements GameView {
+
+	/**
+	 * The number of cells the body of the snake can hold before it must grow.
+	 * Always a power of two.
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * The {@link Rules} of the game.
+	 */
+	private final Rules rules;
+
+	/**
+	 * The circular buffer of the cells of the snake. The snake is ordered from the
+	 * head at {@link Engine#head} and wraps around the end of the array. The
+	 * length of the array is always a power of two.
+	 */
+	private long[] body;
+
+	/**
+	 * The index in {@link Engine#body} of the head of the snake.
+	 */
+	private int head;
+
+	/**
+	 * The number of cells the snake occupies.
+	 */
+	private int length;
+
+	/**
+	 * The {@link Occupancy} of the cells of the grid by the snake.
+	 */
+	private final Occupancy occupancy;
+
+	/**
+	 * The empty cells that food can be placed in. Null if the food area is too
+	 * large to hold in a {@link FreeCells}.
+	 */
+	private final FreeCells freeCells;
+
+	/**
+	 * The number of empty cells that food can be placed in.
+	 */
+	private long freeFood;
+
+	/**
+	 * The {@link Direction} the snake is moving.
+	 */
+	private Direction direction;
+
+	/**
+	 * The cell the food is in.
+	 */
+	private long food;
+
+	/**
+	 * The number of pieces of food that have been eaten.
+	 */
+	private int score;
+
+	/**
+	 * Whether the snake has not yet collided with a wall or itself.
+	 */
+	private boolean alive;
+
+	/**
+	 * The number of ticks the snake has moved.
+	 */
+	private long tick;
+
+	/**
+	 * The seed of the random number generator that places the food.
+	 */
+	private long random;
+
+	/**
+	 * The {@link Renderer} that each {@link State} returned by
+	 * {@link Engine#step(Direction)} is passed to. Null if the game is headless.
+	 */
+	private Renderer renderer;
+
+	/**
+	 * Constructs a new {@link Engine} at the start of a game.
+	 *
+	 * @param rules
+	 *            The {@link Rules} of the game. NOT NULL.
+	 * @param seed
+	 *            The seed of the random number generator that places the food.
+	 */
+	public Engine(Rules rules, long seed) {
+
+		if (rules == null) {
+			throw new IllegalArgumentException("Rules cannot be null.");
+		}
+
+		this.rules = rules;
+		this.body = new long[INITIAL_CAPACITY];
+		this.body[0] = rules.getStart();
+		this.head = 0;
+		this.length = 1;
+		this.occupancy = new Occupancy(rules);
+		this.freeCells = FreeCells.fits(rules) ? new FreeCells(rules) : null;
+		this.freeFood = (long) rules.getFoodColumns() * rules.getFoodRows();
+		enter(body[0]);
+		this.direction = rules.getStartDirection();
+		this.food = rules.getFirstFood();
+		this.score = 0;
+		this.alive = true;
+		this.tick = 0;
+		this.random = Lcg.scramble(seed);
+	}
+
+	/**
+	 * Constructs a new {@link Engine} that carries on a game from a specified
+	 * {@link State}.
+	 *
+	 * @param state
+	 *            {@link State} NOT NULL.
+	 */
+	public Engine(State state) {
+
+		if (state == null) {
+			throw new IllegalArgumentException("State cannot be null.");
+		}
+
+		this.rules = state.getRules();
+		this.length = state.getLength();
+		this.head = 0;
+
+		// Make the body the smallest power of two that holds the snake.
+		int capacity = INITIAL_CAPACITY;
+		while (capacity < length) {
+			capacity <<= 1;
+		}
+		this.body = new long[capacity];
+
+		this.occupancy = new Occupancy(rules);
+		this.freeCells = FreeCells.fits(rules) ? new FreeCells(rules) : null;
+		this.freeFood = (long) rules.getFoodColumns() * rules.getFoodRows();
+		for (int index = 0; index < length; index++) {
+			body[index] = state.getCell(index);
+			enter(body[index]);
+		}
+		this.direction = state.getDirection();
+		this.food = state.getFood();
+		this.score = state.getScore();
+		this.alive = state.isAlive();
+		this.tick = state.getTick();
+		this.random = state.getRandom();
+	}
+
+	/**
+	 * Steps a specified {@link State} by one tick without modifying it.
+	 *
+	 * @param state
+	 *            {@link State} NOT NULL.
+	 * @param direction
+	 *            The {@link Direction} the snake is turned to before it moves. If
+	 *            null or opposite to the direction the snake is moving it carries
+	 *            on in a straight line.
+	 * @return The {@link State} after the tick.
+	 */
+	public static State step(State state, Direction direction) {
+
+		Engine engine = new Engine(state);
+		engine.advance(direction);
+		return engine.getState();
+	}
+
+	/**
+	 * Sets the {@link Renderer} that each {@link State} returned by
+	 * {@link Engine#step(Direction)} is passed to.
+	 *
+	 * @param renderer
+	 *            {@link Renderer} or null to run headless.
+	 */
+	public void setRenderer(Renderer renderer) {
+		this.renderer = renderer;
+	}
+
+	/**
+	 * Moves the game on by one tick then passes the resulting {@link State} to
+	 * the {@link Renderer}.
+	 *
+	 * @param direction
+	 *            The {@link Direction} the snake is turned to before it moves. If
+	 *            null or opposite to the direction the snake is moving it carries
+	 *            on in a straight line.
+	 * @return The {@link State} after the tick.
+	 */
+	public State step(Direction direction) {
+
+		advance(direction);
+
+		State state = getState();
+
+		if (renderer != null) {
+			renderer.render(state);
+		}
+
+		return state;
+	}
+
+	/**
+	 * Moves the game on by one tick. Does nothing once the snake has collided.
+	 *
+	 * @param direction
+	 *            The {@link Direction} the snake is turned to before it moves. If
+	 *            null or opposite to the direction the snake is moving it carries
+	 *            on in a straight line.
+	 * @return Whether the snake is still alive.
+	 */
+	public boolean advance(Direction direction) {
+
+		if (!alive) {
+			return false;
+		}
+
+		// The snake cannot turn back on itself.
+		if (direction != null && direction != this.direction.getOpposite()) {
+			this.direction = direction;
+		}
+
+		long cell = body[head];
+
+		// If the snake has collided with its own body or the walls the game is over.
+		if (isEatingItself() || hasCollided()) {
+			alive = false;
+			return false;
+		}
+
+		// If the snake has eaten the food keep its tail so that it grows.
+		boolean grow = cell == food;
+		move(getNext(cell), grow);
+
+		// Add one to the score and place new food now that the cells the snake
+		// occupies are known.
+		if (grow) {
+			score++;
+			food = generateFood();
+		}
+		tick++;
+
+		return true;
+	}
+
+	/**
+	 * Retrieves an immutable copy of the current state of the game.
+	 *
+	 * @return {@link State}
+	 */
+	public State getState() {
+		return new State(rules, copyBody(new long[length]), direction, food, score, alive, tick, random);
+	}
+
+	/**
+	 * @return The {@link Rules} of the game.
+	 */
+	@Override
+	public Rules getRules() {
+		return rules;
+	}
+
+	/**
+	 * @return The number of cells the snake occupies.
+	 */
+	@Override
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * @return The cell the head of the snake is in.
+	 */
+	@Override
+	public long getHead() {
+		return body[head];
+	}
+
+	/**
+	 * Retrieves the cell of a specified part of the snake.
+	 *
+	 * @param index
+	 *            The position of the part where zero is the head. Less than the
+	 *            length of the snake.
+	 * @return The cell.
+	 */
+	@Override
+	public long getCell(int index) {
+		return body[(head + index) & (body.length - 1)];
+	}
+
+	/**
+	 * Whether any part of the snake is in a specified cell.
+	 *
+	 * @param cell
+	 *            A cell of the grid.
+	 * @return {@code Boolean}
+	 */
+	@Override
+	public boolean isOccupied(long cell) {
+		return occupancy.isOccupied(cell);
+	}
+
+	/**
+	 * @return The {@link Direction} the snake is moving.
+	 */
+	@Override
+	public Direction getDirection() {
+		return direction;
+	}
+
+	/**
+	 * @return The cell the food is in.
+	 */
+	@Override
+	public long getFood() {
+		return food;
+	}
+
+	/**
+	 * @return The number of pieces of food that have been eaten.
+	 */
+	@Override
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * @return Whether the snake has not yet collided with a wall or itself.
+	 */
+	public boolean isAlive() {
+		return alive;
+	}
+
+	/**
+	 * @return The number of ticks the snake has moved.
+	 */
+	@Override
+	public long getTick() {
+		return tick;
+	}
+
+	/**
+	 * Whether the head of the snake is in the same cell as any other part of the
+	 * snake.
+	 *
+	 * @return {@code Boolean}
+	 */
+	private boolean isEatingItself() {
+		return occupancy.getCount(body[head]) > 1;
+	}
+
+	/**
+	 * Whether the head of the snake would move into a wall along its current
+	 * {@link Direction}.
+	 *
+	 * @return {@code Boolean}
+	 */
+	private boolean hasCollided() {
+
+		int column = rules.getColumn(body[head]);
+		int row = rules.getRow(body[head]);
+
+		switch (direction) {
+		case RIGHT:
+			return column + 1 >= rules.getColumns();
+		case LEFT:
+			return column - 1 < 0;
+		case UP:
+			return row - 1 < 0;
+		case DOWN:
+			return row + 1 >= rules.getRows();
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Retrieves the cell next to a specified cell along the current
+	 * {@link Direction}. The cell must not be next to a wall in that direction.
+	 *
+	 * @param cell
+	 *            A cell of the grid.
+	 * @return The next cell.
+	 */
+	private long getNext(long cell) {
+
+		switch (direction) {
+		case RIGHT:
+			return cell + 1;
+		case LEFT:
+			return cell - 1;
+		case UP:
+			return cell - rules.getColumns();
+		case DOWN:
+			return cell + rules.getColumns();
+		default:
+			return cell;
+		}
+	}
+
+	/**
+	 * Moves the head of the snake into a specified cell with each other part
+	 * following the part in front of it.
+	 *
+	 * @param next
+	 *            The cell the head moves into.
+	 * @param grow
+	 *            Whether the tail is kept so that the snake grows by one cell.
+	 */
+	private void move(long next, boolean grow) {
+
+		if (grow) {
+
+			// If the body is full double its capacity.
+			if (length == body.length) {
+				body = copyBody(new long[length * 2]);
+				head = 0;
+			}
+			length++;
+		} else {
+
+			// The tail leaves its cell.
+			leave(getCell(length - 1));
+		}
+
+		// Write the new head in front of the old one. Unless the snake grew this
+		// overwrites the slot of the old tail once the buffer is full.
+		head = (head - 1) & (body.length - 1);
+		body[head] = next;
+
+		// The head enters its cell.
+		enter(next);
+	}
+
+	/**
+	 * Records a part of the snake entering a specified cell.
+	 *
+	 * @param cell
+	 *            A cell of the grid.
+	 */
+	private void enter(long cell) {
+
+		occupancy.enter(cell);
+
+		// Food cannot be placed in the cell while it is occupied.
+		if (occupancy.getCount(cell) == 1 && isFoodArea(cell)) {
+			freeFood--;
+			if (freeCells != null) {
+				freeCells.remove(cell);
+			}
+		}
+	}
+
+	/**
+	 * Records a part of the snake leaving a specified cell.
+	 *
+	 * @param cell
+	 *            A cell of the grid.
+	 */
+	private void leave(long cell) {
+
+		occupancy.leave(cell);
+
+		// Food can be placed in the cell once it is empty.
+		if (!occupancy.isOccupied(cell) && isFoodArea(cell)) {
+			freeFood++;
+			if (freeCells != null) {
+				freeCells.add(cell);
+			}
+		}
+	}
+
+	/**
+	 * Whether food can be placed in a specified cell when it is empty.
+	 *
+	 * @param cell
+	 *            A cell of the grid.
+	 * @return {@code Boolean}
+	 */
+	private boolean isFoodArea(long cell) {
+		return rules.getColumn(cell) < rules.getFoodColumns() && rules.getRow(cell) < rules.getFoodRows();
+	}
+
+	/**
+	 * Copies the cells of the snake into the start of a specified array in order
+	 * from the head.
+	 *
+	 * @param cells
+	 *            The array that is copied into. At least the length of the snake.
+	 * @return The array.
+	 */
+	private long[] copyBody(long[] cells) {
+
+		// The snake may wrap around the end of the circular buffer.
+		int first = Math.min(length, body.length - head);
+		System.arraycopy(body, head, cells, 0, first);
+		System.arraycopy(body, 0, cells, first, length - first);
+
+		return cells;
+	}
+
+	/**
+	 * Retrieves a random empty cell in which food can be placed. If the snake
+	 * fills the food area the food stays where it is.
+	 *
+	 * @return The cell.
+	 */
+	private long generateFood() {
+
+		if (freeFood == 0) {
+			return food;
+		}
+
+		if (freeCells != null) {
+			return freeCells.get(nextInt(freeCells.size()));
+		}
+
+		// Draw cells from the food area until one is empty.
+		long cell;
+		do {
+			int column = nextInt(rules.getFoodColumns());
+			cell = rules.getCell(column, nextInt(rules.getFoodRows()));
+		} while (occupancy.isOccupied(cell));
+
+		return cell;
+	}
+
+	/**
+	 * Retrieves the next random integer between zero and a specified bound in the
+	 * same way as {@link java.util.Random#nextInt(int)}.
+	 *
+	 * @param bound
+	 *            The exclusive upper bound. Greater than zero.
+	 * @return The random integer.
+	 */
+	private int nextInt(int bound) {
+		random = Lcg.nextInt(random, bound);
+		return Lcg.getInt(random, bound);
+	}
+
+}
@@ -0,0 +1,271 @@
+package snake.engine;
+
+import java.util.Arrays;
+
+/**
+ * The set of empty cells that food can be placed in. The cells of the food
+ * area are counted in a Fenwick tree, so adding, removing and picking the
+ * empty cell of a given rank in reading order all cost time logarithmic in the
+ * size of the food area however full the grid is. As the cell picked for a rank
+ * only depends on which cells are empty, and not on the order they emptied in,
+ * a game carried on from a {@link State} places its food exactly as the game it
+ * was taken from would have.
+ * <p>
+ * The tree is held in a plain int array and its operations are also available
+ * as static methods so that a {@link BatchEngine} can hold the trees of many
+ * games in one array. A food area too large to hold in an array is not held in
+ * a {@link FreeCells} at all.
+ *
+ * @author Joshua_Eddy
+ *
+ * @see Engine
+ *
+ */
+public final class FreeCells {
+
+	/**
+	 * The {@link Rules} of the grid the cells are in.
+	 */
+	private final Rules rules;
+
+	/**
+	 * The Fenwick tree counting the empty cells of the food area. Entry
+	 * <code>i</code>, counting from one, holds the number of empty cells among
+	 * the <code>i &amp; -i</code> positions of the food area up to position
+	 * <code>i - 1</code>.
+	 */
+	private final int[] tree;
+
+	/**
+	 * Whether each position of the food area is empty.
+	 */
+	private final boolean[] free;
+
+	/**
+	 * The number of empty cells.
+	 */
+	private int size;
+
+	/**
+	 * Constructs a new {@link FreeCells} that holds every cell food can be placed
+	 * in by a specified {@link Rules}.
+	 *
+	 * @param rules
+	 *            {@link Rules} NOT NULL.
+	 */
+	public FreeCells(Rules rules) {
+
+		int positions = getPositions(rules);
+
+		this.rules = rules;
+		this.tree = new int[positions + 1];
+		this.free = new boolean[positions];
+		this.size = positions;
+
+		// Every cell of the food area starts empty.
+		fill(tree, 0, positions);
+		Arrays.fill(free, true);
+	}
+
+	/**
+	 * Adds a specified cell that has become empty. Cells outside the food area
+	 * are ignored.
+	 *
+	 * @param cell
+	 *            A cell of the grid.
+	 */
+	public void add(long cell) {
+
+		int position = getPosition(rules, cell);
+
+		if (position >= 0 && !free[position]) {
+			free[position] = true;
+			size++;
+			update(tree, 0, free.length, position, 1);
+		}
+	}
+
+	/**
+	 * Removes a specified cell that has become occupied. Cells outside the food
+	 * area are ignored.
+	 *
+	 * @param cell
+	 *            A cell of the grid.
+	 */
+	public void remove(long cell) {
+
+		int position = getPosition(rules, cell);
+
+		if (position >= 0 && free[position]) {
+			free[position] = false;
+			size--;
+			update(tree, 0, free.length, position, -1);
+		}
+	}
+
+	/**
+	 * Retrieves the empty cell of a specified rank, counting the empty cells in
+	 * reading order across the food area.
+	 *
+	 * @param index
+	 *            From zero to the number of empty cells.
+	 * @return The cell.
+	 */
+	public long get(int index) {
+		return getCell(rules, select(tree, 0, free.length, index));
+	}
+
+	/**
+	 * @return The number of empty cells.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Whether food can be placed in a specified cell.
+	 *
+	 * @param cell
+	 *            A cell of the grid.
+	 * @return {@code Boolean}
+	 */
+	public boolean contains(long cell) {
+
+		int position = getPosition(rules, cell);
+		return position >= 0 && free[position];
+	}
+
+	/**
+	 * Retrieves the number of cells in the food area of a specified
+	 * {@link Rules}.
+	 *
+	 * @param rules
+	 *            {@link Rules} NOT NULL.
+	 * @return The number of cells.
+	 */
+	static int getPositions(Rules rules) {
+
+		if (!fits(rules)) {
+			throw new IllegalArgumentException("The food area is too large to hold in an array.");
+		}
+
+		return rules.getFoodColumns() * rules.getFoodRows();
+	}
+
+	/**
+	 * Whether the food area of a specified {@link Rules} is small enough to be
+	 * held in a {@link FreeCells}.
+	 *
+	 * @param rules
+	 *            {@link Rules} NOT NULL.
+	 * @return {@code Boolean}
+	 */
+	static boolean fits(Rules rules) {
+		return (long) rules.getFoodColumns() * rules.getFoodRows() <= Occupancy.DENSE_CELLS;
+	}
+
+	/**
+	 * Retrieves the position of a specified cell in the food area, counting in
+	 * reading order.
+	 *
+	 * @param rules
+	 *            {@link Rules} NOT NULL.
+	 * @param cell
+	 *            A cell of the grid.
+	 * @return The position, or -1 if the cell is outside the food area.
+	 */
+	static int getPosition(Rules rules, long cell) {
+
+		int column = rules.getColumn(cell);
+		int row = rules.getRow(cell);
+
+		if (column >= rules.getFoodColumns() || row >= rules.getFoodRows()) {
+			return -1;
+		}
+		return (row * rules.getFoodColumns()) + column;
+	}
+
+	/**
+	 * Retrieves the cell at a specified position in the food area.
+	 *
+	 * @param rules
+	 *            {@link Rules} NOT NULL.
+	 * @param position
+	 *            A position in the food area.
+	 * @return The cell.
+	 */
+	static long getCell(Rules rules, int position) {
+		return rules.getCell(position % rules.getFoodColumns(), position / rules.getFoodColumns());
+	}
+
+	/**
+	 * Fills a Fenwick tree held in a specified array so that every position is
+	 * counted once.
+	 *
+	 * @param tree
+	 *            The array holding the tree. NOT NULL.
+	 * @param offset
+	 *            The index in the array before the first entry of the tree.
+	 * @param positions
+	 *            The number of positions the tree counts.
+	 */
+	static void fill(int[] tree, int offset, int positions) {
+
+		// Each entry covers as many positions as its lowest set bit.
+		for (int entry = 1; entry <= positions; entry++) {
+			tree[offset + entry] = entry & -entry;
+		}
+	}
+
+	/**
+	 * Adds a specified amount to the count of a position in a Fenwick tree held
+	 * in a specified array.
+	 *
+	 * @param tree
+	 *            The array holding the tree. NOT NULL.
+	 * @param offset
+	 *            The index in the array before the first entry of the tree.
+	 * @param positions
+	 *            The number of positions the tree counts.
+	 * @param position
+	 *            The position.
+	 * @param amount
+	 *            The amount.
+	 */
+	static void update(int[] tree, int offset, int positions, int position, int amount) {
+		for (int entry = position + 1; entry <= positions; entry += entry & -entry) {
+			tree[offset + entry] += amount;
+		}
+	}
+
+	/**
+	 * Retrieves the position of the counted cell of a specified rank in a
+	 * Fenwick tree held in a specified array.
+	 *
+	 * @param tree
+	 *            The array holding the tree. NOT NULL.
+	 * @param offset
+	 *            The index in the array before the first entry of the tree.
+	 * @param positions
+	 *            The number of positions the tree counts.
+	 * @param index
+	 *            The rank, from zero to the number of counted cells.
+	 * @return The position.
+	 */
+	static int select(int[] tree, int offset, int positions, int index) {
+
+		int position = 0;
+
+		// Descend the tree, skipping every entry whose count does not pass the
+		// rank.
+		for (int step = Integer.highestOneBit(positions); step > 0; step >>= 1) {
+			int entry = position + step;
+			if (entry <= positions && tree[offset + entry] <= index) {
+				position = entry;
+				index -= tree[offset + entry];
+			}
+		}
+		return position;
+	}
+
+}
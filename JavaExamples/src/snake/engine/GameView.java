@@ -0,0 +1,71 @@
+package snake.engine;
+
+import snake.Direction;
+
+/**
+ * A read only view of a game of snake that is being played. Given to a
+ * {@link Controller} each tick so that it can decide where to move without
+ * being able to change the game.
+ *
+ * @author Joshua_Eddy
+ *
+ * @see Engine
+ *
+ */
+public interface GameView {
+
+	/**
+	 * @return The {@link Rules} of the game.
+	 */
+	public Rules getRules();
+
+	/**
+	 * @return The number of cells the snake occupies.
+	 */
+	public int getLength();
+
+	/**
+	 * @return The cell the head of the snake is in.
+	 */
+	public long getHead();
+
+	/**
+	 * Retrieves the cell of a specified part of the snake.
+	 *
+	 * @param index
+	 *            The position of the part where zero is the head. Less than the
+	 *            length of the snake.
+	 * @return The cell.
+	 */
+	public long getCell(int index);
+
+	/**
+	 * Whether any part of the snake is in a specified cell.
+	 *
+	 * @param cell
+	 *            A cell of the grid.
+	 * @return {@code Boolean}
+	 */
+	public boolean isOccupied(long cell);
+
+	/**
+	 * @return The {@link Direction} the snake is moving.
+	 */
+	public Direction getDirection();
+
+	/**
+	 * @return The cell the food is in.
+	 */
+	public long getFood();
+
+	/**
+	 * @return The number of pieces of food that have been eaten.
+	 */
+	public int getScore();
+
+	/**
+	 * @return The number of ticks the snake has moved.
+	 */
+	public long getTick();
+
+}
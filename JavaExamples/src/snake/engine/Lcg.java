@@ -0,0 +1,123 @@
+package snake.engine;
+
+/**
+ * The linear congruential random number generator shared by the
+ * {@link Engine}, {@link MultiEngine} and {@link BatchEngine}, so that a seed
+ * gives the same game whichever of them runs it. The generator is the same as
+ * {@link java.util.Random}'s and its state is a single <code>long</code> held
+ * by the caller, which passes it in and stores the one returned.
+ * <p>
+ * Drawing an integer below a bound may take several steps of the generator,
+ * so {@link Lcg#nextInt(long, int)} returns the state after the draw and
+ * {@link Lcg#getInt(long, int)} recovers the integer drawn from that state.
+ *
+ * @author Joshua_Eddy
+ *
+ */
+final class Lcg {
+
+	/**
+	 * The multiplier of the generator. The same as {@link java.util.Random} so a
+	 * seed gives the same sequence.
+	 */
+	private static final long MULTIPLIER = 0x5DEECE66DL;
+
+	/**
+	 * The addend of the generator.
+	 */
+	private static final long ADDEND = 0xBL;
+
+	/**
+	 * The mask that keeps the state of the generator to 48 bits.
+	 */
+	private static final long MASK = (1L << 48) - 1;
+
+	/**
+	 * Prevents an {@link Lcg} being constructed.
+	 */
+	private Lcg() {
+	}
+
+	/**
+	 * Retrieves the initial state of the generator for a specified seed in the
+	 * same way as {@link java.util.Random#setSeed(long)}.
+	 *
+	 * @param seed
+	 *            The seed.
+	 * @return The state.
+	 */
+	static long scramble(long seed) {
+		return (seed ^ MULTIPLIER) & MASK;
+	}
+
+	/**
+	 * Advances the generator past the next random integer between zero and a
+	 * specified bound in the same way as {@link java.util.Random#nextInt(int)},
+	 * skipping any values that would make the result uneven.
+	 *
+	 * @param state
+	 *            The state of the generator.
+	 * @param bound
+	 *            The exclusive upper bound. Greater than zero.
+	 * @return The state of the generator after the integer was drawn, from which
+	 *         {@link Lcg#getInt(long, int)} retrieves it.
+	 */
+	static long nextInt(long state, int bound) {
+
+		state = next(state);
+
+		// If the bound is a power of two any value can be used.
+		int m = bound - 1;
+		if ((bound & m) == 0) {
+			return state;
+		}
+
+		for (int u = getBits(state); u - (u % bound) + m < 0; u = getBits(state)) {
+			state = next(state);
+		}
+		return state;
+	}
+
+	/**
+	 * Retrieves the random integer drawn by {@link Lcg#nextInt(long, int)}.
+	 *
+	 * @param state
+	 *            The state returned by {@link Lcg#nextInt(long, int)}.
+	 * @param bound
+	 *            The exclusive upper bound it was given.
+	 * @return The random integer.
+	 */
+	static int getInt(long state, int bound) {
+
+		int r = getBits(state);
+
+		// If the bound is a power of two take the high bits.
+		if ((bound & (bound - 1)) == 0) {
+			return (int) ((bound * (long) r) >> 31);
+		}
+		return r % bound;
+	}
+
+	/**
+	 * Advances the generator by one step.
+	 *
+	 * @param state
+	 *            The state of the generator.
+	 * @return The next state.
+	 */
+	private static long next(long state) {
+		return ((state * MULTIPLIER) + ADDEND) & MASK;
+	}
+
+	/**
+	 * Retrieves the 31 random bits of a specified state.
+	 *
+	 * @param state
+	 *            The state of the generator.
+	 * @return The random bits.
+	 */
+	private static int getBits(long state) {
+		return (int) (state >>> 17);
+	}
+
+}
@@ -0,0 +1,1055 @@
+package snake.engine;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import snake.Direction;
+
+/**
+ * Runs a game of snake in which many snakes share one grid without displaying
+ * it. Each snake is steered by its own {@link Controller}, or by a
+ * {@link Direction} given each tick, and sees the game through its own
+ * {@link GameView}.
+ * <p>
+ * Each tick is run in phases by the tasks of a {@link ForkJoinPool}, each task
+ * moving a range of the snakes. The cells of the grid are owned by at most one
+ * snake at a time and ownership is only ever taken by compare and swap, so no
+ * snake has to lock the grid to move:
+ * <ol>
+ * <li>Every living snake decides where to turn and claims the cell in front of
+ * its head. A snake that would leave the grid dies.</li>
+ * <li>Every snake that is not growing gives up the cell of its tail.</li>
+ * <li>Every snake that won the claim on its cell takes ownership of it. A snake
+ * that lost the claim, or finds the cell owned by the body of any snake, dies.
+ * </li>
+ * <li>Every snake that died gives up the cells of its body.</li>
+ * </ol>
+ * When several heads claim the same cell the longest snake wins and the others
+ * die, and if the longest snakes are of equal length they all die. As the
+ * result of each phase only depends on what every snake did in the previous
+ * phase, a game plays out the same however many threads run it. Food is then
+ * eaten and placed in the order of the snakes from one random number generator
+ * so a seed always gives the same game.
+ * <p>
+ * A snake eats food in the same way as in an {@link Engine}: the food is eaten
+ * once the head is on it, the snake keeps its tail on the next tick so that it
+ * grows by one cell and the food is placed in another empty cell.
+ *
+ * @author Joshua_Eddy
+ *
+ * @see Engine
+ * @see Rules
+ *
+ */
+public final class MultiEngine {
+
+	/**
+	 * The number of snakes below which a range of snakes is moved by one task
+	 * rather than split.
+	 */
+	private static final int THRESHOLD = 16;
+
+	/**
+	 * The number of cells the body of each snake can hold before it must grow.
+	 * Always a power of two.
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * The number of random cells tried when placing a snake or food before the
+	 * grid is searched in order for an empty cell.
+	 */
+	private static final int DRAWS = 64;
+
+	/**
+	 * The value of a cell when there is no cell.
+	 */
+	private static final long NONE = -1;
+
+	/**
+	 * The value of {@link MultiEngine#claims} for a cell that no head has
+	 * claimed.
+	 */
+	private static final long UNCLAIMED = Long.MAX_VALUE;
+
+	/**
+	 * The phase in which each controlled snake decides which way to turn.
+	 */
+	private static final int DECIDE = 0;
+
+	/**
+	 * The phase in which each snake turns and claims the cell in front of its
+	 * head.
+	 */
+	private static final int CLAIM = 1;
+
+	/**
+	 * The phase in which each snake that is not growing gives up its tail.
+	 */
+	private static final int RELEASE = 2;
+
+	/**
+	 * The phase in which each snake moves into the cell it claimed.
+	 */
+	private static final int ENTER = 3;
+
+	/**
+	 * The phase in which each snake that died gives up its body and the claims
+	 * of the tick are cleared.
+	 */
+	private static final int CLEAR = 4;
+
+	/**
+	 * The {@link Rules} of the grid. The start of each snake is random so
+	 * {@link Rules#getStart()} and {@link Rules#getFirstFood()} are not used.
+	 */
+	private final Rules rules;
+
+	/**
+	 * The {@link ForkJoinPool} that moves the snakes.
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * The circular buffer of the cells of each snake, ordered from the head at
+	 * the index in {@link MultiEngine#heads}.
+	 */
+	private final long[][] bodies;
+
+	/**
+	 * The index in its body of the head of each snake.
+	 */
+	private final int[] heads;
+
+	/**
+	 * The number of cells each snake occupies.
+	 */
+	private final int[] lengths;
+
+	/**
+	 * The {@link Direction} each snake is moving.
+	 */
+	private final Direction[] directions;
+
+	/**
+	 * The {@link Direction} each snake is turned to on the current tick. Null to
+	 * carry on in a straight line.
+	 */
+	private final Direction[] turns;
+
+	/**
+	 * The number of pieces of food each snake has eaten.
+	 */
+	private final int[] scores;
+
+	/**
+	 * Whether each snake has not yet collided.
+	 */
+	private final boolean[] alive;
+
+	/**
+	 * Whether each snake died on the current tick.
+	 */
+	private final boolean[] dying;
+
+	/**
+	 * Whether each snake keeps its tail on the current tick.
+	 */
+	private final boolean[] growing;
+
+	/**
+	 * The cell each snake claimed on the current tick, or
+	 * {@link MultiEngine#NONE}.
+	 */
+	private final long[] targets;
+
+	/**
+	 * The snake that owns each cell plus one, or zero if the cell is empty.
+	 */
+	private final AtomicIntegerArray owners;
+
+	/**
+	 * The strongest claim on each cell on the current tick, or
+	 * {@link MultiEngine#UNCLAIMED}.
+	 */
+	private final AtomicLongArray claims;
+
+	/**
+	 * The greatest length of which more than one snake claimed each cell on the
+	 * current tick, or zero.
+	 */
+	private final AtomicIntegerArray ties;
+
+	/**
+	 * The cell of each piece of food.
+	 */
+	private final long[] foods;
+
+	/**
+	 * The column of each piece of food, kept so that the nearest food can be
+	 * found without dividing.
+	 */
+	private final int[] foodColumns;
+
+	/**
+	 * The row of each piece of food.
+	 */
+	private final int[] foodRows;
+
+	/**
+	 * The piece of food in each cell plus one, or zero if the cell has no food.
+	 */
+	private final int[] foodAt;
+
+	/**
+	 * The {@link GameView} of each snake.
+	 */
+	private final View[] views;
+
+	/**
+	 * The {@link Controller} of each snake on the current tick, or null if the
+	 * snakes are turned by {@link MultiEngine#turns}.
+	 */
+	private Controller[] controllers;
+
+	/**
+	 * The number of snakes that have not yet collided.
+	 */
+	private int living;
+
+	/**
+	 * The number of ticks that have been run.
+	 */
+	private long tick;
+
+	/**
+	 * The seed of the random number generator that places the snakes and food.
+	 */
+	private long random;
+
+	/**
+	 * Constructs a new {@link MultiEngine} with each snake and piece of food in
+	 * a random empty cell.
+	 *
+	 * @param rules
+	 *            The {@link Rules} of the grid, which must be small enough to hold
+	 *            in an array. NOT NULL.
+	 * @param snakes
+	 *            The number of snakes. Greater than zero.
+	 * @param foods
+	 *            The number of pieces of food. Greater than zero.
+	 * @param seed
+	 *            The seed of the random number generator that places the snakes
+	 *            and food.
+	 * @param pool
+	 *            The {@link ForkJoinPool} that moves the snakes. NOT NULL.
+	 */
+	public MultiEngine(Rules rules, int snakes, int foods, long seed, ForkJoinPool pool) {
+
+		if (rules == null || pool == null) {
+			throw new IllegalArgumentException("Rules and pool cannot be null.");
+		}
+
+		if (snakes <= 0 || foods <= 0) {
+			throw new IllegalArgumentException("There must be at least one snake and one piece of food.");
+		}
+
+		// The owner of every cell is held in one array.
+		if (rules.getCells() > Occupancy.DENSE_CELLS) {
+			throw new IllegalArgumentException("The grid is too large to share between snakes.");
+		}
+
+		if ((long) snakes + foods > (long) rules.getFoodColumns() * rules.getFoodRows()) {
+			throw new IllegalArgumentException("There are more snakes and food than cells to put them in.");
+		}
+
+		int cells = (int) rules.getCells();
+
+		this.rules = rules;
+		this.pool = pool;
+		this.bodies = new long[snakes][INITIAL_CAPACITY];
+		this.heads = new int[snakes];
+		this.lengths = new int[snakes];
+		this.directions = new Direction[snakes];
+		this.turns = new Direction[snakes];
+		this.scores = new int[snakes];
+		this.alive = new boolean[snakes];
+		this.dying = new boolean[snakes];
+		this.growing = new boolean[snakes];
+		this.targets = new long[snakes];
+		this.owners = new AtomicIntegerArray(cells);
+		this.claims = new AtomicLongArray(cells);
+		this.ties = new AtomicIntegerArray(cells);
+		this.foods = new long[foods];
+		this.foodColumns = new int[foods];
+		this.foodRows = new int[foods];
+		this.foodAt = new int[cells];
+		this.views = new View[snakes];
+		this.living = snakes;
+		this.tick = 0;
+		this.random = Lcg.scramble(seed);
+
+		for (int cell = 0; cell < cells; cell++) {
+			claims.set(cell, UNCLAIMED);
+		}
+
+		for (int snake = 0; snake < snakes; snake++) {
+
+			// Start each snake heading towards the far side of the grid.
+			long start = findEmpty();
+			bodies[snake][0] = start;
+			lengths[snake] = 1;
+			directions[snake] = rules.getColumn(start) < rules.getColumns() / 2 ? Direction.RIGHT : Direction.LEFT;
+			alive[snake] = true;
+			owners.set((int) start, snake + 1);
+			views[snake] = new View(snake);
+		}
+
+		for (int food = 0; food < foods; food++) {
+			placeFood(food, findEmpty());
+		}
+	}
+
+	/**
+	 * Moves the game on by one tick with each snake turned to a specified
+	 * {@link Direction}. Does nothing once every snake has collided.
+	 *
+	 * @param turns
+	 *            The {@link Direction} each snake is turned to before it moves. If
+	 *            an entry is null or opposite to the direction the snake is
+	 *            moving it carries on in a straight line. NOT NULL.
+	 * @return The number of snakes that are still alive.
+	 */
+	public int advance(Direction[] turns) {
+
+		if (turns == null || turns.length != bodies.length) {
+			throw new IllegalArgumentException("There must be a direction for each snake.");
+		}
+
+		System.arraycopy(turns, 0, this.turns, 0, turns.length);
+		controllers = null;
+
+		return advance();
+	}
+
+	/**
+	 * Moves the game on by one tick with each snake steered by a specified
+	 * {@link Controller}. The {@link Controller}s decide in parallel so each snake
+	 * must have its own {@link Controller} unless the {@link Controller} keeps no
+	 * state. Does nothing once every snake has collided.
+	 *
+	 * @param controllers
+	 *            The {@link Controller} of each snake. If an entry is null the
+	 *            snake carries on in a straight line. NOT NULL.
+	 * @return The number of snakes that are still alive.
+	 */
+	public int advance(Controller[] controllers) {
+
+		if (controllers == null || controllers.length != bodies.length) {
+			throw new IllegalArgumentException("There must be a controller for each snake.");
+		}
+
+		this.controllers = controllers;
+
+		try {
+			return advance();
+		} finally {
+			this.controllers = null;
+		}
+	}
+
+	/**
+	 * @return The {@link Rules} of the grid.
+	 */
+	public Rules getRules() {
+		return rules;
+	}
+
+	/**
+	 * @return The number of snakes.
+	 */
+	public int getSnakes() {
+		return bodies.length;
+	}
+
+	/**
+	 * @return The number of snakes that have not yet collided.
+	 */
+	public int getLiving() {
+		return living;
+	}
+
+	/**
+	 * Retrieves the {@link GameView} of a specified snake, which shows the bodies
+	 * of the other snakes as occupied cells and the nearest piece of food as the
+	 * food.
+	 *
+	 * @param snake
+	 *            The snake.
+	 * @return {@link GameView}
+	 */
+	public GameView getView(int snake) {
+		return views[snake];
+	}
+
+	/**
+	 * Whether a specified snake has not yet collided.
+	 *
+	 * @param snake
+	 *            The snake.
+	 * @return {@code Boolean}
+	 */
+	public boolean isAlive(int snake) {
+		return alive[snake];
+	}
+
+	/**
+	 * Retrieves the number of cells a specified snake occupies.
+	 *
+	 * @param snake
+	 *            The snake.
+	 * @return The length.
+	 */
+	public int getLength(int snake) {
+		return lengths[snake];
+	}
+
+	/**
+	 * Retrieves the cell of a part of a specified snake.
+	 *
+	 * @param snake
+	 *            The snake.
+	 * @param index
+	 *            The position of the part where zero is the head. Less than the
+	 *            length of the snake.
+	 * @return The cell.
+	 */
+	public long getCell(int snake, int index) {
+		return bodies[snake][(heads[snake] + index) & (bodies[snake].length - 1)];
+	}
+
+	/**
+	 * Retrieves the {@link Direction} a specified snake is moving.
+	 *
+	 * @param snake
+	 *            The snake.
+	 * @return {@link Direction}
+	 */
+	public Direction getDirection(int snake) {
+		return directions[snake];
+	}
+
+	/**
+	 * Retrieves the number of pieces of food a specified snake has eaten.
+	 *
+	 * @param snake
+	 *            The snake.
+	 * @return The score.
+	 */
+	public int getScore(int snake) {
+		return scores[snake];
+	}
+
+	/**
+	 * @return The number of pieces of food.
+	 */
+	public int getFoods() {
+		return foods.length;
+	}
+
+	/**
+	 * Retrieves the cell of a specified piece of food.
+	 *
+	 * @param food
+	 *            The piece of food.
+	 * @return The cell.
+	 */
+	public long getFood(int food) {
+		return foods[food];
+	}
+
+	/**
+	 * Retrieves the snake whose body is in a specified cell.
+	 *
+	 * @param cell
+	 *            A cell of the grid.
+	 * @return The snake, or -1 if the cell is empty.
+	 */
+	public int getOwner(long cell) {
+		return owners.get((int) cell) - 1;
+	}
+
+	/**
+	 * @return The number of ticks that have been run.
+	 */
+	public long getTick() {
+		return tick;
+	}
+
+	/**
+	 * Runs each phase of a tick across the {@link MultiEngine#pool} then eats
+	 * and places the food.
+	 *
+	 * @return The number of snakes that are still alive.
+	 */
+	private int advance() {
+
+		if (living == 0) {
+			return 0;
+		}
+
+		int first = controllers != null ? DECIDE : CLAIM;
+
+		if (living <= THRESHOLD) {
+
+			// Too few snakes are left for the pool to be worth waking up.
+			for (int phase = first; phase <= CLEAR; phase++) {
+				for (int snake = 0; snake < bodies.length; snake++) {
+					run(phase, snake);
+				}
+			}
+		} else {
+			pool.invoke(new Tick(first));
+		}
+
+		// Eat and place the food in the order of the snakes so that the game does
+		// not depend on which thread moved which snake.
+		for (int snake = 0; snake < bodies.length; snake++) {
+
+			if (dying[snake]) {
+				dying[snake] = false;
+				alive[snake] = false;
+				living--;
+			} else if (alive[snake] && growing[snake]) {
+
+				// The food the snake was on has been eaten now that it has moved off it.
+				long eaten = getCell(snake, 1);
+				int food = foodAt[(int) eaten] - 1;
+				long cell = findEmpty();
+
+				scores[snake]++;
+				if (cell != NONE) {
+					foodAt[(int) eaten] = 0;
+					placeFood(food, cell);
+				}
+			}
+		}
+		tick++;
+
+		return living;
+	}
+
+	/**
+	 * Puts a specified piece of food in a specified cell.
+	 *
+	 * @param food
+	 *            The piece of food.
+	 * @param cell
+	 *            An empty cell of the food area.
+	 */
+	private void placeFood(int food, long cell) {
+		foods[food] = cell;
+		foodColumns[food] = rules.getColumn(cell);
+		foodRows[food] = rules.getRow(cell);
+		foodAt[(int) cell] = food + 1;
+	}
+
+	/**
+	 * Runs a specified phase of the current tick for a specified snake.
+	 *
+	 * @param phase
+	 *            The phase.
+	 * @param snake
+	 *            The snake.
+	 */
+	private void run(int phase, int snake) {
+
+		if (!alive[snake]) {
+			return;
+		}
+
+		switch (phase) {
+		case DECIDE:
+			turns[snake] = controllers[snake] != null ? controllers[snake].decide(views[snake]) : null;
+			break;
+		case CLAIM:
+			claim(snake);
+			break;
+		case RELEASE:
+
+			// The tail leaves its cell before any head moves unless the snake grows.
+			if (!growing[snake]) {
+				owners.compareAndSet((int) getCell(snake, lengths[snake] - 1), snake + 1, 0);
+			}
+			break;
+		case ENTER:
+			enter(snake);
+			break;
+		default:
+			clear(snake);
+			break;
+		}
+	}
+
+	/**
+	 * Turns a specified snake and claims the cell in front of its head, or marks
+	 * it as dying if it would leave the grid.
+	 *
+	 * @param snake
+	 *            The snake.
+	 */
+	private void claim(int snake) {
+
+		// The snake cannot turn back on itself.
+		Direction turn = turns[snake];
+		if (turn != null && turn != directions[snake].getOpposite()) {
+			directions[snake] = turn;
+		}
+
+		long head = bodies[snake][heads[snake]];
+		long next = getNext(head, directions[snake]);
+
+		growing[snake] = foodAt[(int) head] != 0;
+		targets[snake] = next;
+		dying[snake] = next == NONE;
+
+		if (next == NONE) {
+			return;
+		}
+
+		// Keep the strongest claim on the cell, which is the longest snake and then
+		// the lowest snake, noting when two snakes of the same length meet.
+		int length = lengths[snake];
+		long claim = getClaim(snake, length);
+
+		while (true) {
+
+			long current = claims.get((int) next);
+
+			if (current != UNCLAIMED && getClaimLength(current) == length) {
+				recordTie((int) next, length);
+			}
+
+			if (claim >= current || claims.compareAndSet((int) next, current, claim)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Moves a specified snake into the cell it claimed if it won the claim and
+	 * the cell is empty, otherwise marks it as dying.
+	 *
+	 * @param snake
+	 *            The snake.
+	 */
+	private void enter(int snake) {
+
+		long next = targets[snake];
+
+		if (next == NONE) {
+			return;
+		}
+
+		// Only the strongest snake to claim the cell may enter it, and only if no
+		// snake as long as it claimed the cell too.
+		int length = lengths[snake];
+		boolean won = claims.get((int) next) == getClaim(snake, length) && ties.get((int) next) != length;
+
+		if (!won || !owners.compareAndSet((int) next, 0, snake + 1)) {
+			dying[snake] = true;
+			return;
+		}
+
+		long[] body = bodies[snake];
+
+		if (growing[snake]) {
+
+			// If the body is full double its capacity.
+			if (length == body.length) {
+				long[] cells = new long[length * 2];
+				for (int index = 0; index < length; index++) {
+					cells[index] = getCell(snake, index);
+				}
+				bodies[snake] = body = cells;
+				heads[snake] = 0;
+			}
+			lengths[snake]++;
+		}
+
+		// Write the new head in front of the old one. Unless the snake grew this
+		// overwrites the slot of the old tail once the buffer is full.
+		heads[snake] = (heads[snake] - 1) & (body.length - 1);
+		body[heads[snake]] = next;
+	}
+
+	/**
+	 * Clears the claim of a specified snake and, if it died, gives up the cells
+	 * of its body.
+	 *
+	 * @param snake
+	 *            The snake.
+	 */
+	private void clear(int snake) {
+
+		long next = targets[snake];
+
+		// Every snake that claimed the cell writes the same values.
+		if (next != NONE) {
+			claims.set((int) next, UNCLAIMED);
+			ties.set((int) next, 0);
+		}
+
+		if (dying[snake]) {
+
+			// Only give up the cells still owned by the snake, as its tail may have been
+			// taken by another snake.
+			for (int index = 0; index < lengths[snake]; index++) {
+				owners.compareAndSet((int) getCell(snake, index), snake + 1, 0);
+			}
+		}
+	}
+
+	/**
+	 * Records that two snakes of a specified length claimed a specified cell,
+	 * keeping the greatest such length.
+	 *
+	 * @param cell
+	 *            The cell.
+	 * @param length
+	 *            The length of the snakes.
+	 */
+	private void recordTie(int cell, int length) {
+
+		int current;
+		do {
+			current = ties.get(cell);
+		} while (current < length && !ties.compareAndSet(cell, current, length));
+	}
+
+	/**
+	 * Retrieves the claim of a specified snake of a specified length. A smaller
+	 * claim is stronger.
+	 *
+	 * @param snake
+	 *            The snake.
+	 * @param length
+	 *            The length of the snake.
+	 * @return The claim.
+	 */
+	private static long getClaim(int snake, int length) {
+		return ((long) (Integer.MAX_VALUE - length) << 32) | snake;
+	}
+
+	/**
+	 * Retrieves the length of the snake that made a specified claim.
+	 *
+	 * @param claim
+	 *            The claim.
+	 * @return The length.
+	 */
+	private static int getClaimLength(long claim) {
+		return Integer.MAX_VALUE - (int) (claim >>> 32);
+	}
+
+	/**
+	 * Retrieves the cell next to a specified cell in a specified
+	 * {@link Direction}.
+	 *
+	 * @param cell
+	 *            A cell of the grid.
+	 * @param direction
+	 *            {@link Direction} NOT NULL.
+	 * @return The cell, or {@link MultiEngine#NONE} if it is outside the grid.
+	 */
+	private long getNext(long cell, Direction direction) {
+
+		int column = rules.getColumn(cell);
+		int row = rules.getRow(cell);
+
+		switch (direction) {
+		case UP:
+			row--;
+			break;
+		case DOWN:
+			row++;
+			break;
+		case LEFT:
+			column--;
+			break;
+		default:
+			column++;
+			break;
+		}
+
+		return rules.isInside(column, row) ? rules.getCell(column, row) : NONE;
+	}
+
+	/**
+	 * Retrieves a random cell of the food area that holds neither a snake nor
+	 * food. If a few random cells are all full the food area is searched in
+	 * reading order from a random cell.
+	 *
+	 * @return The cell, or {@link MultiEngine#NONE} if the food area is full.
+	 */
+	private long findEmpty() {
+
+		int columns = rules.getFoodColumns();
+		int rows = rules.getFoodRows();
+
+		for (int draw = 0; draw < DRAWS; draw++) {
+			int column = nextInt(columns);
+			long cell = rules.getCell(column, nextInt(rows));
+			if (isEmpty(cell)) {
+				return cell;
+			}
+		}
+
+		int positions = columns * rows;
+		int first = nextInt(positions);
+
+		for (int offset = 0; offset < positions; offset++) {
+			int position = (first + offset) % positions;
+			long cell = rules.getCell(position % columns, position / columns);
+			if (isEmpty(cell)) {
+				return cell;
+			}
+		}
+
+		return NONE;
+	}
+
+	/**
+	 * Whether a specified cell holds neither a snake nor food.
+	 *
+	 * @param cell
+	 *            A cell of the grid.
+	 * @return {@code Boolean}
+	 */
+	private boolean isEmpty(long cell) {
+		return owners.get((int) cell) == 0 && foodAt[(int) cell] == 0;
+	}
+
+	/**
+	 * Retrieves the next random integer between zero and a specified bound in the
+	 * same way as {@link java.util.Random#nextInt(int)}.
+	 *
+	 * @param bound
+	 *            The exclusive upper bound. Greater than zero.
+	 * @return The random integer.
+	 */
+	private int nextInt(int bound) {
+		random = Lcg.nextInt(random, bound);
+		return Lcg.getInt(random, bound);
+	}
+
+	/**
+	 * Every phase of a tick, each run across the {@link MultiEngine#pool} and
+	 * finished before the next starts. The whole tick is handed to the pool at
+	 * once so that the thread that advances the game only waits on the pool
+	 * once per tick.
+	 *
+	 * @author Joshua_Eddy
+	 *
+	 */
+	private final class Tick extends RecursiveAction {
+
+		/**
+		 * Serialisation version.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The first phase to run.
+		 */
+		private final int first;
+
+		/**
+		 * Constructs a new {@link Tick}.
+		 *
+		 * @param first
+		 *            The first phase to run.
+		 */
+		private Tick(int first) {
+			this.first = first;
+		}
+
+		@Override
+		protected void compute() {
+			for (int phase = first; phase <= CLEAR; phase++) {
+				new Phase(phase, 0, bodies.length).invoke();
+			}
+		}
+
+	}
+
+	/**
+	 * A phase of a tick for a range of the snakes. The range is split in half
+	 * until it is small enough for one task to run.
+	 *
+	 * @author Joshua_Eddy
+	 *
+	 */
+	private final class Phase extends RecursiveAction {
+
+		/**
+		 * Serialisation version.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The phase.
+		 */
+		private final int phase;
+
+		/**
+		 * The first snake of the range.
+		 */
+		private final int from;
+
+		/**
+		 * The snake after the last snake of the range.
+		 */
+		private final int to;
+
+		/**
+		 * Constructs a new {@link Phase}.
+		 *
+		 * @param phase
+		 *            The phase.
+		 * @param from
+		 *            The first snake of the range.
+		 * @param to
+		 *            The snake after the last snake of the range.
+		 */
+		private Phase(int phase, int from, int to) {
+			this.phase = phase;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+
+			if (to - from <= THRESHOLD) {
+				for (int snake = from; snake < to; snake++) {
+					run(phase, snake);
+				}
+				return;
+			}
+
+			// Run the first half on another thread while this thread runs the second.
+			int half = (from + to) >>> 1;
+			Phase first = new Phase(phase, from, half);
+			first.fork();
+
+			new Phase(phase, half, to).compute();
+			first.join();
+		}
+
+	}
+
+	/**
+	 * The {@link GameView} of one snake. The bodies of the other snakes are shown
+	 * as occupied cells and the nearest piece of food to the head as the food.
+	 *
+	 * @author Joshua_Eddy
+	 *
+	 */
+	private final class View implements GameView {
+
+		/**
+		 * The snake.
+		 */
+		private final int snake;
+
+		/**
+		 * The tick on which {@link View#nearest} was found, or -1.
+		 */
+		private long nearestTick;
+
+		/**
+		 * The cell of the nearest piece of food to the head.
+		 */
+		private long nearest;
+
+		/**
+		 * Constructs a new {@link View}.
+		 *
+		 * @param snake
+		 *            The snake.
+		 */
+		private View(int snake) {
+			this.snake = snake;
+			this.nearestTick = -1;
+		}
+
+		@Override
+		public Rules getRules() {
+			return rules;
+		}
+
+		@Override
+		public int getLength() {
+			return lengths[snake];
+		}
+
+		@Override
+		public long getHead() {
+			return bodies[snake][heads[snake]];
+		}
+
+		@Override
+		public long getCell(int index) {
+			return MultiEngine.this.getCell(snake, index);
+		}
+
+		@Override
+		public boolean isOccupied(long cell) {
+			return owners.get((int) cell) != 0;
+		}
+
+		@Override
+		public Direction getDirection() {
+			return directions[snake];
+		}
+
+		@Override
+		public long getFood() {
+
+			// The food only moves between ticks so search for it once per tick.
+			if (nearestTick != tick) {
+
+				long head = getHead();
+				int column = rules.getColumn(head);
+				int row = rules.getRow(head);
+				int best = Integer.MAX_VALUE;
+
+				for (int food = 0; food < foods.length; food++) {
+					int distance = Math.abs(foodColumns[food] - column) + Math.abs(foodRows[food] - row);
+					if (distance < best) {
+						best = distance;
+						nearest = foods[food];
+					}
+				}
+				nearestTick = tick;
+			}
+
+			return nearest;
+		}
+
+		@Override
+		public int getScore() {
+			return scores[snake];
+		}
+
+		@Override
+		public long getTick() {
+			return tick;
+		}
+
+	}
+
+}
@@ -0,0 +1,377 @@
+package snake.engine;
+
+import java.util.Arrays;
+
+/**
+ * Counts the number of parts of the snake in each cell of the grid. The
+ * {@link Occupancy} is updated as the head enters a cell and the tail leaves
+ * one so checking whether a cell is occupied costs the same however long the
+ * snake is.
+ * <p>
+ * A grid small enough to hold in one array is counted in a single array. A
+ * larger grid is split into square chunks which are only allocated while the
+ * snake has a part in them, so the memory used depends on the size of the
+ * snake rather than the size of the grid. The chunks are found through an open
+ * addressed hash table keyed by the position of the chunk, with the last chunk
+ * used kept to hand as the head and tail rarely leave the chunk they are in.
+ *
+ * @author Joshua_Eddy
+ *
+ * @see Engine
+ *
+ */
+public final class Occupancy {
+
+	/**
+	 * The largest number of cells that are counted in a single array.
+	 */
+	static final long DENSE_CELLS = 1 << 24;
+
+	/**
+	 * The number of bits of the column or row of a cell that pick its place in a
+	 * chunk.
+	 */
+	private static final int CHUNK_BITS = 6;
+
+	/**
+	 * The width and height of a chunk.
+	 */
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+	/**
+	 * The value of {@link Occupancy#keys} for a slot without a chunk.
+	 */
+	private static final long NO_KEY = -1;
+
+	/**
+	 * The most empty chunks kept for reuse.
+	 */
+	private static final int SPARE_CHUNKS = 16;
+
+	/**
+	 * The number of columns in the grid.
+	 */
+	private final int columns;
+
+	/**
+	 * The number of chunks across the grid.
+	 */
+	private final long chunkColumns;
+
+	/**
+	 * The number of parts of the snake in each cell, or null if the grid is split
+	 * into chunks. A cell only ever holds more than one part on the tick the snake
+	 * collides with itself.
+	 */
+	private final byte[] counts;
+
+	/**
+	 * The position of the chunk in each slot of the hash table, or
+	 * {@link Occupancy#NO_KEY}.
+	 */
+	private long[] keys;
+
+	/**
+	 * The number of parts of the snake in each cell of the chunk in each slot of
+	 * the hash table.
+	 */
+	private byte[][] chunks;
+
+	/**
+	 * The number of parts of the snake in the chunk in each slot of the hash
+	 * table.
+	 */
+	private int[] parts;
+
+	/**
+	 * The number of chunks in the hash table.
+	 */
+	private int size;
+
+	/**
+	 * Empty chunks that can be reused.
+	 */
+	private final byte[][] spares;
+
+	/**
+	 * The number of {@link Occupancy#spares}.
+	 */
+	private int spareCount;
+
+	/**
+	 * The slot of the hash table that was last used, or -1.
+	 */
+	private int lastSlot;
+
+	/**
+	 * Constructs a new empty {@link Occupancy} for the grid of a specified
+	 * {@link Rules}.
+	 *
+	 * @param rules
+	 *            {@link Rules} NOT NULL.
+	 */
+	public Occupancy(Rules rules) {
+
+		this.columns = rules.getColumns();
+		this.chunkColumns = (rules.getColumns() + CHUNK_SIZE - 1) >> CHUNK_BITS;
+		this.spares = new byte[SPARE_CHUNKS][];
+		this.spareCount = 0;
+		this.lastSlot = -1;
+
+		if (rules.getCells() <= DENSE_CELLS) {
+			this.counts = new byte[(int) rules.getCells()];
+		} else {
+			this.counts = null;
+			this.keys = new long[16];
+			this.chunks = new byte[16][];
+			this.parts = new int[16];
+			this.size = 0;
+			Arrays.fill(keys, NO_KEY);
+		}
+	}
+
+	/**
+	 * Records a part of the snake entering a specified cell.
+	 *
+	 * @param cell
+	 *            A cell of the grid.
+	 */
+	public void enter(long cell) {
+
+		if (counts != null) {
+			counts[(int) cell]++;
+			return;
+		}
+
+		int slot = find(getKey(cell));
+		if (slot < 0) {
+			slot = insert(getKey(cell));
+		}
+
+		chunks[slot][getOffset(cell)]++;
+		parts[slot]++;
+	}
+
+	/**
+	 * Records a part of the snake leaving a specified cell.
+	 *
+	 * @param cell
+	 *            A cell of the grid that is occupied.
+	 */
+	public void leave(long cell) {
+
+		if (counts != null) {
+			counts[(int) cell]--;
+			return;
+		}
+
+		int slot = find(getKey(cell));
+		chunks[slot][getOffset(cell)]--;
+
+		// Release the chunk once the snake has left it.
+		if (--parts[slot] == 0) {
+			remove(slot);
+		}
+	}
+
+	/**
+	 * Retrieves the number of parts of the snake in a specified cell.
+	 *
+	 * @param cell
+	 *            A cell of the grid.
+	 * @return The number of parts.
+	 */
+	public int getCount(long cell) {
+
+		if (counts != null) {
+			return counts[(int) cell];
+		}
+
+		int slot = find(getKey(cell));
+		return slot < 0 ? 0 : chunks[slot][getOffset(cell)];
+	}
+
+	/**
+	 * Whether any part of the snake is in a specified cell.
+	 *
+	 * @param cell
+	 *            A cell of the grid.
+	 * @return {@code Boolean}
+	 */
+	public boolean isOccupied(long cell) {
+		return getCount(cell) != 0;
+	}
+
+	/**
+	 * @return The number of chunks allocated, or zero if the grid is counted in
+	 *         a single array.
+	 */
+	public int getChunks() {
+		return counts != null ? 0 : size;
+	}
+
+	/**
+	 * Retrieves the position of the chunk a specified cell is in.
+	 *
+	 * @param cell
+	 *            A cell of the grid.
+	 * @return The position of the chunk.
+	 */
+	private long getKey(long cell) {
+
+		long row = cell / columns;
+		long column = cell - (row * columns);
+
+		return ((row >> CHUNK_BITS) * chunkColumns) + (column >> CHUNK_BITS);
+	}
+
+	/**
+	 * Retrieves the place of a specified cell in its chunk.
+	 *
+	 * @param cell
+	 *            A cell of the grid.
+	 * @return The index in the chunk.
+	 */
+	private int getOffset(long cell) {
+
+		long row = cell / columns;
+		long column = cell - (row * columns);
+
+		return ((int) (row & (CHUNK_SIZE - 1)) << CHUNK_BITS) | (int) (column & (CHUNK_SIZE - 1));
+	}
+
+	/**
+	 * Retrieves the slot of the hash table that a specified key would ideally be
+	 * in.
+	 *
+	 * @param key
+	 *            The position of a chunk.
+	 * @return The slot.
+	 */
+	private int getHome(long key) {
+		return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & (keys.length - 1);
+	}
+
+	/**
+	 * Finds the slot of the chunk at a specified position.
+	 *
+	 * @param key
+	 *            The position of a chunk.
+	 * @return The slot, or -1 if the chunk is not allocated.
+	 */
+	private int find(long key) {
+
+		if (lastSlot >= 0 && keys[lastSlot] == key) {
+			return lastSlot;
+		}
+
+		for (int slot = getHome(key);; slot = (slot + 1) & (keys.length - 1)) {
+			if (keys[slot] == key) {
+				lastSlot = slot;
+				return slot;
+			} else if (keys[slot] == NO_KEY) {
+				return -1;
+			}
+		}
+	}
+
+	/**
+	 * Allocates an empty chunk at a specified position that is not yet
+	 * allocated.
+	 *
+	 * @param key
+	 *            The position of the chunk.
+	 * @return The slot of the chunk.
+	 */
+	private int insert(long key) {
+
+		// Keep the table at most half full so that searches stay short.
+		if ((size + 1) * 2 > keys.length) {
+			resize(keys.length * 2);
+		}
+
+		int slot = getHome(key);
+		while (keys[slot] != NO_KEY) {
+			slot = (slot + 1) & (keys.length - 1);
+		}
+
+		keys[slot] = key;
+		chunks[slot] = spareCount > 0 ? spares[--spareCount] : new byte[CHUNK_SIZE * CHUNK_SIZE];
+		parts[slot] = 0;
+		size++;
+
+		lastSlot = slot;
+		return slot;
+	}
+
+	/**
+	 * Releases the empty chunk in a specified slot, moving any chunks after it
+	 * back so that none of them is cut off from its ideal slot.
+	 *
+	 * @param slot
+	 *            The slot.
+	 */
+	private void remove(int slot) {
+
+		// An empty chunk is all zeros so it can be reused as it is.
+		if (spareCount < SPARE_CHUNKS) {
+			spares[spareCount++] = chunks[slot];
+		}
+
+		int mask = keys.length - 1;
+		int gap = slot;
+
+		for (int next = (gap + 1) & mask; keys[next] != NO_KEY; next = (next + 1) & mask) {
+
+			// Move the chunk into the gap if its ideal slot is not between the gap and
+			// where it is now.
+			int home = getHome(keys[next]);
+			if (((next - home) & mask) >= ((next - gap) & mask)) {
+				keys[gap] = keys[next];
+				chunks[gap] = chunks[next];
+				parts[gap] = parts[next];
+				gap = next;
+			}
+		}
+
+		keys[gap] = NO_KEY;
+		chunks[gap] = null;
+		size--;
+		lastSlot = -1;
+	}
+
+	/**
+	 * Moves every chunk into a hash table of a specified size.
+	 *
+	 * @param capacity
+	 *            The number of slots. A power of two.
+	 */
+	private void resize(int capacity) {
+
+		long[] oldKeys = keys;
+		byte[][] oldChunks = chunks;
+		int[] oldParts = parts;
+
+		keys = new long[capacity];
+		chunks = new byte[capacity][];
+		parts = new int[capacity];
+		Arrays.fill(keys, NO_KEY);
+
+		for (int old = 0; old < oldKeys.length; old++) {
+			if (oldKeys[old] != NO_KEY) {
+
+				int slot = getHome(oldKeys[old]);
+				while (keys[slot] != NO_KEY) {
+					slot = (slot + 1) & (capacity - 1);
+				}
+
+				keys[slot] = oldKeys[old];
+				chunks[slot] = oldChunks[old];
+				parts[slot] = oldParts[old];
+			}
+		}
+
+		lastSlot = -1;
+	}
+
+}
@@ -0,0 +1,24 @@
+package snake.engine;
+
+/**
+ * Displays a game of snake that is being run by an {@link Engine}. An
+ * {@link Engine} without a {@link Renderer} runs headless.
+ *
+ * @author Joshua_Eddy
+ *
+ * @see Engine#setRenderer(Renderer)
+ *
+ */
+public interface Renderer {
+
+	/**
+	 * Displays a specified {@link State}. Called on the thread that stepped the
+	 * {@link Engine} so implementations must hand the {@link State} over to the
+	 * thread they draw on.
+	 *
+	 * @param state
+	 *            The {@link State} after the latest tick. NOT NULL.
+	 */
+	public void render(State state);
+
+}
@@ -0,0 +1,241 @@
+package snake.engine;
+
+import java.util.Arrays;
+
+import snake.Direction;
+
+/**
+ * The layout of the grid that a game of snake is played on. The grid is made
+ * up of cells numbered from zero at the top left, along each row in turn. Every
+ * cell of the grid can be occupied by the snake while any cell outside of it is
+ * a wall, so a wall is found by testing the bounds of the grid rather than
+ * being stored. Cells are numbered with longs so that a grid may have far more
+ * cells than an array can hold.
+ *
+ * @author Joshua_Eddy
+ *
+ * @see Engine
+ *
+ */
+public final class Rules {
+
+	/**
+	 * The number of columns in the grid.
+	 */
+	private final int columns;
+
+	/**
+	 * The number of rows in the grid.
+	 */
+	private final int rows;
+
+	/**
+	 * The number of columns from the left of the grid that food can be placed
+	 * in.
+	 */
+	private final int foodColumns;
+
+	/**
+	 * The number of rows from the top of the grid that food can be placed in.
+	 */
+	private final int foodRows;
+
+	/**
+	 * The cell the head of the snake starts in.
+	 */
+	private final long start;
+
+	/**
+	 * The {@link Direction} the snake is initially moving.
+	 */
+	private final Direction startDirection;
+
+	/**
+	 * The cell the first piece of food is placed in.
+	 */
+	private final long firstFood;
+
+	/**
+	 * Constructs a new {@link Rules}.
+	 *
+	 * @param columns
+	 *            The number of columns in the grid. Greater than zero.
+	 * @param rows
+	 *            The number of rows in the grid. Greater than zero.
+	 * @param foodColumns
+	 *            The number of columns from the left that food can be placed in.
+	 *            From one to the number of columns.
+	 * @param foodRows
+	 *            The number of rows from the top that food can be placed in. From
+	 *            one to the number of rows.
+	 * @param startColumn
+	 *            The column the head of the snake starts in.
+	 * @param startRow
+	 *            The row the head of the snake starts in.
+	 * @param startDirection
+	 *            The {@link Direction} the snake is initially moving. NOT NULL.
+	 * @param foodColumn
+	 *            The column the first piece of food is placed in.
+	 * @param foodRow
+	 *            The row the first piece of food is placed in.
+	 */
+	public Rules(int columns, int rows, int foodColumns, int foodRows, int startColumn, int startRow,
+			Direction startDirection, int foodColumn, int foodRow) {
+
+		if (columns <= 0 || rows <= 0) {
+			throw new IllegalArgumentException("The grid must have at least one column and row.");
+		}
+		if (foodColumns <= 0 || foodColumns > columns || foodRows <= 0 || foodRows > rows) {
+			throw new IllegalArgumentException("Food must be placed inside the grid.");
+		}
+		if (startDirection == null) {
+			throw new IllegalArgumentException("Direction cannot be null.");
+		}
+
+		this.columns = columns;
+		this.rows = rows;
+		this.foodColumns = foodColumns;
+		this.foodRows = foodRows;
+		this.startDirection = startDirection;
+		this.start = getCell(startColumn, startRow);
+		this.firstFood = getCell(foodColumn, foodRow);
+	}
+
+	/**
+	 * @return The number of columns in the grid.
+	 */
+	public int getColumns() {
+		return columns;
+	}
+
+	/**
+	 * @return The number of rows in the grid.
+	 */
+	public int getRows() {
+		return rows;
+	}
+
+	/**
+	 * @return The number of cells in the grid.
+	 */
+	public long getCells() {
+		return (long) columns * rows;
+	}
+
+	/**
+	 * @return The number of columns from the left that food can be placed in.
+	 */
+	public int getFoodColumns() {
+		return foodColumns;
+	}
+
+	/**
+	 * @return The number of rows from the top that food can be placed in.
+	 */
+	public int getFoodRows() {
+		return foodRows;
+	}
+
+	/**
+	 * @return The cell the head of the snake starts in.
+	 */
+	public long getStart() {
+		return start;
+	}
+
+	/**
+	 * @return The {@link Direction} the snake is initially moving.
+	 */
+	public Direction getStartDirection() {
+		return startDirection;
+	}
+
+	/**
+	 * @return The cell the first piece of food is placed in.
+	 */
+	public long getFirstFood() {
+		return firstFood;
+	}
+
+	/**
+	 * Retrieves the cell at a specified column and row of the grid.
+	 *
+	 * @param column
+	 *            The column of the cell. Inside the grid.
+	 * @param row
+	 *            The row of the cell. Inside the grid.
+	 * @return The cell.
+	 */
+	public long getCell(int column, int row) {
+
+		if (!isInside(column, row)) {
+			throw new IllegalArgumentException("(" + column + "," + row + ") is outside of the grid.");
+		}
+
+		return ((long) row * columns) + column;
+	}
+
+	/**
+	 * Retrieves the column of a specified cell.
+	 *
+	 * @param cell
+	 *            A cell of the grid.
+	 * @return The column.
+	 */
+	public int getColumn(long cell) {
+		return (int) (cell % columns);
+	}
+
+	/**
+	 * Retrieves the row of a specified cell.
+	 *
+	 * @param cell
+	 *            A cell of the grid.
+	 * @return The row.
+	 */
+	public int getRow(long cell) {
+		return (int) (cell / columns);
+	}
+
+	/**
+	 * Whether a specified column and row are inside the grid rather than in a
+	 * wall.
+	 *
+	 * @param column
+	 *            The column.
+	 * @param row
+	 *            The row.
+	 * @return {@code Boolean}
+	 */
+	public boolean isInside(int column, int row) {
+		return column >= 0 && column < columns && row >= 0 && row < rows;
+	}
+
+	/**
+	 * Whether a specified object is a {@link Rules} with the same grid, food area,
+	 * start and first food as this one.
+	 *
+	 * @param object
+	 *            The object.
+	 * @return {@code Boolean}
+	 */
+	@Override
+	public boolean equals(Object object) {
+
+		if (!(object instanceof Rules)) {
+			return false;
+		}
+
+		Rules other = (Rules) object;
+		return columns == other.columns && rows == other.rows && foodColumns == other.foodColumns
+				&& foodRows == other.foodRows && start == other.start && startDirection == other.startDirection
+				&& firstFood == other.firstFood;
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(new long[] { columns, rows, foodColumns, foodRows, start, startDirection.ordinal(),
+				firstFood });
+	}
+
+}
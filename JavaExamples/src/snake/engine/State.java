@@ -0,0 +1,250 @@
+package snake.engine;
+
+import java.nio.ByteBuffer;
+
+import snake.Direction;
+
+/**
+ * An immutable copy of a game of snake taken between two ticks of an
+ * {@link Engine}. A {@link State} holds everything needed to carry on the game
+ * from that point, including the state of its random number generator, so
+ * stepping the same {@link State} with the same {@link Direction} always
+ * produces the same result.
+ *
+ * @author Joshua_Eddy
+ *
+ * @see Engine#step(State, Direction)
+ *
+ */
+public final class State {
+
+	/**
+	 * The {@link Rules} of the game.
+	 */
+	private final Rules rules;
+
+	/**
+	 * The cells of the snake ordered from the head.
+	 */
+	private final long[] body;
+
+	/**
+	 * The {@link Direction} the snake is moving.
+	 */
+	private final Direction direction;
+
+	/**
+	 * The cell the food is in.
+	 */
+	private final long food;
+
+	/**
+	 * The number of pieces of food that have been eaten.
+	 */
+	private final int score;
+
+	/**
+	 * Whether the snake has not yet collided with a wall or itself.
+	 */
+	private final boolean alive;
+
+	/**
+	 * The number of ticks the snake has moved.
+	 */
+	private final long tick;
+
+	/**
+	 * The seed of the random number generator that places the food.
+	 */
+	private final long random;
+
+	/**
+	 * Constructs a new {@link State}. The body is not copied.
+	 */
+	State(Rules rules, long[] body, Direction direction, long food, int score, boolean alive, long tick,
+			long random) {
+		this.rules = rules;
+		this.body = body;
+		this.direction = direction;
+		this.food = food;
+		this.score = score;
+		this.alive = alive;
+		this.tick = tick;
+		this.random = random;
+	}
+
+	/**
+	 * @return The {@link Rules} of the game.
+	 */
+	public Rules getRules() {
+		return rules;
+	}
+
+	/**
+	 * @return The number of cells the snake occupies.
+	 */
+	public int getLength() {
+		return body.length;
+	}
+
+	/**
+	 * Retrieves the cell of a specified part of the snake.
+	 *
+	 * @param index
+	 *            The position of the part where zero is the head.
+	 * @return The cell.
+	 */
+	public long getCell(int index) {
+		return body[index];
+	}
+
+	/**
+	 * Retrieves the column of a specified part of the snake.
+	 *
+	 * @param index
+	 *            The position of the part where zero is the head.
+	 * @return The column.
+	 */
+	public int getColumn(int index) {
+		return rules.getColumn(body[index]);
+	}
+
+	/**
+	 * Retrieves the row of a specified part of the snake.
+	 *
+	 * @param index
+	 *            The position of the part where zero is the head.
+	 * @return The row.
+	 */
+	public int getRow(int index) {
+		return rules.getRow(body[index]);
+	}
+
+	/**
+	 * @return The {@link Direction} the snake is moving.
+	 */
+	public Direction getDirection() {
+		return direction;
+	}
+
+	/**
+	 * @return The cell the food is in.
+	 */
+	public long getFood() {
+		return food;
+	}
+
+	/**
+	 * @return The column the food is in.
+	 */
+	public int getFoodColumn() {
+		return rules.getColumn(food);
+	}
+
+	/**
+	 * @return The row the food is in.
+	 */
+	public int getFoodRow() {
+		return rules.getRow(food);
+	}
+
+	/**
+	 * @return The number of pieces of food that have been eaten.
+	 */
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * @return Whether the snake has not yet collided with a wall or itself.
+	 */
+	public boolean isAlive() {
+		return alive;
+	}
+
+	/**
+	 * @return The number of ticks the snake has moved.
+	 */
+	public long getTick() {
+		return tick;
+	}
+
+	/**
+	 * @return The seed of the random number generator that places the food.
+	 */
+	long getRandom() {
+		return random;
+	}
+
+	/**
+	 * @return The number of bytes the {@link State} takes up when written by
+	 *         {@link State#write(ByteBuffer)}.
+	 */
+	public int getSize() {
+		return 34 + (8 * body.length);
+	}
+
+	/**
+	 * Writes the {@link State}, apart from its {@link Rules}, to a specified
+	 * buffer.
+	 *
+	 * @param buffer
+	 *            {@link ByteBuffer} with room for {@link State#getSize()} bytes.
+	 *            NOT NULL.
+	 */
+	public void write(ByteBuffer buffer) {
+
+		buffer.putInt(body.length);
+		for (long cell : body) {
+			buffer.putLong(cell);
+		}
+		buffer.put((byte) direction.ordinal());
+		buffer.putLong(food);
+		buffer.putInt(score);
+		buffer.put((byte) (alive ? 1 : 0));
+		buffer.putLong(tick);
+		buffer.putLong(random);
+	}
+
+	/**
+	 * Reads a {@link State} written by {@link State#write(ByteBuffer)} from a
+	 * specified buffer.
+	 *
+	 * @param rules
+	 *            The {@link Rules} of the game. NOT NULL.
+	 * @param buffer
+	 *            {@link ByteBuffer} NOT NULL.
+	 * @return {@link State}
+	 */
+	public static State read(Rules rules, ByteBuffer buffer) {
+
+		int length = buffer.getInt();
+		if (length <= 0 || length > rules.getCells()) {
+			throw new IllegalArgumentException("The snake must occupy between one and every cell of the grid.");
+		}
+
+		long[] body = new long[length];
+		buffer.asLongBuffer().get(body);
+		buffer.position(buffer.position() + (8 * length));
+
+		int ordinal = buffer.get();
+		long food = buffer.getLong();
+		int score = buffer.getInt();
+		boolean alive = buffer.get() != 0;
+		long tick = buffer.getLong();
+		long random = buffer.getLong();
+
+		// Nothing read may point outside of the grid.
+		for (long cell : body) {
+			if (cell < 0 || cell >= rules.getCells()) {
+				throw new IllegalArgumentException("The snake must be inside the grid.");
+			}
+		}
+		if (food < 0 || food >= rules.getCells() || ordinal < 0 || ordinal >= Direction.values().length) {
+			throw new IllegalArgumentException("The food and direction must be valid.");
+		}
+
+		return new State(rules, body, Direction.values()[ordinal], food, score, alive, tick, random);
+	}
+
+}
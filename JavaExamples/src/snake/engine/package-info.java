@@ -0,0 +1,11 @@
+/**
+ * Contains the rules of the game of Snake without any way of displaying it. The
+ * {@link snake.engine.Engine} moves the snake, grows it, places the food and
+ * detects collisions with the walls and itself. It is shared by the 2D and 3D
+ * versions of the game, which only draw what it produces, and can be run
+ * headless to simulate games as fast as possible.
+ *
+ * @author Joshua_Eddy
+ *
+ */
+package snake.engine;
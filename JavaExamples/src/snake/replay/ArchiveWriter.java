@@ -0,0 +1,275 @@
+package snake.replay;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import snake.Direction;
+import snake.engine.Engine;
+import snake.engine.State;
+
+/**
+ * Records a game of snake to a {@link ReplayArchive} as it is played. Every
+ * interval of ticks a keyframe holding the full {@link State} of the game is
+ * written, followed by the changes of {@link Direction} until the next keyframe
+ * encoded in the same way as a {@link Replay}. The position of each keyframe is
+ * written to an index at the end of the file so that a {@link ReplayArchive}
+ * can jump straight to the keyframe before any tick.
+ *
+ * @author Joshua_Eddy
+ *
+ * @see ReplayArchive
+ *
+ */
+public final class ArchiveWriter implements Closeable {
+
+	/**
+	 * The number of bytes gathered before they are written to the file.
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * The {@link FileChannel} the archive is written to.
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * The number of ticks between keyframes.
+	 */
+	private final int interval;
+
+	/**
+	 * The bytes that have yet to be written to the {@link ArchiveWriter#channel}.
+	 */
+	private ByteBuffer buffer;
+
+	/**
+	 * The number of bytes written to the {@link ArchiveWriter#channel}.
+	 */
+	private long written;
+
+	/**
+	 * The position in the file of each keyframe.
+	 */
+	private long[] keyframes;
+
+	/**
+	 * The number of keyframes written.
+	 */
+	private int keyframeCount;
+
+	/**
+	 * The {@link Direction} the snake was moving after the last tick recorded.
+	 */
+	private Direction direction;
+
+	/**
+	 * The number of ticks recorded.
+	 */
+	private long ticks;
+
+	/**
+	 * The tick of the last change of {@link Direction} or keyframe.
+	 */
+	private long lastChange;
+
+	/**
+	 * Whether the {@link ArchiveWriter} has been closed.
+	 */
+	private boolean closed;
+
+	/**
+	 * Constructs a new {@link ArchiveWriter}, replacing any file at a specified
+	 * {@link Path}, and writes the first keyframe.
+	 *
+	 * @param path
+	 *            The {@link Path} of the file. NOT NULL.
+	 * @param engine
+	 *            The {@link Engine} of the game at its first tick. NOT NULL.
+	 * @param seed
+	 *            The seed the {@link Engine} was constructed with.
+	 * @param interval
+	 *            The number of ticks between keyframes. Greater than zero.
+	 * @throws IOException
+	 *             If the file cannot be written.
+	 */
+	public ArchiveWriter(Path path, Engine engine, long seed, int interval) throws IOException {
+
+		if (path == null || engine == null) {
+			throw new IllegalArgumentException("Path and engine cannot be null.");
+		}
+		if (interval <= 0) {
+			throw new IllegalArgumentException("Interval must be greater than zero.");
+		}
+		if (engine.getTick() != 0) {
+			throw new IllegalArgumentException("The game must be recorded from its first tick.");
+		}
+
+		this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		this.interval = interval;
+		this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		this.written = 0;
+		this.keyframes = new long[16];
+		this.keyframeCount = 0;
+		this.direction = engine.getDirection();
+		this.ticks = 0;
+		this.lastChange = 0;
+		this.closed = false;
+
+		buffer.putInt(ReplayArchive.MAGIC);
+		buffer.put(ReplayArchive.VERSION);
+		Replay.writeHeader(buffer, engine.getRules());
+		buffer.putLong(seed);
+		buffer.putInt(interval);
+
+		writeKeyframe(engine.getState());
+	}
+
+	/**
+	 * Records a single tick of the game. Must be called after every tick that
+	 * the {@link Engine} is advanced, including the one on which the snake dies.
+	 *
+	 * @param engine
+	 *            The {@link Engine} of the game after the tick. NOT NULL.
+	 * @throws IOException
+	 *             If the archive cannot be written.
+	 */
+	public void record(Engine engine) throws IOException {
+
+		if (closed) {
+			throw new IllegalStateException("The archive has been closed.");
+		}
+
+		if (engine.getDirection() != direction) {
+			ensureRemaining(Replay.MAX_VAR_LONG);
+			Replay.writeVarLong(buffer, Replay.encodeChange(ticks - lastChange, engine.getDirection()));
+			direction = engine.getDirection();
+			lastChange = ticks;
+		}
+		ticks++;
+
+		// Start a new keyframe once the interval has passed, unless the game is over.
+		if (ticks % interval == 0 && engine.isAlive()) {
+			writeKeyframe(engine.getState());
+		}
+	}
+
+	/**
+	 * @return The number of ticks recorded.
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * Ends the last keyframe, writes the index of the keyframes and closes the
+	 * file. Does nothing if the {@link ArchiveWriter} is already closed.
+	 */
+	@Override
+	public void close() throws IOException {
+
+		if (closed) {
+			return;
+		}
+		closed = true;
+
+		try {
+			ensureRemaining(Replay.MAX_VAR_LONG);
+			Replay.writeVarLong(buffer, Replay.END);
+
+			long index = position();
+			for (int keyframe = 0; keyframe < keyframeCount; keyframe++) {
+				ensureRemaining(8);
+				buffer.putLong(keyframes[keyframe]);
+			}
+
+			ensureRemaining(ReplayArchive.TRAILER_SIZE);
+			buffer.putLong(index);
+			buffer.putInt(keyframeCount);
+			buffer.putLong(ticks);
+			buffer.putInt(ReplayArchive.MAGIC);
+
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Ends the changes of the previous keyframe, if there is one, and writes a
+	 * keyframe of a specified {@link State}.
+	 *
+	 * @param state
+	 *            The {@link State} at the tick of the keyframe. NOT NULL.
+	 * @throws IOException
+	 *             If the archive cannot be written.
+	 */
+	private void writeKeyframe(State state) throws IOException {
+
+		if (keyframeCount > 0) {
+			ensureRemaining(Replay.MAX_VAR_LONG);
+			Replay.writeVarLong(buffer, Replay.END);
+		}
+
+		ensureRemaining(state.getSize());
+
+		if (keyframeCount == keyframes.length) {
+			keyframes = Arrays.copyOf(keyframes, keyframeCount * 2);
+		}
+		keyframes[keyframeCount++] = position();
+
+		state.write(buffer);
+
+		// The changes after a keyframe are counted from the keyframe.
+		lastChange = ticks;
+	}
+
+	/**
+	 * @return The position in the file that the next byte will be written to.
+	 */
+	private long position() {
+		return written + buffer.position();
+	}
+
+	/**
+	 * Makes sure there is room in the buffer for a specified number of bytes,
+	 * writing the buffer to the file or enlarging it if there is not.
+	 *
+	 * @param bytes
+	 *            The number of bytes.
+	 * @throws IOException
+	 *             If the archive cannot be written.
+	 */
+	private void ensureRemaining(int bytes) throws IOException {
+
+		if (buffer.remaining() < bytes) {
+			flush();
+		}
+
+		// A keyframe of a long snake may not fit in the buffer at all.
+		if (buffer.remaining() < bytes) {
+			buffer = ByteBuffer.allocateDirect(bytes);
+		}
+	}
+
+	/**
+	 * Writes everything in the buffer to the file.
+	 *
+	 * @throws IOException
+	 *             If the archive cannot be written.
+	 */
+	private void flush() throws IOException {
+
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			written += channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+}
@@ -0,0 +1,369 @@
+package snake.replay;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import snake.Direction;
+import snake.engine.Controller;
+import snake.engine.Engine;
+import snake.engine.GameView;
+import snake.engine.Rules;
+
+/**
+ * A recorded game of snake read from a file written by a
+ * {@link ReplayWriter}. The game is played back by constructing an
+ * {@link Engine} with the {@link Rules} and seed of the replay and steering it
+ * with the {@link Controller} of the replay.
+ * <p>
+ * A replay file holds, in order:
+ * <ol>
+ * <li>The magic number and version of the format.</li>
+ * <li>The nine arguments the {@link Rules} were constructed with.</li>
+ * <li>The seed the {@link Engine} was constructed with.</li>
+ * <li>A variable length integer for each change of {@link Direction}, holding
+ * the number of ticks since the last change shifted left by two bits, the
+ * ordinal of the new {@link Direction} in the bottom two bits and one added so
+ * that zero can mark the end of the changes.</li>
+ * <li>A zero followed by the number of ticks in the game.</li>
+ * </ol>
+ *
+ * @author Joshua_Eddy
+ *
+ * @see ReplayWriter
+ * @see ReplayPlayer
+ *
+ */
+public final class Replay {
+
+	/**
+	 * The file extension of a replay.
+	 */
+	public static final String EXTENSION = ".replay";
+
+	/**
+	 * The first four bytes of every replay, "SNKR".
+	 */
+	static final int MAGIC = 0x534E4B52;
+
+	/**
+	 * The version of the format of the replay.
+	 */
+	static final byte VERSION = 1;
+
+	/**
+	 * The value that marks the end of the changes of {@link Direction}.
+	 */
+	static final long END = 0;
+
+	/**
+	 * The most bytes a variable length long can take.
+	 */
+	static final int MAX_VAR_LONG = 10;
+
+	/**
+	 * The {@link Rules} of the game.
+	 */
+	private final Rules rules;
+
+	/**
+	 * The seed the {@link Engine} of the game was constructed with.
+	 */
+	private final long seed;
+
+	/**
+	 * The number of ticks in the game.
+	 */
+	private final long ticks;
+
+	/**
+	 * The tick of each change of {@link Direction} in order.
+	 */
+	private final long[] changeTicks;
+
+	/**
+	 * The {@link Direction} of each change.
+	 */
+	private final Direction[] changeDirections;
+
+	/**
+	 * Constructs a new {@link Replay}.
+	 *
+	 * @param rules
+	 *            The {@link Rules} of the game.
+	 * @param seed
+	 *            The seed of the game.
+	 * @param ticks
+	 *            The number of ticks in the game.
+	 * @param changeTicks
+	 *            The tick of each change of {@link Direction}.
+	 * @param changeDirections
+	 *            The {@link Direction} of each change.
+	 */
+	private Replay(Rules rules, long seed, long ticks, long[] changeTicks, Direction[] changeDirections) {
+		this.rules = rules;
+		this.seed = seed;
+		this.ticks = ticks;
+		this.changeTicks = changeTicks;
+		this.changeDirections = changeDirections;
+	}
+
+	/**
+	 * Reads a {@link Replay} from a specified file.
+	 *
+	 * @param path
+	 *            The {@link Path} of a file written by a {@link ReplayWriter}.
+	 *            NOT NULL.
+	 * @return {@link Replay}
+	 * @throws IOException
+	 *             If the file cannot be read or is not a complete replay.
+	 */
+	public static Replay read(Path path) throws IOException {
+
+		ByteBuffer buffer;
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException(path + " is too large to be a replay.");
+			}
+
+			buffer = ByteBuffer.allocate((int) channel.size());
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+			}
+			buffer.flip();
+		}
+
+		try {
+			return read(buffer);
+		} catch (BufferUnderflowException e) {
+			throw new IOException(path + " is not a complete replay.", e);
+		}
+	}
+
+	/**
+	 * Reads a {@link Replay} from a specified buffer.
+	 *
+	 * @param buffer
+	 *            The contents of a replay file. NOT NULL.
+	 * @return {@link Replay}
+	 * @throws IOException
+	 *             If the buffer does not hold a replay.
+	 */
+	private static Replay read(ByteBuffer buffer) throws IOException {
+
+		Rules rules = readHeader(buffer);
+		long seed = buffer.getLong();
+
+		long[] changeTicks = new long[16];
+		Direction[] changeDirections = new Direction[16];
+		int changes = 0;
+		long tick = 0;
+
+		// Undo the delta encoding of the ticks of the changes.
+		for (long value = readVarLong(buffer); value != END; value = readVarLong(buffer)) {
+
+			if (changes == changeTicks.length) {
+				changeTicks = Arrays.copyOf(changeTicks, changes * 2);
+				changeDirections = Arrays.copyOf(changeDirections, changes * 2);
+			}
+
+			tick += (value - 1) >>> 2;
+			changeTicks[changes] = tick;
+			changeDirections[changes] = Direction.values()[(int) ((value - 1) & 3)];
+			changes++;
+		}
+
+		long ticks = readVarLong(buffer);
+
+		return new Replay(rules, seed, ticks, Arrays.copyOf(changeTicks, changes),
+				Arrays.copyOf(changeDirections, changes));
+	}
+
+	/**
+	 * @return The {@link Rules} of the game.
+	 */
+	public Rules getRules() {
+		return rules;
+	}
+
+	/**
+	 * @return The seed the {@link Engine} of the game was constructed with.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * @return The number of ticks in the game, including the tick on which the
+	 *         snake died.
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * @return The number of times the snake changed {@link Direction}.
+	 */
+	public int getChanges() {
+		return changeTicks.length;
+	}
+
+	/**
+	 * @return A new {@link Engine} at the start of the game.
+	 */
+	public Engine newEngine() {
+		return new Engine(rules, seed);
+	}
+
+	/**
+	 * Creates a {@link Controller} that steers an {@link Engine} from the start
+	 * of the game exactly as the snake was steered when it was recorded.
+	 *
+	 * @return {@link Controller}
+	 */
+	public Controller newController() {
+
+		return new Controller() {
+
+			/**
+			 * The index of the next change of {@link Direction}.
+			 */
+			private int next = 0;
+
+			@Override
+			public Direction decide(GameView view) {
+
+				long tick = view.getTick();
+
+				// Skip any changes the game has already passed.
+				while (next < changeTicks.length && changeTicks[next] < tick) {
+					next++;
+				}
+
+				if (next < changeTicks.length && changeTicks[next] == tick) {
+					return changeDirections[next++];
+				}
+				return null;
+			}
+		};
+	}
+
+	/**
+	 * Writes the magic number, version and {@link Rules} of a replay to a
+	 * specified buffer.
+	 *
+	 * @param buffer
+	 *            {@link ByteBuffer} NOT NULL.
+	 * @param rules
+	 *            {@link Rules} NOT NULL.
+	 */
+	static void writeHeader(ByteBuffer buffer, Rules rules) {
+
+		buffer.putInt(MAGIC);
+		buffer.put(VERSION);
+
+		buffer.putInt(rules.getColumns());
+		buffer.putInt(rules.getRows());
+		buffer.putInt(rules.getFoodColumns());
+		buffer.putInt(rules.getFoodRows());
+		buffer.putInt(rules.getColumn(rules.getStart()));
+		buffer.putInt(rules.getRow(rules.getStart()));
+		buffer.putInt(rules.getStartDirection().ordinal());
+		buffer.putInt(rules.getColumn(rules.getFirstFood()));
+		buffer.putInt(rules.getRow(rules.getFirstFood()));
+	}
+
+	/**
+	 * Reads the magic number, version and {@link Rules} of a replay from a
+	 * specified buffer.
+	 *
+	 * @param buffer
+	 *            {@link ByteBuffer} NOT NULL.
+	 * @return The {@link Rules}.
+	 * @throws IOException
+	 *             If the buffer does not hold a replay of this version.
+	 */
+	static Rules readHeader(ByteBuffer buffer) throws IOException {
+
+		if (buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+			throw new IOException("Not a replay of version " + VERSION + ".");
+		}
+
+		int columns = buffer.getInt();
+		int rows = buffer.getInt();
+		int foodColumns = buffer.getInt();
+		int foodRows = buffer.getInt();
+		int startColumn = buffer.getInt();
+		int startRow = buffer.getInt();
+		int startDirection = buffer.getInt();
+		int foodColumn = buffer.getInt();
+		int foodRow = buffer.getInt();
+
+		try {
+			return new Rules(columns, rows, foodColumns, foodRows, startColumn, startRow,
+					Direction.values()[startDirection], foodColumn, foodRow);
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			throw new IOException("The rules of the replay are invalid.", e);
+		}
+	}
+
+	/**
+	 * Packs a change of {@link Direction} into a single value.
+	 *
+	 * @param delta
+	 *            The number of ticks since the last change.
+	 * @param direction
+	 *            The new {@link Direction}. NOT NULL.
+	 * @return The value. Never {@link Replay#END}.
+	 */
+	static long encodeChange(long delta, Direction direction) {
+		return ((delta << 2) | direction.ordinal()) + 1;
+	}
+
+	/**
+	 * Writes a specified value to a buffer using seven bits per byte, lowest
+	 * bits first, with the top bit of each byte set if another byte follows.
+	 *
+	 * @param buffer
+	 *            {@link ByteBuffer} with room for {@link Replay#MAX_VAR_LONG}
+	 *            bytes. NOT NULL.
+	 * @param value
+	 *            The value, treated as unsigned.
+	 */
+	static void writeVarLong(ByteBuffer buffer, long value) {
+
+		while ((value & ~0x7FL) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	/**
+	 * Reads a value written by {@link Replay#writeVarLong(ByteBuffer, long)}.
+	 *
+	 * @param buffer
+	 *            {@link ByteBuffer} NOT NULL.
+	 * @return The value.
+	 */
+	static long readVarLong(ByteBuffer buffer) {
+
+		long value = 0;
+		int shift = 0;
+		byte b;
+
+		do {
+			b = buffer.get();
+			value |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+
+		return value;
+	}
+
+}
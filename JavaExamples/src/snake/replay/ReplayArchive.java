@@ -0,0 +1,336 @@
+package snake.replay;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import snake.Direction;
+import snake.engine.Controller;
+import snake.engine.Engine;
+import snake.engine.GameView;
+import snake.engine.Rules;
+import snake.engine.State;
+
+/**
+ * A recorded game of snake that can be sought to any tick without playing it
+ * from the start. The file is written by an {@link ArchiveWriter} and read
+ * through a {@link MappedByteBuffer}, so only the parts of it that are sought
+ * to are ever read from disk.
+ * <p>
+ * An archive file holds, in order:
+ * <ol>
+ * <li>The magic number and version of the format.</li>
+ * <li>The {@link Rules}, seed and interval between keyframes.</li>
+ * <li>A keyframe for every interval of ticks, each holding the {@link State} of
+ * the game at that tick followed by the changes of {@link Direction} until the
+ * next keyframe, encoded as in a {@link Replay} and ended with a zero.</li>
+ * <li>The position of each keyframe in the file.</li>
+ * <li>A trailer holding the position of the index, the number of keyframes,
+ * the number of ticks in the game and the magic number.</li>
+ * </ol>
+ * Seeking to a tick costs decoding one keyframe and playing at most one
+ * interval of ticks from it.
+ *
+ * @author Joshua_Eddy
+ *
+ * @see ArchiveWriter
+ *
+ */
+public final class ReplayArchive {
+
+	/**
+	 * The file extension of an archive.
+	 */
+	public static final String EXTENSION = ".archive";
+
+	/**
+	 * The first and last four bytes of every archive, "SNKA".
+	 */
+	static final int MAGIC = 0x534E4B41;
+
+	/**
+	 * The version of the format of the archive.
+	 */
+	static final byte VERSION = 2;
+
+	/**
+	 * The number of bytes in the trailer at the end of the archive.
+	 */
+	static final int TRAILER_SIZE = 24;
+
+	/**
+	 * The contents of the archive file.
+	 */
+	private final MappedByteBuffer buffer;
+
+	/**
+	 * The {@link Rules} of the game.
+	 */
+	private final Rules rules;
+
+	/**
+	 * The seed the {@link Engine} of the game was constructed with.
+	 */
+	private final long seed;
+
+	/**
+	 * The number of ticks between keyframes.
+	 */
+	private final int interval;
+
+	/**
+	 * The position of the index of the keyframes.
+	 */
+	private final int index;
+
+	/**
+	 * The number of keyframes.
+	 */
+	private final int keyframes;
+
+	/**
+	 * The number of ticks in the game.
+	 */
+	private final long ticks;
+
+	/**
+	 * Constructs a new {@link ReplayArchive} by mapping a specified file into
+	 * memory.
+	 *
+	 * @param path
+	 *            The {@link Path} of a file written by an {@link ArchiveWriter}.
+	 *            NOT NULL.
+	 * @throws IOException
+	 *             If the file cannot be read or is not a complete archive.
+	 */
+	public ReplayArchive(Path path) throws IOException {
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+
+			// A single mapping can only address two gigabytes.
+			if (channel.size() > Integer.MAX_VALUE || channel.size() < TRAILER_SIZE) {
+				throw new IOException(path + " is not an archive that can be mapped.");
+			}
+
+			// The mapping stays valid after the channel is closed.
+			this.buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+		}
+
+		try {
+
+			if (buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+				throw new IOException(path + " is not an archive of version " + VERSION + ".");
+			}
+
+			this.rules = Replay.readHeader(buffer);
+			this.seed = buffer.getLong();
+			this.interval = buffer.getInt();
+
+			int trailer = buffer.limit() - TRAILER_SIZE;
+			long index = buffer.getLong(trailer);
+			this.keyframes = buffer.getInt(trailer + 8);
+			this.ticks = buffer.getLong(trailer + 12);
+
+			if (buffer.getInt(trailer + 20) != MAGIC || interval <= 0 || keyframes <= 0 || index < 0
+					|| index + (8L * keyframes) != trailer) {
+				throw new IOException(path + " is not a complete archive.");
+			}
+			this.index = (int) index;
+
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			throw new IOException(path + " is not a complete archive.", e);
+		}
+	}
+
+	/**
+	 * @return The {@link Rules} of the game.
+	 */
+	public Rules getRules() {
+		return rules;
+	}
+
+	/**
+	 * @return The seed the {@link Engine} of the game was constructed with.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * @return The number of ticks between keyframes.
+	 */
+	public int getInterval() {
+		return interval;
+	}
+
+	/**
+	 * @return The number of keyframes.
+	 */
+	public int getKeyframes() {
+		return keyframes;
+	}
+
+	/**
+	 * @return The number of ticks in the game, including the tick on which the
+	 *         snake died.
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * Creates an {@link Engine} that has played a specified number of ticks of
+	 * the game.
+	 *
+	 * @param tick
+	 *            The number of ticks. Zero or greater. If greater than the
+	 *            number of ticks in the game the {@link Engine} is at the end of
+	 *            the game.
+	 * @return {@link Engine}
+	 */
+	public Engine seek(long tick) {
+
+		if (tick < 0) {
+			throw new IllegalArgumentException("Tick cannot be negative.");
+		}
+
+		// Start from the last keyframe at or before the tick.
+		int keyframe = (int) Math.min(tick / interval, keyframes - 1);
+		long keyframeTick = (long) keyframe * interval;
+
+		// Read through a duplicate so that seeks do not share a position.
+		ByteBuffer reader = buffer.duplicate();
+		reader.position((int) buffer.getLong(index + (8 * keyframe)));
+
+		Engine engine = new Engine(State.read(rules, reader));
+		Controller changes = new Changes(reader, keyframeTick);
+
+		for (long current = keyframeTick; current < Math.min(tick, ticks); current++) {
+			engine.advance(changes.decide(engine));
+		}
+
+		return engine;
+	}
+
+	/**
+	 * Converts a {@link Replay} into an archive or seeks to a tick of an archive.
+	 *
+	 * @param args
+	 *            <code>convert</code>, the path of a replay, the path of the new
+	 *            archive and optionally the interval between keyframes, or
+	 *            <code>seek</code>, the path of an archive and a tick.
+	 * @throws IOException
+	 *             If a file cannot be read or written.
+	 */
+	public static void main(String[] args) throws IOException {
+
+		if (args.length >= 3 && args[0].equals("convert")) {
+
+			Replay replay = Replay.read(Paths.get(args[1]));
+			int interval = args.length > 3 ? Integer.parseInt(args[3]) : 4096;
+
+			Engine engine = replay.newEngine();
+			Controller controller = replay.newController();
+
+			try (ArchiveWriter writer = new ArchiveWriter(Paths.get(args[2]), engine, replay.getSeed(), interval)) {
+				for (long tick = 0; tick < replay.getTicks(); tick++) {
+					engine.advance(controller.decide(engine));
+					writer.record(engine);
+				}
+			}
+
+		} else if (args.length >= 3 && args[0].equals("seek")) {
+
+			ReplayArchive archive = new ReplayArchive(Paths.get(args[1]));
+
+			long start = System.nanoTime();
+			Engine engine = archive.seek(Long.parseLong(args[2]));
+			double millis = (System.nanoTime() - start) / 1e6;
+
+			System.out.println("Tick:    " + engine.getTick() + " of " + archive.getTicks());
+			System.out.println("Length:  " + engine.getLength());
+			System.out.println("Score:   " + engine.getScore());
+			System.out.println(engine.isAlive() ? "ALIVE" : "GAME OVER");
+			System.out.println("Seek:    " + String.format("%.3f", millis) + "ms");
+
+		} else {
+			System.out.println("Usage: ReplayArchive convert <replay> <archive> [interval]");
+			System.out.println("       ReplayArchive seek <archive> <tick>");
+		}
+	}
+
+	/**
+	 * A {@link Controller} that reads the changes of {@link Direction} after a
+	 * keyframe as they are needed.
+	 *
+	 * @author Joshua_Eddy
+	 *
+	 */
+	private static final class Changes implements Controller {
+
+		/**
+		 * The buffer positioned at the next change.
+		 */
+		private final ByteBuffer reader;
+
+		/**
+		 * The tick of the next change. {@link Long#MAX_VALUE} once there are no
+		 * more.
+		 */
+		private long nextTick;
+
+		/**
+		 * The {@link Direction} of the next change.
+		 */
+		private Direction nextDirection;
+
+		/**
+		 * Constructs a new {@link Changes}.
+		 *
+		 * @param reader
+		 *            The buffer positioned at the first change after a keyframe.
+		 * @param keyframeTick
+		 *            The tick of the keyframe.
+		 */
+		private Changes(ByteBuffer reader, long keyframeTick) {
+			this.reader = reader;
+			this.nextTick = keyframeTick;
+			read();
+		}
+
+		@Override
+		public Direction decide(GameView view) {
+
+			if (view.getTick() != nextTick) {
+				return null;
+			}
+
+			Direction direction = nextDirection;
+			read();
+			return direction;
+		}
+
+		/**
+		 * Reads the next change.
+		 */
+		private void read() {
+
+			long value = Replay.readVarLong(reader);
+
+			if (value == Replay.END) {
+				nextTick = Long.MAX_VALUE;
+			} else {
+				nextTick += (value - 1) >>> 2;
+				nextDirection = Direction.values()[(int) ((value - 1) & 3)];
+			}
+		}
+
+	}
+
+}
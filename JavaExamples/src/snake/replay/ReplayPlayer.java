@@ -0,0 +1,78 @@
+package snake.replay;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import snake.engine.Controller;
+import snake.engine.Engine;
+
+/**
+ * Plays {@link Replay}s back headless as fast as the {@link Engine} can tick.
+ *
+ * @author Joshua_Eddy
+ *
+ * @see snake3D.environment.Game
+ *
+ */
+public final class ReplayPlayer {
+
+	/**
+	 * Unused.
+	 */
+	private ReplayPlayer() {
+	}
+
+	/**
+	 * Plays a specified {@link Replay} from start to finish.
+	 *
+	 * @param replay
+	 *            {@link Replay} NOT NULL.
+	 * @return The {@link Engine} at the end of the game.
+	 */
+	public static Engine play(Replay replay) {
+
+		Engine engine = replay.newEngine();
+		Controller controller = replay.newController();
+
+		for (long tick = 0; tick < replay.getTicks(); tick++) {
+			engine.advance(controller.decide(engine));
+		}
+
+		return engine;
+	}
+
+	/**
+	 * Plays a replay and prints how the game ended and how fast it was played.
+	 *
+	 * @param args
+	 *            The path of the replay and then, optionally, the number of
+	 *            times to play it.
+	 * @throws IOException
+	 *             If the replay cannot be read.
+	 */
+	public static void main(String[] args) throws IOException {
+
+		if (args.length == 0) {
+			System.out.println("Usage: ReplayPlayer <replay> [repeats]");
+			return;
+		}
+
+		Replay replay = Replay.read(Paths.get(args[0]));
+		int repeats = args.length > 1 ? Math.max(1, Integer.parseInt(args[1])) : 1;
+
+		Engine engine = null;
+		long start = System.nanoTime();
+
+		for (int repeat = 0; repeat < repeats; repeat++) {
+			engine = play(replay);
+		}
+
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		System.out.println("Ticks:   " + replay.getTicks() + " with " + replay.getChanges() + " turns");
+		System.out.println("Score:   " + engine.getScore());
+		System.out.println(engine.isAlive() ? "ALIVE" : "GAME OVER");
+		System.out.println("Speed:   " + String.format("%.0f", repeats * replay.getTicks() / seconds) + " ticks/s");
+	}
+
+}
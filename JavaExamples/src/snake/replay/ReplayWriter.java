@@ -0,0 +1,180 @@
+package snake.replay;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import snake.Direction;
+import snake.engine.Rules;
+
+/**
+ * Records a game of snake to a file as it is played. The {@link Rules} and
+ * seed of the game are written first followed by a change of {@link Direction}
+ * each time the snake turns. Each change is a single variable length integer
+ * holding the number of ticks since the last change and the new
+ * {@link Direction}, so a snake that moves in a straight line costs nothing to
+ * record. The changes are gathered in a direct buffer and written through a
+ * {@link FileChannel} each time it fills.
+ *
+ * @author Joshua_Eddy
+ *
+ * @see Replay
+ *
+ */
+public final class ReplayWriter implements Closeable {
+
+	/**
+	 * The number of bytes gathered before they are written to the file.
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * The {@link FileChannel} the replay is written to.
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * The bytes that have yet to be written to the {@link ReplayWriter#channel}.
+	 */
+	private final ByteBuffer buffer;
+
+	/**
+	 * The {@link Direction} the snake was moving after the last tick recorded.
+	 */
+	private Direction direction;
+
+	/**
+	 * The number of ticks recorded.
+	 */
+	private long ticks;
+
+	/**
+	 * The tick of the last change of {@link Direction}.
+	 */
+	private long lastChange;
+
+	/**
+	 * Whether the {@link ReplayWriter} has been closed.
+	 */
+	private boolean closed;
+
+	/**
+	 * Constructs a new {@link ReplayWriter}, replacing any file at a specified
+	 * {@link Path}.
+	 *
+	 * @param path
+	 *            The {@link Path} of the file. NOT NULL.
+	 * @param rules
+	 *            The {@link Rules} of the game. NOT NULL.
+	 * @param seed
+	 *            The seed the {@link snake.engine.Engine} of the game was
+	 *            constructed with.
+	 * @throws IOException
+	 *             If the file cannot be written.
+	 */
+	public ReplayWriter(Path path, Rules rules, long seed) throws IOException {
+
+		if (path == null || rules == null) {
+			throw new IllegalArgumentException("Path and rules cannot be null.");
+		}
+
+		this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		this.direction = rules.getStartDirection();
+		this.ticks = 0;
+		this.lastChange = 0;
+		this.closed = false;
+
+		Replay.writeHeader(buffer, rules);
+		buffer.putLong(seed);
+	}
+
+	/**
+	 * Records a single tick of the game. Must be called for every tick that the
+	 * {@link snake.engine.Engine} is advanced, including the one on which the
+	 * snake dies.
+	 *
+	 * @param direction
+	 *            The {@link Direction} the snake was moving at the end of the
+	 *            tick. NOT NULL.
+	 * @throws IOException
+	 *             If the replay cannot be written.
+	 */
+	public void record(Direction direction) throws IOException {
+
+		if (closed) {
+			throw new IllegalStateException("The replay has been closed.");
+		}
+
+		if (direction != this.direction) {
+			ensureRemaining();
+			Replay.writeVarLong(buffer, Replay.encodeChange(ticks - lastChange, direction));
+			this.direction = direction;
+			lastChange = ticks;
+		}
+		ticks++;
+	}
+
+	/**
+	 * @return The number of ticks recorded.
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * Marks the end of the changes, writes the number of ticks and closes the
+	 * file. Does nothing if the {@link ReplayWriter} is already closed.
+	 */
+	@Override
+	public void close() throws IOException {
+
+		if (closed) {
+			return;
+		}
+		closed = true;
+
+		try {
+			ensureRemaining();
+			Replay.writeVarLong(buffer, Replay.END);
+			Replay.writeVarLong(buffer, ticks);
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Writes the buffer to the file if it may not have room for another change.
+	 *
+	 * @throws IOException
+	 *             If the replay cannot be written.
+	 */
+	private void ensureRemaining() throws IOException {
+
+		// A variable length long is never more than ten bytes.
+		if (buffer.remaining() < 2 * Replay.MAX_VAR_LONG) {
+			flush();
+		}
+	}
+
+	/**
+	 * Writes everything in the buffer to the file.
+	 *
+	 * @throws IOException
+	 *             If the replay cannot be written.
+	 */
+	private void flush() throws IOException {
+
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+}
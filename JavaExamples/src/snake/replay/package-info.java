@@ -0,0 +1,10 @@
+/**
+ * Contains the recording and playing of replays of games of Snake. As the
+ * {@link snake.engine.Engine} is deterministic a game is recorded as the seed
+ * that placed its food and the ticks on which the snake changed direction,
+ * which is enough to play it back exactly.
+ *
+ * @author Joshua_Eddy
+ *
+ */
+package snake.replay;
@@ -0,0 +1,104 @@
+package snake.selfPlay;
+
+import snake.Direction;
+import snake.engine.Controller;
+import snake.engine.GameView;
+import snake.engine.Rules;
+
+/**
+ * A {@link Controller} that moves the snake towards the food along whichever
+ * axis is furthest from it, avoiding any move that would hit a wall or the
+ * snake on the next tick. It keeps no state between ticks so one
+ * {@link GreedyController} can be shared by every game.
+ *
+ * @author Joshua_Eddy
+ *
+ */
+public final class GreedyController implements Controller {
+
+	@Override
+	public Direction decide(GameView view) {
+
+		Rules rules = view.getRules();
+
+		long head = view.getHead();
+		int columnDistance = rules.getColumn(view.getFood()) - rules.getColumn(head);
+		int rowDistance = rules.getRow(view.getFood()) - rules.getRow(head);
+
+		Direction horizontal = columnDistance < 0 ? Direction.LEFT : Direction.RIGHT;
+		Direction vertical = rowDistance < 0 ? Direction.UP : Direction.DOWN;
+
+		// Prefer the axis that is furthest from the food, then the other axis, then
+		// anything that is safe. The preferences are tried in turn rather than
+		// collected so that deciding allocates nothing.
+		boolean isHorizontal = Math.abs(columnDistance) >= Math.abs(rowDistance);
+		Direction first = isHorizontal ? horizontal : vertical;
+		Direction second = isHorizontal ? vertical : horizontal;
+		Direction backwards = view.getDirection().getOpposite();
+
+		if (isAllowed(view, first, backwards)) {
+			return first;
+		} else if (isAllowed(view, second, backwards)) {
+			return second;
+		} else if (isAllowed(view, second.getOpposite(), backwards)) {
+			return second.getOpposite();
+		} else if (isAllowed(view, first.getOpposite(), backwards)) {
+			return first.getOpposite();
+		}
+
+		// Every move is fatal so carry on in a straight line.
+		return null;
+	}
+
+	/**
+	 * Whether the snake can turn to a specified {@link Direction}: it is not
+	 * back into the snake and it is safe.
+	 *
+	 * @param view
+	 *            {@link GameView} NOT NULL.
+	 * @param direction
+	 *            {@link Direction} NOT NULL.
+	 * @param backwards
+	 *            The {@link Direction} opposite to the one the snake is moving in.
+	 * @return {@code Boolean}
+	 */
+	private static boolean isAllowed(GameView view, Direction direction, Direction backwards) {
+		return direction != backwards && isSafe(view, direction);
+	}
+
+	/**
+	 * Whether moving the head of the snake in a specified {@link Direction} keeps
+	 * it inside the grid and out of the snake.
+	 *
+	 * @param view
+	 *            {@link GameView} NOT NULL.
+	 * @param direction
+	 *            {@link Direction} NOT NULL.
+	 * @return {@code Boolean}
+	 */
+	private static boolean isSafe(GameView view, Direction direction) {
+
+		Rules rules = view.getRules();
+
+		int column = rules.getColumn(view.getHead());
+		int row = rules.getRow(view.getHead());
+
+		switch (direction) {
+		case UP:
+			row--;
+			break;
+		case DOWN:
+			row++;
+			break;
+		case LEFT:
+			column--;
+			break;
+		case RIGHT:
+			column++;
+			break;
+		}
+
+		return rules.isInside(column, row) && !view.isOccupied(rules.getCell(column, row));
+	}
+
+}
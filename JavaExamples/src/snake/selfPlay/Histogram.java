@@ -0,0 +1,158 @@
+package snake.selfPlay;
+
+import java.util.Arrays;
+
+/**
+ * Counts the number of games that ended with each score. Each task of a
+ * {@link SelfPlay} fills its own {@link Histogram} and they are merged as the
+ * tasks are joined so no two threads ever write to the same
+ * {@link Histogram}.
+ *
+ * @author Joshua_Eddy
+ *
+ */
+public final class Histogram {
+
+	/**
+	 * The number of games that ended with each score, indexed by score.
+	 */
+	private long[] counts;
+
+	/**
+	 * The total number of games.
+	 */
+	private long games;
+
+	/**
+	 * The sum of the scores of every game.
+	 */
+	private long total;
+
+	/**
+	 * The highest score of any game. Negative if there are no games.
+	 */
+	private int maxScore;
+
+	/**
+	 * Constructs a new empty {@link Histogram}.
+	 */
+	public Histogram() {
+		this.counts = new long[16];
+		this.games = 0;
+		this.total = 0;
+		this.maxScore = -1;
+	}
+
+	/**
+	 * Adds a game that ended with a specified score.
+	 *
+	 * @param score
+	 *            The score. Zero or greater.
+	 */
+	public void add(int score) {
+
+		if (score < 0) {
+			throw new IllegalArgumentException("Score cannot be negative.");
+		}
+
+		ensureCapacity(score);
+
+		counts[score]++;
+		games++;
+		total += score;
+		maxScore = Math.max(maxScore, score);
+	}
+
+	/**
+	 * Adds every game from a specified {@link Histogram} to this one.
+	 *
+	 * @param other
+	 *            {@link Histogram} NOT NULL.
+	 */
+	public void merge(Histogram other) {
+
+		if (other.maxScore >= 0) {
+			ensureCapacity(other.maxScore);
+		}
+
+		for (int score = 0; score <= other.maxScore; score++) {
+			counts[score] += other.counts[score];
+		}
+
+		games += other.games;
+		total += other.total;
+		maxScore = Math.max(maxScore, other.maxScore);
+	}
+
+	/**
+	 * Retrieves the number of games that ended with a specified score.
+	 *
+	 * @param score
+	 *            The score.
+	 * @return The number of games.
+	 */
+	public long getCount(int score) {
+		return score >= 0 && score < counts.length ? counts[score] : 0;
+	}
+
+	/**
+	 * @return The total number of games.
+	 */
+	public long getGames() {
+		return games;
+	}
+
+	/**
+	 * @return The highest score of any game. Negative if there are no games.
+	 */
+	public int getMaxScore() {
+		return maxScore;
+	}
+
+	/**
+	 * @return The mean score of the games. Zero if there are no games.
+	 */
+	public double getMean() {
+		return games == 0 ? 0 : (double) total / games;
+	}
+
+	/**
+	 * Retrieves the lowest score that at least a specified fraction of the games
+	 * did not beat.
+	 *
+	 * @param fraction
+	 *            From zero to one.
+	 * @return The score. Negative if there are no games.
+	 */
+	public int getPercentile(double fraction) {
+
+		if (fraction < 0 || fraction > 1) {
+			throw new IllegalArgumentException("Fraction must be from zero to one.");
+		}
+
+		long seen = 0;
+
+		// Find the first score by which enough games have been counted.
+		for (int score = 0; score <= maxScore; score++) {
+			seen += counts[score];
+			if (seen >= fraction * games && seen > 0) {
+				return score;
+			}
+		}
+		return maxScore;
+	}
+
+	/**
+	 * Makes sure {@link Histogram#counts} can hold a specified score.
+	 *
+	 * @param score
+	 *            The score.
+	 */
+	private void ensureCapacity(int score) {
+
+		if (score >= counts.length) {
+			counts = Arrays.copyOf(counts, Math.max(score + 1, counts.length * 2));
+		}
+	}
+
+}
@@ -0,0 +1,220 @@
+package snake.selfPlay;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+import snake.Arena;
+import snake.Direction;
+import snake.engine.Controller;
+import snake.engine.Engine;
+import snake.engine.Rules;
+
+/**
+ * Plays a {@link Controller} through a range of seeded games of Snake on every
+ * core of a {@link ForkJoinPool}. The range of seeds is split in half until
+ * each task has few enough games to play on its own. Each task counts its
+ * scores in its own {@link Histogram} and the {@link Histogram}s are merged as
+ * the tasks are joined so the threads never contend over the results.
+ *
+ * @author Joshua_Eddy
+ *
+ */
+public final class SelfPlay {
+
+	/**
+	 * The number of games below which a range of seeds is played by one task
+	 * rather than split.
+	 */
+	private static final long THRESHOLD = 256;
+
+	/**
+	 * The {@link Rules} every game is played by.
+	 */
+	private final Rules rules;
+
+	/**
+	 * Supplies the {@link Controller} of each game.
+	 */
+	private final Supplier<? extends Controller> controllers;
+
+	/**
+	 * The number of ticks after which a game that is still being played is ended.
+	 */
+	private final long maxTicks;
+
+	/**
+	 * Constructs a new {@link SelfPlay}.
+	 *
+	 * @param rules
+	 *            The {@link Rules} every game is played by. NOT NULL.
+	 * @param controllers
+	 *            Supplies a {@link Controller} for each game. As the games are
+	 *            played on many threads at once it must supply a separate
+	 *            {@link Controller} each time unless the {@link Controller} keeps
+	 *            no state. NOT NULL.
+	 * @param maxTicks
+	 *            The number of ticks after which a game that is still being played
+	 *            is ended, so that a {@link Controller} that circles forever
+	 *            cannot stall the harness. Greater than zero.
+	 */
+	public SelfPlay(Rules rules, Supplier<? extends Controller> controllers, long maxTicks) {
+
+		if (rules == null || controllers == null) {
+			throw new IllegalArgumentException("Rules and controllers cannot be null.");
+		}
+
+		if (maxTicks <= 0) {
+			throw new IllegalArgumentException("Maximum ticks must be greater than zero.");
+		}
+
+		this.rules = rules;
+		this.controllers = controllers;
+		this.maxTicks = maxTicks;
+	}
+
+	/**
+	 * Plays a game for each seed in a specified range.
+	 *
+	 * @param firstSeed
+	 *            The seed of the first game. The following games use the
+	 *            following seeds.
+	 * @param games
+	 *            The number of games. Zero or greater.
+	 * @param pool
+	 *            The {@link ForkJoinPool} the games are played on. NOT NULL.
+	 * @return The {@link Histogram} of the scores of the games.
+	 */
+	public Histogram run(long firstSeed, long games, ForkJoinPool pool) {
+
+		if (games < 0) {
+			throw new IllegalArgumentException("Games cannot be negative.");
+		}
+
+		return pool.invoke(new Range(firstSeed, games));
+	}
+
+	/**
+	 * Plays a single game.
+	 *
+	 * @param seed
+	 *            The seed that places the food.
+	 * @return The score of the game.
+	 */
+	public int play(long seed) {
+
+		Engine engine = new Engine(rules, seed);
+		Controller controller = controllers.get();
+
+		while (engine.isAlive() && engine.getTick() < maxTicks) {
+			engine.advance(controller.decide(engine));
+		}
+
+		return engine.getScore();
+	}
+
+	/**
+	 * Plays a {@link GreedyController} through the games of the Swing version
+	 * of Snake and prints a summary of the scores.
+	 *
+	 * @param args
+	 *            The number of games, the first seed and the width and height of
+	 *            a square arena to play in instead, all optional. The snake
+	 *            starts in the middle of the square arena and the food may be
+	 *            placed anywhere in it.
+	 */
+	public static void main(String[] args) {
+
+		long games = args.length > 0 ? Long.parseLong(args[0]) : 1000000;
+		long firstSeed = args.length > 1 ? Long.parseLong(args[1]) : 0;
+
+		Rules rules = Arena.RULES;
+		if (args.length > 2) {
+			int size = Integer.parseInt(args[2]);
+			rules = new Rules(size, size, size, size, size / 2, size / 2, Direction.RIGHT, 0, 0);
+		}
+
+		final Controller greedy = new GreedyController();
+
+		SelfPlay selfPlay = new SelfPlay(rules, new Supplier<Controller>() {
+			@Override
+			public Controller get() {
+				return greedy;
+			}
+		}, 100000);
+
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+
+		long start = System.nanoTime();
+		Histogram histogram = selfPlay.run(firstSeed, games, pool);
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		System.out.println("Games:   " + histogram.getGames() + " on " + pool.getParallelism() + " threads in "
+				+ String.format("%.2f", seconds) + "s");
+		System.out.println("Mean:    " + String.format("%.2f", histogram.getMean()));
+		System.out.println("Median:  " + histogram.getPercentile(0.5));
+		System.out.println("90th:    " + histogram.getPercentile(0.9));
+		System.out.println("Maximum: " + histogram.getMaxScore());
+	}
+
+	/**
+	 * A task that plays the games of a range of seeds.
+	 *
+	 * @author Joshua_Eddy
+	 *
+	 */
+	private final class Range extends RecursiveTask<Histogram> {
+
+		/**
+		 * Serialisation version.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The seed of the first game.
+		 */
+		private final long firstSeed;
+
+		/**
+		 * The number of games.
+		 */
+		private final long games;
+
+		/**
+		 * Constructs a new {@link Range}.
+		 *
+		 * @param firstSeed
+		 *            The seed of the first game.
+		 * @param games
+		 *            The number of games.
+		 */
+		private Range(long firstSeed, long games) {
+			this.firstSeed = firstSeed;
+			this.games = games;
+		}
+
+		@Override
+		protected Histogram compute() {
+
+			if (games <= THRESHOLD) {
+
+				Histogram histogram = new Histogram();
+				for (long seed = firstSeed; seed < firstSeed + games; seed++) {
+					histogram.add(play(seed));
+				}
+				return histogram;
+			}
+
+			// Play the first half on another thread while this thread plays the second.
+			long half = games / 2;
+			Range first = new Range(firstSeed, half);
+			first.fork();
+
+			Histogram histogram = new Range(firstSeed + half, games - half).compute();
+			histogram.merge(first.join());
+			return histogram;
+		}
+
+	}
+
+}
@@ -0,0 +1,9 @@
+/**
+ * Contains a harness that plays huge numbers of seeded games of Snake with a
+ * {@link snake.engine.Controller} in place of a player, spread across every
+ * core, and collects the scores into a {@link snake.selfPlay.Histogram}.
+ *
+ * @author Joshua_Eddy
+ *
+ */
+package snake.selfPlay;
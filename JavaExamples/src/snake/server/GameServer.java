@@ -0,0 +1,566 @@
+package snake.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import snake.Arena;
+import snake.Constants;
+import snake.Direction;
+import snake.engine.Engine;
+import snake.engine.Rules;
+
+/**
+ * Hosts a game of Snake for each client that connects over TCP, all from one
+ * thread. The connections are served through a {@link Selector} without ever
+ * blocking and every game is ticked by one {@link TimerWheel} rather than a
+ * thread of its own, so the server is limited by how quickly it can tick and
+ * write rather than by how many threads it can run.
+ * <p>
+ * Each tick the snake of a session is turned to the last {@link Direction} its
+ * client sent, moved by its {@link Engine} and a {@link Protocol#TICK} of what
+ * changed is written to the client. When the snake collides a new game is
+ * started in the same session. A client that reads its frames too slowly for
+ * them to fit in its buffer is disconnected rather than let the buffer grow.
+ *
+ * @author Joshua_Eddy
+ *
+ * @see Protocol
+ * @see LoadClient
+ *
+ */
+public final class GameServer {
+
+	/**
+	 * The port the server listens on if none is given.
+	 */
+	public static final int DEFAULT_PORT = 7777;
+
+	/**
+	 * The number of nanoseconds of each tick of the {@link TimerWheel}.
+	 */
+	private static final long RESOLUTION = TimeUnit.MILLISECONDS.toNanos(5);
+
+	/**
+	 * The number of slots of the {@link TimerWheel}.
+	 */
+	private static final int SLOTS = 512;
+
+	/**
+	 * The number of nanoseconds between each report of the load on the server.
+	 */
+	private static final long REPORT_INTERVAL = TimeUnit.SECONDS.toNanos(5);
+
+	/**
+	 * The number of connections that may wait to be accepted.
+	 */
+	private static final int BACKLOG = 1024;
+
+	/**
+	 * The number of frames from a client that are read at once.
+	 */
+	private static final int INPUT_FRAMES = 16;
+
+	/**
+	 * The number of frames to a client that can wait to be written before the
+	 * client is disconnected.
+	 */
+	private static final int OUTPUT_FRAMES = 64;
+
+	/**
+	 * The {@link Rules} of every game.
+	 */
+	private final Rules rules;
+
+	/**
+	 * The number of nanoseconds between each tick of a game.
+	 */
+	private final long period;
+
+	/**
+	 * The {@link Selector} of every connection.
+	 */
+	private final Selector selector;
+
+	/**
+	 * The channel that clients connect to.
+	 */
+	private final ServerSocketChannel channel;
+
+	/**
+	 * The {@link TimerWheel} that ticks every game.
+	 */
+	private final TimerWheel wheel;
+
+	/**
+	 * The seed of the next game.
+	 */
+	private long seed;
+
+	/**
+	 * The number of sessions that have been opened.
+	 */
+	private int opened;
+
+	/**
+	 * The number of sessions that are open.
+	 */
+	private int open;
+
+	/**
+	 * The number of ticks run since the last report.
+	 */
+	private long ticks;
+
+	/**
+	 * The number of clients disconnected for reading too slowly since the last
+	 * report.
+	 */
+	private int dropped;
+
+	/**
+	 * Whether the server should keep running.
+	 */
+	private volatile boolean running;
+
+	/**
+	 * Constructs a new {@link GameServer} listening on a specified address.
+	 *
+	 * @param rules
+	 *            The {@link Rules} of every game. NOT NULL.
+	 * @param address
+	 *            The address to listen on. NOT NULL.
+	 * @param period
+	 *            The number of nanoseconds between each tick of a game. Greater
+	 *            than zero.
+	 * @param seed
+	 *            The seed of the first game. Each game after it uses the next
+	 *            seed.
+	 * @throws IOException
+	 *             If the address cannot be listened on.
+	 */
+	public GameServer(Rules rules, InetSocketAddress address, long period, long seed) throws IOException {
+
+		if (rules == null || address == null) {
+			throw new IllegalArgumentException("Rules and address cannot be null.");
+		}
+
+		if (period <= 0) {
+			throw new IllegalArgumentException("Period must be greater than zero.");
+		}
+
+		this.rules = rules;
+		this.period = period;
+		this.seed = seed;
+		this.selector = Selector.open();
+		this.channel = ServerSocketChannel.open();
+		this.wheel = new TimerWheel(RESOLUTION, SLOTS, System.nanoTime());
+		this.running = true;
+
+		try {
+			channel.configureBlocking(false);
+			channel.bind(address, BACKLOG);
+			channel.register(selector, SelectionKey.OP_ACCEPT);
+		} catch (IOException e) {
+			channel.close();
+			selector.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Runs the server on a specified port.
+	 *
+	 * @param args
+	 *            The port to listen on, which is {@link GameServer#DEFAULT_PORT}
+	 *            if there is none, then the number of milliseconds between each
+	 *            tick, which is the same as the 2D game if there is none.
+	 * @throws IOException
+	 *             If the server cannot listen on the port.
+	 */
+	public static void main(String[] args) throws IOException {
+
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+		long interval = args.length > 1 ? Long.parseLong(args[1]) : Constants.TIME_INTERVAL;
+
+		GameServer server = new GameServer(Arena.RULES, new InetSocketAddress(port),
+				TimeUnit.MILLISECONDS.toNanos(interval), System.nanoTime());
+
+		System.out.println("Listening on port " + port + " with a tick every " + interval + "ms");
+		server.run();
+	}
+
+	/**
+	 * Serves clients on the current thread until {@link GameServer#stop()} is
+	 * called, then disconnects every client.
+	 *
+	 * @throws IOException
+	 *             If the {@link Selector} fails.
+	 */
+	public void run() throws IOException {
+
+		wheel.schedule(new Report(), System.nanoTime() + REPORT_INTERVAL);
+
+		try {
+			while (running) {
+
+				// Wait for the connections until the next tick of the wheel is due.
+				long wait = wheel.getDeadline() - System.nanoTime();
+				if (wait > 0) {
+					selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(wait)));
+				} else {
+					selector.selectNow();
+				}
+
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					handle(key);
+				}
+
+				wheel.advance(System.nanoTime());
+			}
+		} finally {
+			for (SelectionKey key : selector.keys()) {
+				key.channel().close();
+			}
+			selector.close();
+		}
+	}
+
+	/**
+	 * Stops the server from another thread.
+	 */
+	public void stop() {
+		running = false;
+		selector.wakeup();
+	}
+
+	/**
+	 * Accepts, reads from or writes to the channel of a specified key that is
+	 * ready.
+	 *
+	 * @param key
+	 *            {@link SelectionKey} NOT NULL.
+	 * @throws IOException
+	 *             If a client cannot be accepted.
+	 */
+	private void handle(SelectionKey key) throws IOException {
+
+		if (!key.isValid()) {
+			return;
+		}
+
+		if (key.isAcceptable()) {
+			accept();
+			return;
+		}
+
+		Session session = (Session) key.attachment();
+
+		// A client that fails only ends its own session.
+		try {
+			if (key.isReadable()) {
+				session.read();
+			}
+			if (key.isValid() && key.isWritable()) {
+				session.flush();
+			}
+		} catch (IOException | IllegalArgumentException e) {
+			session.close();
+		}
+	}
+
+	/**
+	 * Accepts every client waiting to connect and starts a session for each.
+	 *
+	 * @throws IOException
+	 *             If a client cannot be accepted.
+	 */
+	private void accept() throws IOException {
+
+		SocketChannel client;
+		while ((client = channel.accept()) != null) {
+
+			client.configureBlocking(false);
+			client.socket().setTcpNoDelay(true);
+
+			Session session = new Session(client, opened++);
+			session.key = client.register(selector, SelectionKey.OP_READ, session);
+			open++;
+
+			try {
+				session.start(System.nanoTime());
+			} catch (IOException e) {
+				session.close();
+			}
+		}
+	}
+
+	/**
+	 * The game of one client. The {@link Session} is a {@link TimerWheel.Timer}
+	 * that expires each time the game is due to tick.
+	 *
+	 * @author Joshua_Eddy
+	 *
+	 */
+	private final class Session extends TimerWheel.Timer {
+
+		/**
+		 * The channel of the client.
+		 */
+		private final SocketChannel client;
+
+		/**
+		 * The number of the session.
+		 */
+		private final int id;
+
+		/**
+		 * The bytes read from the client that do not yet make up a whole frame.
+		 */
+		private final ByteBuffer input;
+
+		/**
+		 * The frames waiting to be written to the client.
+		 */
+		private final ByteBuffer output;
+
+		/**
+		 * The key of the {@link Session#client} in the {@link GameServer#selector}.
+		 */
+		private SelectionKey key;
+
+		/**
+		 * The {@link Engine} of the current game.
+		 */
+		private Engine engine;
+
+		/**
+		 * The {@link Direction} the client last asked to turn to since the last
+		 * tick, or null if it has not asked.
+		 */
+		private Direction turn;
+
+		/**
+		 * The time in nanoseconds the next tick is due.
+		 */
+		private long deadline;
+
+		/**
+		 * Whether the {@link Session} has been closed.
+		 */
+		private boolean closed;
+
+		/**
+		 * Constructs a new {@link Session}.
+		 *
+		 * @param client
+		 *            The channel of the client. NOT NULL.
+		 * @param id
+		 *            The number of the session.
+		 */
+		private Session(SocketChannel client, int id) {
+			this.client = client;
+			this.id = id;
+			this.input = ByteBuffer.allocate(Protocol.INPUT_SIZE * INPUT_FRAMES);
+			this.output = ByteBuffer.allocateDirect(Protocol.OUTPUT_SIZE * OUTPUT_FRAMES);
+			this.closed = false;
+		}
+
+		/**
+		 * Starts the first game of the {@link Session}.
+		 *
+		 * @param now
+		 *            The current time in nanoseconds.
+		 * @throws IOException
+		 *             If the client cannot be written to.
+		 */
+		private void start(long now) throws IOException {
+
+			newGame();
+			flush();
+
+			deadline = now + period;
+			wheel.schedule(this, deadline);
+		}
+
+		@Override
+		void expire(long now) {
+
+			try {
+				tick();
+				flush();
+			} catch (IOException e) {
+				close();
+				return;
+			}
+
+			// Schedule from the deadline so the tick rate does not drift, unless the
+			// server has fallen so far behind that the tick is already late.
+			deadline += period;
+			if (now - deadline >= 0) {
+				deadline = now + period;
+			}
+
+			if (!closed) {
+				wheel.schedule(this, deadline);
+			}
+		}
+
+		/**
+		 * Moves the game on by one tick and queues a {@link Protocol#TICK} of it,
+		 * starting a new game if the snake collided.
+		 *
+		 * @throws IOException
+		 *             If the client has stopped reading.
+		 */
+		private void tick() throws IOException {
+
+			engine.advance(turn);
+			turn = null;
+			ticks++;
+
+			reserve();
+			Protocol.writeTick(output, engine);
+
+			if (!engine.isAlive()) {
+				newGame();
+			}
+		}
+
+		/**
+		 * Starts a new game and queues a {@link Protocol#WELCOME} of it.
+		 *
+		 * @throws IOException
+		 *             If the client has stopped reading.
+		 */
+		private void newGame() throws IOException {
+
+			long gameSeed = seed++;
+			engine = new Engine(rules, gameSeed);
+			turn = null;
+
+			reserve();
+			Protocol.writeWelcome(output, id, gameSeed, rules);
+		}
+
+		/**
+		 * Checks that there is room to queue another frame to the client.
+		 *
+		 * @throws IOException
+		 *             If the frames queued to the client fill its buffer.
+		 */
+		private void reserve() throws IOException {
+			if (output.remaining() < Protocol.OUTPUT_SIZE) {
+				dropped++;
+				throw new IOException("Session " + id + " is not reading its frames.");
+			}
+		}
+
+		/**
+		 * Reads every whole frame that has arrived from the client.
+		 *
+		 * @throws IOException
+		 *             If the client has disconnected.
+		 */
+		private void read() throws IOException {
+
+			int read;
+			while ((read = client.read(input)) > 0) {
+
+				input.flip();
+
+				while (input.remaining() >= Protocol.INPUT_SIZE) {
+
+					byte type = input.get();
+					byte direction = input.get();
+					input.getShort();
+
+					if (type != Protocol.TURN) {
+						throw new IOException("Session " + id + " sent an unknown frame: " + type);
+					}
+					turn = Protocol.getDirection(direction);
+				}
+
+				input.compact();
+			}
+
+			if (read < 0) {
+				throw new IOException("Session " + id + " disconnected.");
+			}
+		}
+
+		/**
+		 * Writes as many of the queued frames to the client as it will take
+		 * without blocking, waiting for the client to be writable again if any are
+		 * left.
+		 *
+		 * @throws IOException
+		 *             If the client has disconnected.
+		 */
+		private void flush() throws IOException {
+
+			output.flip();
+			client.write(output);
+			output.compact();
+
+			int operations = output.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE
+					: SelectionKey.OP_READ;
+			if (key.interestOps() != operations) {
+				key.interestOps(operations);
+			}
+		}
+
+		/**
+		 * Ends the {@link Session} and disconnects the client.
+		 */
+		private void close() {
+
+			if (closed) {
+				return;
+			}
+
+			closed = true;
+			open--;
+			wheel.cancel(this);
+			key.cancel();
+
+			try {
+				client.close();
+			} catch (IOException e) {
+				// The session is over either way.
+			}
+		}
+
+	}
+
+	/**
+	 * Prints the load on the server every {@link GameServer#REPORT_INTERVAL}.
+	 *
+	 * @author Joshua_Eddy
+	 *
+	 */
+	private final class Report extends TimerWheel.Timer {
+
+		@Override
+		void expire(long now) {
+
+			double seconds = (double) REPORT_INTERVAL / TimeUnit.SECONDS.toNanos(1);
+			System.out.printf("%d sessions, %.0f ticks/s, %d dropped%n", open, ticks / seconds, dropped);
+
+			ticks = 0;
+			dropped = 0;
+			wheel.schedule(this, now + REPORT_INTERVAL);
+		}
+
+	}
+
+}
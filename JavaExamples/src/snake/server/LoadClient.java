@@ -0,0 +1,375 @@
+package snake.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import snake.Arena;
+import snake.Direction;
+import snake.engine.Controller;
+import snake.engine.Engine;
+import snake.selfPlay.GreedyController;
+
+/**
+ * Loads a {@link GameServer} with many clients from one thread. Each client
+ * steers its snake with a {@link GreedyController} and runs its own
+ * {@link Engine} from the seed of each game, checking every
+ * {@link Protocol#TICK} the server sends against it. Once a second the number
+ * of ticks received, the games started, the ticks that did not match and the
+ * longest gap between two ticks of one client are printed.
+ *
+ * @author Joshua_Eddy
+ *
+ * @see GameServer
+ *
+ */
+public final class LoadClient {
+
+	/**
+	 * The number of frames from the server that are read at once.
+	 */
+	private static final int INPUT_FRAMES = 64;
+
+	/**
+	 * The number of frames to the server that can wait to be written.
+	 */
+	private static final int OUTPUT_FRAMES = 16;
+
+	/**
+	 * The number of nanoseconds between each report.
+	 */
+	private static final long REPORT_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+	/**
+	 * The {@link Selector} of every client.
+	 */
+	private final Selector selector;
+
+	/**
+	 * The number of ticks received since the last report.
+	 */
+	private long ticks;
+
+	/**
+	 * The number of games started since the last report.
+	 */
+	private int games;
+
+	/**
+	 * The number of ticks that did not match the {@link Engine} of their client.
+	 */
+	private long mismatches;
+
+	/**
+	 * The longest number of nanoseconds between two ticks of one client since the
+	 * last report.
+	 */
+	private long longestGap;
+
+	/**
+	 * The number of clients that are connected.
+	 */
+	private int connected;
+
+	/**
+	 * Constructs a new {@link LoadClient} that connects a specified number of
+	 * clients to a specified address.
+	 *
+	 * @param address
+	 *            The address of the {@link GameServer}. NOT NULL.
+	 * @param clients
+	 *            The number of clients. Greater than zero.
+	 * @throws IOException
+	 *             If a client cannot start connecting.
+	 */
+	public LoadClient(InetSocketAddress address, int clients) throws IOException {
+
+		if (address == null) {
+			throw new IllegalArgumentException("Address cannot be null.");
+		}
+
+		if (clients <= 0) {
+			throw new IllegalArgumentException("There must be at least one client.");
+		}
+
+		this.selector = Selector.open();
+
+		for (int client = 0; client < clients; client++) {
+			SocketChannel channel = SocketChannel.open();
+			channel.configureBlocking(false);
+			channel.socket().setTcpNoDelay(true);
+			channel.connect(address);
+			channel.register(selector, SelectionKey.OP_CONNECT, new Client(channel));
+		}
+	}
+
+	/**
+	 * Loads a {@link GameServer}.
+	 *
+	 * @param args
+	 *            The number of clients, then the number of seconds to run for,
+	 *            then the host and port of the server, which are the local host
+	 *            and {@link GameServer#DEFAULT_PORT} if they are not given.
+	 * @throws IOException
+	 *             If the clients cannot connect.
+	 */
+	public static void main(String[] args) throws IOException {
+
+		int clients = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+		long seconds = args.length > 1 ? Long.parseLong(args[1]) : 30;
+		String host = args.length > 2 ? args[2] : "localhost";
+		int port = args.length > 3 ? Integer.parseInt(args[3]) : GameServer.DEFAULT_PORT;
+
+		LoadClient load = new LoadClient(new InetSocketAddress(host, port), clients);
+		long mismatches = load.run(TimeUnit.SECONDS.toNanos(seconds));
+
+		System.out.println(mismatches == 0 ? "Every tick matched." : mismatches + " ticks did not match.");
+	}
+
+	/**
+	 * Runs the clients for a specified time then disconnects them.
+	 *
+	 * @param duration
+	 *            The number of nanoseconds to run for.
+	 * @return The number of ticks that did not match the {@link Engine} of their
+	 *         client.
+	 * @throws IOException
+	 *             If the {@link Selector} fails.
+	 */
+	public long run(long duration) throws IOException {
+
+		long start = System.nanoTime();
+		long report = start + REPORT_INTERVAL;
+
+		try {
+			for (long now = start; now - (start + duration) < 0; now = System.nanoTime()) {
+
+				selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(report - now)));
+
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					handle(key);
+				}
+
+				if (System.nanoTime() - report >= 0) {
+					System.out.printf("%d connected, %d ticks/s, %d games, %d mismatches, longest gap %.1fms%n",
+							connected, ticks, games, mismatches, longestGap / 1e6);
+
+					ticks = 0;
+					games = 0;
+					longestGap = 0;
+					report += REPORT_INTERVAL;
+				}
+			}
+		} finally {
+			for (SelectionKey key : selector.keys()) {
+				key.channel().close();
+			}
+			selector.close();
+		}
+
+		return mismatches;
+	}
+
+	/**
+	 * Connects, reads from or writes to the client of a specified key that is
+	 * ready.
+	 *
+	 * @param key
+	 *            {@link SelectionKey} NOT NULL.
+	 */
+	private void handle(SelectionKey key) {
+
+		Client client = (Client) key.attachment();
+
+		try {
+			if (key.isConnectable()) {
+				client.channel.finishConnect();
+				key.interestOps(SelectionKey.OP_READ);
+				connected++;
+			} else {
+				if (key.isReadable()) {
+					client.read(key);
+				}
+				if (key.isValid() && key.isWritable()) {
+					client.flush(key);
+				}
+			}
+		} catch (IOException e) {
+			System.err.println("A client disconnected: " + e.getMessage());
+			key.cancel();
+			connected--;
+			try {
+				client.channel.close();
+			} catch (IOException ignored) {
+				// The client is gone either way.
+			}
+		}
+	}
+
+	/**
+	 * One client of the server.
+	 *
+	 * @author Joshua_Eddy
+	 *
+	 */
+	private final class Client {
+
+		/**
+		 * The channel to the server.
+		 */
+		private final SocketChannel channel;
+
+		/**
+		 * The bytes read from the server that do not yet make up a whole frame.
+		 */
+		private final ByteBuffer input;
+
+		/**
+		 * The frames waiting to be written to the server.
+		 */
+		private final ByteBuffer output;
+
+		/**
+		 * The {@link Controller} that steers the snake.
+		 */
+		private final Controller controller;
+
+		/**
+		 * The {@link Engine} that the ticks of the current game are checked
+		 * against. Null until the first game starts.
+		 */
+		private Engine engine;
+
+		/**
+		 * The time in nanoseconds the last tick was received, or zero.
+		 */
+		private long lastTick;
+
+		/**
+		 * Constructs a new {@link Client}.
+		 *
+		 * @param channel
+		 *            The channel to the server. NOT NULL.
+		 */
+		private Client(SocketChannel channel) {
+			this.channel = channel;
+			this.input = ByteBuffer.allocate(Protocol.OUTPUT_SIZE * INPUT_FRAMES);
+			this.output = ByteBuffer.allocate(Protocol.INPUT_SIZE * OUTPUT_FRAMES);
+			this.controller = new GreedyController();
+		}
+
+		/**
+		 * Reads and handles every whole frame that has arrived from the server.
+		 *
+		 * @param key
+		 *            The key of the {@link Client#channel}. NOT NULL.
+		 * @throws IOException
+		 *             If the server has disconnected or sent an invalid frame.
+		 */
+		private void read(SelectionKey key) throws IOException {
+
+			int read;
+			while ((read = channel.read(input)) > 0) {
+
+				input.flip();
+				while (input.remaining() >= Protocol.OUTPUT_SIZE) {
+					receive();
+				}
+				input.compact();
+			}
+
+			if (read < 0) {
+				throw new IOException("The server disconnected.");
+			}
+
+			flush(key);
+		}
+
+		/**
+		 * Handles the next frame from the server.
+		 *
+		 * @throws IOException
+		 *             If the frame is invalid.
+		 */
+		private void receive() throws IOException {
+
+			int frame = input.position();
+			byte type = input.get(frame);
+
+			if (type == Protocol.WELCOME) {
+
+				// Check the game is played by the same rules before following it.
+				if (input.getInt(frame + 16) != Arena.RULES.hashCode()) {
+					throw new IOException("The server is not using the rules of the 2D game.");
+				}
+
+				engine = new Engine(Arena.RULES, input.getLong(frame + 8));
+				lastTick = 0;
+				games++;
+
+			} else if (type == Protocol.TICK && engine != null) {
+
+				Direction direction = Protocol.getDirection(input.get(frame + 1));
+				engine.advance(direction);
+
+				boolean alive = (input.get(frame + 2) & Protocol.ALIVE) != 0;
+				if (alive != engine.isAlive() || input.getInt(frame + 4) != engine.getScore()
+						|| input.getLong(frame + 8) != engine.getTick() || input.getLong(frame + 16) != engine.getHead()
+						|| input.getLong(frame + 24) != engine.getFood()) {
+					mismatches++;
+				}
+
+				long now = System.nanoTime();
+				if (lastTick != 0) {
+					longestGap = Math.max(longestGap, now - lastTick);
+				}
+				lastTick = now;
+				ticks++;
+
+				// Ask to turn if the controller wants to leave the current direction.
+				Direction turn = alive ? controller.decide(engine) : null;
+				if (turn != null && turn != engine.getDirection() && output.remaining() >= Protocol.INPUT_SIZE) {
+					Protocol.writeTurn(output, turn);
+				}
+
+			} else {
+				throw new IOException("The server sent an unknown frame: " + type);
+			}
+
+			input.position(frame + Protocol.OUTPUT_SIZE);
+		}
+
+		/**
+		 * Writes as many of the queued frames to the server as it will take
+		 * without blocking, waiting for the server to be writable again if any are
+		 * left.
+		 *
+		 * @param key
+		 *            The key of the {@link Client#channel}. NOT NULL.
+		 * @throws IOException
+		 *             If the server has disconnected.
+		 */
+		private void flush(SelectionKey key) throws IOException {
+
+			output.flip();
+			channel.write(output);
+			output.compact();
+
+			int operations = output.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE
+					: SelectionKey.OP_READ;
+			if (key.interestOps() != operations) {
+				key.interestOps(operations);
+			}
+		}
+
+	}
+
+}
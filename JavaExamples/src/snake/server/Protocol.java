@@ -0,0 +1,157 @@
+package snake.server;
+
+import java.nio.ByteBuffer;
+
+import snake.Direction;
+import snake.engine.Engine;
+import snake.engine.Rules;
+
+/**
+ * The frames sent between the {@link GameServer} and its clients. Every frame
+ * from a client is {@link Protocol#INPUT_SIZE} bytes and every frame from the
+ * server is {@link Protocol#OUTPUT_SIZE} bytes, so a frame is read once enough
+ * bytes have arrived without any length prefix.
+ * <p>
+ * A client only ever sends a {@link Protocol#TURN} holding the
+ * {@link Direction} it wants its snake to turn to on the next tick. The server
+ * sends a {@link Protocol#WELCOME} at the start of each game holding the seed
+ * of the game and a {@link Protocol#TICK} after each tick holding what changed:
+ * the {@link Direction} the snake moved, the cell its head moved into, the cell
+ * of the food and the score. The rest of the snake follows from the cells its
+ * head has been in. As the {@link Engine} is deterministic a client that runs
+ * its own {@link Engine} from the seed can check each {@link Protocol#TICK}
+ * against it.
+ * <p>
+ * Every value is big endian.
+ *
+ * @author Joshua_Eddy
+ *
+ */
+final class Protocol {
+
+	/**
+	 * The number of bytes of a frame sent by a client.
+	 */
+	static final int INPUT_SIZE = 4;
+
+	/**
+	 * The number of bytes of a frame sent by the server.
+	 */
+	static final int OUTPUT_SIZE = 32;
+
+	/**
+	 * The type of a frame sent by a client to turn its snake. Laid out as the
+	 * type, the ordinal of the {@link Direction} and two reserved bytes.
+	 */
+	static final byte TURN = 1;
+
+	/**
+	 * The type of a frame sent by the server at the start of a game. Laid out as
+	 * the type, three reserved bytes, the int session, the long seed, the int
+	 * hash of the {@link Rules}, the int columns, the int rows and a reserved
+	 * int.
+	 */
+	static final byte WELCOME = 2;
+
+	/**
+	 * The type of a frame sent by the server after each tick. Laid out as the
+	 * type, the ordinal of the {@link Direction} the snake moved, the
+	 * {@link Protocol#ALIVE} flag, a reserved byte, the int score, the long tick,
+	 * the long cell of the head and the long cell of the food.
+	 */
+	static final byte TICK = 3;
+
+	/**
+	 * The flag of a {@link Protocol#TICK} set while the snake is alive.
+	 */
+	static final byte ALIVE = 1;
+
+	/**
+	 * Every {@link Direction} in the order of their ordinals.
+	 */
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	/**
+	 * Prevents a {@link Protocol} from being constructed.
+	 */
+	private Protocol() {
+	}
+
+	/**
+	 * Writes a {@link Protocol#TURN} frame to a specified buffer.
+	 *
+	 * @param buffer
+	 *            The buffer with at least {@link Protocol#INPUT_SIZE} bytes
+	 *            remaining. NOT NULL.
+	 * @param direction
+	 *            The {@link Direction} to turn to. NOT NULL.
+	 */
+	static void writeTurn(ByteBuffer buffer, Direction direction) {
+		buffer.put(TURN);
+		buffer.put((byte) direction.ordinal());
+		buffer.putShort((short) 0);
+	}
+
+	/**
+	 * Writes a {@link Protocol#WELCOME} frame to a specified buffer.
+	 *
+	 * @param buffer
+	 *            The buffer with at least {@link Protocol#OUTPUT_SIZE} bytes
+	 *            remaining. NOT NULL.
+	 * @param session
+	 *            The session of the client.
+	 * @param seed
+	 *            The seed of the game.
+	 * @param rules
+	 *            The {@link Rules} of the game. NOT NULL.
+	 */
+	static void writeWelcome(ByteBuffer buffer, int session, long seed, Rules rules) {
+		buffer.put(WELCOME);
+		buffer.put((byte) 0);
+		buffer.putShort((short) 0);
+		buffer.putInt(session);
+		buffer.putLong(seed);
+		buffer.putInt(rules.hashCode());
+		buffer.putInt(rules.getColumns());
+		buffer.putInt(rules.getRows());
+		buffer.putInt(0);
+	}
+
+	/**
+	 * Writes a {@link Protocol#TICK} frame of the current state of a specified
+	 * {@link Engine} to a specified buffer.
+	 *
+	 * @param buffer
+	 *            The buffer with at least {@link Protocol#OUTPUT_SIZE} bytes
+	 *            remaining. NOT NULL.
+	 * @param engine
+	 *            The {@link Engine} after the tick. NOT NULL.
+	 */
+	static void writeTick(ByteBuffer buffer, Engine engine) {
+		buffer.put(TICK);
+		buffer.put((byte) engine.getDirection().ordinal());
+		buffer.put(engine.isAlive() ? ALIVE : 0);
+		buffer.put((byte) 0);
+		buffer.putInt(engine.getScore());
+		buffer.putLong(engine.getTick());
+		buffer.putLong(engine.getHead());
+		buffer.putLong(engine.getFood());
+	}
+
+	/**
+	 * Retrieves the {@link Direction} with a specified ordinal read from a frame.
+	 *
+	 * @param ordinal
+	 *            The ordinal.
+	 * @return {@link Direction}
+	 */
+	static Direction getDirection(byte ordinal) {
+
+		if (ordinal < 0 || ordinal >= DIRECTIONS.length) {
+			throw new IllegalArgumentException("Invalid direction: " + ordinal);
+		}
+
+		return DIRECTIONS[ordinal];
+	}
+
+}
@@ -0,0 +1,234 @@
+package snake.server;
+
+/**
+ * A hashed timer wheel that runs many {@link Timer}s from the one thread that
+ * calls {@link TimerWheel#advance(long)}. Time is cut into ticks of a fixed
+ * resolution and each {@link Timer} is linked into the slot of the tick it is
+ * due on, so scheduling, cancelling and expiring a {@link Timer} all take
+ * constant time however many are scheduled. A {@link Timer} due more than one
+ * turn of the wheel away waits in its slot until the wheel comes round to its
+ * tick.
+ * <p>
+ * A {@link Timer} expires at the first tick on or after its deadline, so it
+ * runs at most one resolution late. The {@link Timer}s are linked through
+ * their own fields so scheduling one allocates nothing. A {@link TimerWheel} is
+ * not thread safe.
+ *
+ * @author Joshua_Eddy
+ *
+ * @see GameServer
+ *
+ */
+final class TimerWheel {
+
+	/**
+	 * A task that can be scheduled on a {@link TimerWheel}. A {@link Timer} is
+	 * scheduled on at most one {@link TimerWheel} at a time.
+	 *
+	 * @author Joshua_Eddy
+	 *
+	 */
+	abstract static class Timer {
+
+		/**
+		 * The next {@link Timer} in the same slot, or null.
+		 */
+		private Timer next;
+
+		/**
+		 * The previous {@link Timer} in the same slot, or null if this is the first.
+		 */
+		private Timer previous;
+
+		/**
+		 * The tick of the wheel the {@link Timer} is due on.
+		 */
+		private long due;
+
+		/**
+		 * Whether the {@link Timer} is in a slot of a wheel.
+		 */
+		private boolean scheduled;
+
+		/**
+		 * Runs the task of the {@link Timer} once it is due. The {@link Timer} may
+		 * schedule itself again, but must not cancel any other {@link Timer}.
+		 *
+		 * @param now
+		 *            The time in nanoseconds the wheel was advanced to.
+		 */
+		abstract void expire(long now);
+
+		/**
+		 * @return Whether the {@link Timer} is waiting to expire.
+		 */
+		boolean isScheduled() {
+			return scheduled;
+		}
+
+	}
+
+	/**
+	 * The number of nanoseconds of each tick of the wheel.
+	 */
+	private final long resolution;
+
+	/**
+	 * The first {@link Timer} of each slot, or null if the slot is empty.
+	 */
+	private final Timer[] slots;
+
+	/**
+	 * The time in nanoseconds of tick zero.
+	 */
+	private final long start;
+
+	/**
+	 * The next tick of the wheel to expire.
+	 */
+	private long tick;
+
+	/**
+	 * The number of {@link Timer}s scheduled.
+	 */
+	private int size;
+
+	/**
+	 * Constructs a new empty {@link TimerWheel}.
+	 *
+	 * @param resolution
+	 *            The number of nanoseconds of each tick. Greater than zero.
+	 * @param slots
+	 *            The number of slots. A power of two.
+	 * @param start
+	 *            The time in nanoseconds of the first tick.
+	 */
+	TimerWheel(long resolution, int slots, long start) {
+
+		if (resolution <= 0) {
+			throw new IllegalArgumentException("Resolution must be greater than zero.");
+		}
+
+		if (slots <= 0 || Integer.bitCount(slots) != 1) {
+			throw new IllegalArgumentException("The number of slots must be a power of two.");
+		}
+
+		this.resolution = resolution;
+		this.slots = new Timer[slots];
+		this.start = start;
+		this.tick = 0;
+		this.size = 0;
+	}
+
+	/**
+	 * Schedules a specified {@link Timer} to expire at a specified time. A
+	 * {@link Timer} that is already scheduled is moved. A deadline that has
+	 * passed expires on the next tick.
+	 *
+	 * @param timer
+	 *            {@link Timer} NOT NULL.
+	 * @param deadline
+	 *            The time in nanoseconds the {@link Timer} is due.
+	 */
+	void schedule(Timer timer, long deadline) {
+
+		if (timer.scheduled) {
+			cancel(timer);
+		}
+
+		// Round up so the timer never expires before its deadline.
+		long due = Math.max(-Math.floorDiv(start - deadline, resolution), tick);
+
+		int slot = (int) due & (slots.length - 1);
+
+		timer.due = due;
+		timer.previous = null;
+		timer.next = slots[slot];
+		if (slots[slot] != null) {
+			slots[slot].previous = timer;
+		}
+		slots[slot] = timer;
+		timer.scheduled = true;
+		size++;
+	}
+
+	/**
+	 * Stops a specified {@link Timer} from expiring. Does nothing if it is not
+	 * scheduled.
+	 *
+	 * @param timer
+	 *            {@link Timer} NOT NULL.
+	 */
+	void cancel(Timer timer) {
+
+		if (!timer.scheduled) {
+			return;
+		}
+
+		if (timer.previous != null) {
+			timer.previous.next = timer.next;
+		} else {
+			slots[(int) timer.due & (slots.length - 1)] = timer.next;
+		}
+		if (timer.next != null) {
+			timer.next.previous = timer.previous;
+		}
+
+		timer.next = null;
+		timer.previous = null;
+		timer.scheduled = false;
+		size--;
+	}
+
+	/**
+	 * Expires every {@link Timer} that is due by a specified time.
+	 *
+	 * @param now
+	 *            The current time in nanoseconds. Must only ever increase.
+	 * @return The number of {@link Timer}s that expired.
+	 */
+	int advance(long now) {
+
+		int expired = 0;
+
+		while (now - getDeadline() >= 0) {
+
+			// Move on to the next tick first so that a timer that schedules itself
+			// again is due on a later tick rather than this one.
+			long current = tick++;
+			int slot = (int) current & (slots.length - 1);
+
+			Timer timer = slots[slot];
+			while (timer != null) {
+
+				Timer next = timer.next;
+
+				// Timers due on a later turn of the wheel stay in the slot.
+				if (timer.due <= current) {
+					cancel(timer);
+					timer.expire(now);
+					expired++;
+				}
+				timer = next;
+			}
+		}
+
+		return expired;
+	}
+
+	/**
+	 * @return The time in nanoseconds at which the next tick of the wheel is
+	 *         due.
+	 */
+	long getDeadline() {
+		return start + (tick * resolution);
+	}
+
+	/**
+	 * @return The number of {@link Timer}s scheduled.
+	 */
+	int size() {
+		return size;
+	}
+
+}
@@ -0,0 +1,11 @@
+/**
+ * Contains a server that hosts many games of Snake at once over TCP and a
+ * client that loads it with bots. Every connection is served by one thread
+ * through a {@link java.nio.channels.Selector} and every game is ticked by one
+ * {@link snake.server.TimerWheel}, so the server needs no thread per game.
+ * The games are run by the headless {@link snake.engine.Engine}.
+ *
+ * @author Joshua_Eddy
+ *
+ */
+package snake.server;
@@ -1,14 +1,14 @@
 package snake3D.environment;
 
-import java.util.Random;
-
+import snake.engine.Rules;
 import snake3D.graphics.Colour;
 
 import java.awt.Rectangle;
 
 /**
- * Encapsulates the behaviour of the arena the {@link Snake} is looking for
- * "food" in.
+ * Encapsulates the arena the snake is looking for "food" in. The {@link Rules}
+ * of the arena are run by an {@link snake.engine.Engine} and the {@link Arena}
+ * adds its walls to the {@link Plane}.
  * 
  * @author Joshua_Eddy
  * 
@@ -17,6 +17,14 @@ import java.awt.Rectangle;
  */
 public class Arena {
 
+	/**
+	 * The {@link Rules} of the arena. The grid is the space between the walls and
+	 * the snake starts in the top half of the arena.
+	 */
+	public static final Rules RULES = new Rules((Dimension.ARENA.i / Dimension.GRID.i) - 1,
+			(Dimension.ARENA.i / Dimension.GRID.i) - 1, (Dimension.ARENA.i / Dimension.GRID.i) - 2,
+			(Dimension.ARENA.i / Dimension.GRID.i) - 2, 9, 4, snake.Direction.RIGHT, 9, 9);
+
 	/**
 	 * The top wall of the arena.
 	 */
@@ -37,11 +45,6 @@ public class Arena {
 	 */
 	private Rectangle bottomWall;
 
-	/**
-	 * The food the {@link Snake} "eats" to grow longer an gain points.
-	 */
-	private Rectangle food;
-
 	/**
 	 * Constructs a new Arena for the {@link Game}.
 	 */
@@ -62,33 +65,6 @@ public class Arena {
 		// Right wall
 		rightWall = new Rectangle();
 		rightWall.setBounds(0, 0, Dimension.GRID.i, Dimension.ARENA.i);
-
-		int center = Dimension.GRID.i * 10;
-
-		// Food
-		food = new Rectangle();
-		food.setBounds(center, center, Dimension.GRID.i, Dimension.GRID.i);
-	}
-
-	/**
-	 * Whether the specified coordinates are the same as the food in the arena.
-	 * 
-	 * @param x
-	 *            Integer x position of the snake head.
-	 * @param y
-	 *            Integer y position of the snake head.
-	 * @return {@code Boolean}
-	 */
-	public boolean eatedFood(int x, int y) {
-
-		// If the food's coordinates are the same as the parameter coordinates
-		// then the food has been eaten.
-		if (food.x == x && food.y == y) {
-
-			generateFood();
-			return true;
-		}
-		return false;
 	}
 
 	/**
@@ -99,75 +75,31 @@ public class Arena {
 	 */
 	public void addToPlane(Plane plane) {
 
-		// Adds the members of the arena to the plane.
-		plane.addObject(bottomWall, Colour.BLUE);
-		plane.addObject(leftWall, Colour.BLUE);
-		plane.addObject(rightWall, Colour.BLUE);
-		plane.addObject(topWall, Colour.BLUE);
-		plane.addObject(food, Colour.GREEN);
+		// Adds the static members of the arena to the plane. The snake and food are
+		// drawn from each snapshot of the game as it moves.
+		plane.addStaticObject(bottomWall, Colour.BLUE);
+		plane.addStaticObject(leftWall, Colour.BLUE);
+		plane.addStaticObject(rightWall, Colour.BLUE);
+		plane.addStaticObject(topWall, Colour.BLUE);
 
 		// Create a rectangle to represent (max,max) in the game so the user has a point of
 		// reference. Then add it to the plane.
 		Rectangle referencePoint = new Rectangle();
 		referencePoint.setBounds(Dimension.ARENA.i, Dimension.ARENA.i, Dimension.GRID.i, Dimension.GRID.i);
-		plane.addObject(referencePoint, Colour.YELLOW);
-
-	}
-
-	/**
-	 * Whether the specified coordinates have collided with the walls of the
-	 * {@link Arena}.
-	 * 
-	 * @param x
-	 *            Integer x position of the snake head.
-	 * @param y
-	 *            Integer y position of the snake head.
-	 * @param direction
-	 *            {@link Direction}
-	 * @return {@code Boolean}
-	 */
-	public boolean hasCollided(int x, int y, Direction direction) {
-
-		switch (direction) {
-		case RIGHT:
-			return x + Dimension.GRID.i >= Dimension.ARENA.i;
-		case LEFT:
-			return x - Dimension.GRID.i <= 0;
-		case UP:
-			return y - Dimension.GRID.i <= 0;
-		case DOWN:
-			return y + Dimension.GRID.i >= Dimension.ARENA.i;
-		default:
-			return false;
-		}
+		plane.addStaticObject(referencePoint, Colour.YELLOW);
 
 	}
 
 	/**
-	 * Moves the food to another random position.
+	 * Retrieves the x or y coordinate of a specified column or row of the
+	 * {@link Arena#RULES} grid.
 	 * 
-	 * @see #food
+	 * @param cell
+	 *            The column or row.
+	 * @return Integer coordinate.
 	 */
-	private void generateFood() {
-
-		int y;
-		int x;
-
-		// The number of space intervals in the arena.
-		int bound = (Dimension.ARENA.i / Dimension.GRID.i) - 2;
-		Random generate = new Random();
-
-		// A random value in the grid.
-		int random;
-
-		random = generate.nextInt(bound);
-		x = (random * Dimension.GRID.i) + Dimension.GRID.i;
-
-		random = generate.nextInt(bound);
-		y = (random * Dimension.GRID.i) + Dimension.GRID.i;
-
-		food.setLocation(x, y);
-
+	public static int getCoordinate(int cell) {
+		return (cell + 1) * Dimension.GRID.i;
 	}
 
 }
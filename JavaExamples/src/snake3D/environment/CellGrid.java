@@ -0,0 +1,311 @@
+package snake3D.environment;
+
+import java.util.Arrays;
+
+/**
+ * The cells of the {@link Plane} that are filled by the snakes, used to find
+ * which faces of a run of a snake touch another part and so can never be seen.
+ * Coordinates are those of the {@link Plane}, where each cell is
+ * {@link Dimension#GRID} wide.
+ * <p>
+ * Only the filled cells are held, in an open addressed hash table keyed by the
+ * column and row of the cell, so the memory used depends on the number of
+ * cells filled rather than the size of the {@link Arena}. Each slot is stamped
+ * with the generation it was filled in, so emptying the grid is a single
+ * increment rather than a pass over every slot.
+ * <p>
+ * A cell counts how many times it has been filled, as more than one part of
+ * a snake can be in the same cell, so that the grid can follow a moving snake
+ * by filling the cell its head enters and emptying the cell its tail leaves.
+ *
+ * @author Joshua_Eddy
+ *
+ * @see Plane
+ *
+ */
+final class CellGrid {
+
+	/**
+	 * The number of slots of the hash table before it must grow. A power of two.
+	 */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/**
+	 * The column and row of the cell in each slot of the hash table.
+	 */
+	private long[] keys;
+
+	/**
+	 * The generation each slot of the hash table was last filled in.
+	 */
+	private int[] stamps;
+
+	/**
+	 * The number of times the cell in each slot of the hash table has been
+	 * filled and not emptied.
+	 */
+	private int[] counts;
+
+	/**
+	 * The number of cells filled in the current generation.
+	 */
+	private int filled;
+
+	/**
+	 * The current generation. Slots stamped with it are filled.
+	 */
+	private int generation;
+
+	/**
+	 * Constructs a new empty {@link CellGrid}.
+	 */
+	CellGrid() {
+		this.keys = new long[INITIAL_CAPACITY];
+		this.stamps = new int[INITIAL_CAPACITY];
+		this.counts = new int[INITIAL_CAPACITY];
+		this.filled = 0;
+		this.generation = 1;
+	}
+
+	/**
+	 * Empties every cell of the grid.
+	 */
+	void clear() {
+
+		filled = 0;
+
+		// Once the generations run out start again from empty stamps.
+		if (++generation == 0) {
+			Arrays.fill(stamps, 0);
+			generation = 1;
+		}
+	}
+
+	/**
+	 * Fills each cell covered by a specified rectangle once more.
+	 *
+	 * @param x
+	 *            The x coordinate of the rectangle. A multiple of
+	 *            {@link Dimension#GRID} that is not negative.
+	 * @param y
+	 *            The y coordinate of the rectangle. A multiple of
+	 *            {@link Dimension#GRID} that is not negative.
+	 * @param width
+	 *            The width of the rectangle. A multiple of
+	 *            {@link Dimension#GRID}.
+	 * @param height
+	 *            The height of the rectangle. A multiple of
+	 *            {@link Dimension#GRID}.
+	 */
+	void fill(int x, int y, int width, int height) {
+
+		if (!isAligned(x, y, width, height)) {
+			throw new IllegalArgumentException("The rectangle must lie on the grid.");
+		}
+
+		int size = Dimension.GRID.i;
+		int left = x / size;
+		int top = y / size;
+		int right = left + (width / size);
+		int bottom = top + (height / size);
+
+		for (int row = top; row < bottom; row++) {
+			for (int column = left; column < right; column++) {
+				insert(getKey(column, row));
+			}
+		}
+	}
+
+	/**
+	 * Empties the cell at a specified coordinate once. The cell stays filled if
+	 * it was filled more times than it has been emptied.
+	 *
+	 * @param x
+	 *            The x coordinate of the cell. A multiple of
+	 *            {@link Dimension#GRID} that is not negative.
+	 * @param y
+	 *            The y coordinate of the cell. A multiple of
+	 *            {@link Dimension#GRID} that is not negative.
+	 */
+	void empty(int x, int y) {
+
+		if (!isAligned(x, y, Dimension.GRID.i, Dimension.GRID.i)) {
+			throw new IllegalArgumentException("The cell must lie on the grid.");
+		}
+
+		int slot = find(getKey(x / Dimension.GRID.i, y / Dimension.GRID.i));
+		if (slot >= 0 && --counts[slot] == 0) {
+			remove(slot);
+		}
+	}
+
+	/**
+	 * Whether the cell at a specified coordinate is filled. Cells off the grid
+	 * are never filled.
+	 *
+	 * @param x
+	 *            The x coordinate of the cell.
+	 * @param y
+	 *            The y coordinate of the cell.
+	 * @return {@code Boolean}
+	 */
+	boolean isFilled(int x, int y) {
+
+		if (x < 0 || y < 0) {
+			return false;
+		}
+
+		return find(getKey(x / Dimension.GRID.i, y / Dimension.GRID.i)) >= 0;
+	}
+
+	/**
+	 * Whether a specified rectangle lies on the grid, so that it can be filled.
+	 *
+	 * @param x
+	 *            The x coordinate of the rectangle.
+	 * @param y
+	 *            The y coordinate of the rectangle.
+	 * @param width
+	 *            The width of the rectangle.
+	 * @param height
+	 *            The height of the rectangle.
+	 * @return {@code Boolean}
+	 */
+	static boolean isAligned(int x, int y, int width, int height) {
+		int size = Dimension.GRID.i;
+		return x >= 0 && y >= 0 && width > 0 && height > 0 && x % size == 0 && y % size == 0 && width % size == 0
+				&& height % size == 0;
+	}
+
+	/**
+	 * Retrieves the key of the cell at a specified column and row.
+	 *
+	 * @param column
+	 *            The column of the cell. Not negative.
+	 * @param row
+	 *            The row of the cell. Not negative.
+	 * @return The key.
+	 */
+	private static long getKey(int column, int row) {
+		return ((long) row << 32) | column;
+	}
+
+	/**
+	 * Retrieves the slot of the hash table that a specified key would ideally be
+	 * in.
+	 *
+	 * @param key
+	 *            The key of a cell.
+	 * @return The slot.
+	 */
+	private int getHome(long key) {
+		return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & (keys.length - 1);
+	}
+
+	/**
+	 * Finds the slot of the filled cell with a specified key.
+	 *
+	 * @param key
+	 *            The key of the cell.
+	 * @return The slot, or -1 if the cell is not filled.
+	 */
+	private int find(long key) {
+
+		for (int slot = getHome(key);; slot = (slot + 1) & (keys.length - 1)) {
+			if (stamps[slot] != generation) {
+				return -1;
+			} else if (keys[slot] == key) {
+				return slot;
+			}
+		}
+	}
+
+	/**
+	 * Fills the cell with a specified key once more.
+	 *
+	 * @param key
+	 *            The key of the cell.
+	 */
+	private void insert(long key) {
+
+		// Keep the table at most half full so that searches stay short.
+		if ((filled + 1) * 2 > keys.length) {
+			resize(keys.length * 2);
+		}
+
+		int slot = getHome(key);
+		while (stamps[slot] == generation) {
+			if (keys[slot] == key) {
+				counts[slot]++;
+				return;
+			}
+			slot = (slot + 1) & (keys.length - 1);
+		}
+
+		keys[slot] = key;
+		stamps[slot] = generation;
+		counts[slot] = 1;
+		filled++;
+	}
+
+	/**
+	 * Empties the cell in a specified slot, moving any cells after it back so
+	 * that none of them is cut off from its ideal slot.
+	 *
+	 * @param slot
+	 *            The slot.
+	 */
+	private void remove(int slot) {
+
+		int mask = keys.length - 1;
+		int gap = slot;
+
+		for (int next = (gap + 1) & mask; stamps[next] == generation; next = (next + 1) & mask) {
+
+			// Move the cell into the gap if its ideal slot is not between the gap and
+			// where it is now.
+			int home = getHome(keys[next]);
+			if (((next - home) & mask) >= ((next - gap) & mask)) {
+				keys[gap] = keys[next];
+				counts[gap] = counts[next];
+				gap = next;
+			}
+		}
+
+		stamps[gap] = 0;
+		filled--;
+	}
+
+	/**
+	 * Moves every cell filled in the current generation into a hash table of a
+	 * specified size.
+	 *
+	 * @param capacity
+	 *            The number of slots. A power of two.
+	 */
+	private void resize(int capacity) {
+
+		long[] oldKeys = keys;
+		int[] oldStamps = stamps;
+		int[] oldCounts = counts;
+
+		keys = new long[capacity];
+		stamps = new int[capacity];
+		counts = new int[capacity];
+
+		for (int old = 0; old < oldKeys.length; old++) {
+			if (oldStamps[old] == generation) {
+
+				int slot = getHome(oldKeys[old]);
+				while (stamps[slot] == generation) {
+					slot = (slot + 1) & (capacity - 1);
+				}
+
+				keys[slot] = oldKeys[old];
+				stamps[slot] = generation;
+				counts[slot] = oldCounts[old];
+			}
+		}
+	}
+
+}
@@ -10,9 +10,10 @@ package snake3D.environment;
 public enum Dimension {
 
 	/**
-	 * The width/height of the {@link Arena}.
+	 * The width/height of the {@link Arena}, which can be set with the
+	 * <code>snake3D.arena</code> system property. Defaults to 500.
 	 */
-	ARENA(500),
+	ARENA(Integer.getInteger("snake3D.arena", 500)),
 	/**
 	 * The {@link Arena} is separated into these spaces of this width and height
 	 * making a pseudo grid.
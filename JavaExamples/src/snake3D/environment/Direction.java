@@ -5,7 +5,7 @@ import java.awt.event.KeyEvent;
 import org.lwjgl.input.Keyboard;
 
 /**
- * The directions that a {@link Snake} can have.
+ * The directions that a snake can have.
  * 
  * @author Joshua_Eddy
  *
@@ -51,6 +51,16 @@ public enum Direction {
 	 */
 	public abstract Direction getOpposite();
 
+	/**
+	 * Retrieves the {@link snake.Direction} that the {@link snake.engine.Engine}
+	 * uses for this {@link Direction}.
+	 * 
+	 * @return {@link snake.Direction}
+	 */
+	public snake.Direction toEngine() {
+		return snake.Direction.valueOf(name());
+	}
+
 	/**
 	 * Retrieves the {@link Direction} associated with the specified {@link KeyEvent}.
 	 * @param code {@link KeyEvent} NOT NULL.
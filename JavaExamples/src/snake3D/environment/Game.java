@@ -3,60 +3,135 @@ package snake3D.environment;
 import org.lwjgl.input.Keyboard;
 import org.lwjgl.opengl.GL11;
 
+import snake.engine.Autopilot;
+import snake.engine.Controller;
+import snake.engine.Engine;
+import snake.engine.GameView;
+import snake.engine.MultiEngine;
+import snake.engine.Renderer;
+import snake.engine.State;
+import snake.replay.Replay;
+import snake.replay.ReplayWriter;
 import snake3D.graphics.Graphic;
+import snake3D.graphics.Matrix;
+import snake3D.graphics.RenderMode;
 import snake3D.graphics.Window;
 
-import java.util.Queue;
-import java.util.concurrent.LinkedTransferQueue;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The game of snake in which the 2D retro game of snake rotates in a 3D space
  * adding difficulty through the increase of the rotational speed of the game.
+ * <p>
+ * The rules of the game are run by an {@link Engine} which is ticked by a
+ * {@link TickScheduler} that is either polled by the main loop with the
+ * simulation time, making the game deterministic, or run on a single background
+ * thread. Either way the main thread only ever draws the latest
+ * {@link Snapshot} published at the end of a tick. The snake is steered by the
+ * player unless the {@link Game} is given a {@link Controller}, such as an
+ * {@link Autopilot} or a {@link Replay}, and can be recorded by a
+ * {@link ReplayWriter}. The {@link Game} can also be played against many
+ * snakes steered by {@link Autopilot}s that share the arena through a
+ * {@link MultiEngine}, in which case the game ends when the player's snake
+ * collides.
  * 
  * @author Joshua_Eddy
  * 
  * @see Graphic
- * @see Thread
- * @see LinkedTransferQueue
+ * @see TickScheduler
+ * @see Snapshot
+ * @see Engine
  *
  */
-public final class Game extends Graphic {
+public final class Game extends Graphic implements Renderer {
 
 	/**
-	 * The number of milliseconds between each movement of the {@link Snake}.
+	 * The number of milliseconds between each movement of the snake.
 	 */
 	public static final long TIME_INTERVAL = 250;
 
+	/**
+	 * The snake of a {@link MultiEngine} steered by the player.
+	 */
+	private static final int PLAYER = 0;
+
+	/**
+	 * The seed of a game rendered off screen, so that every run draws the same
+	 * frames.
+	 */
+	private static final long HEADLESS_SEED = 0;
+
 	/**
 	 * The arena in which the game takes place.
 	 */
 	private Arena arena;
 
 	/**
-	 * The {@link Thread} that caused the snake to move and food to spawn.
+	 * The {@link TickScheduler} that causes the snake to move and food to spawn.
+	 */
+	private TickScheduler ticker;
+
+	/**
+	 * The {@link ScheduledExecutorService} that runs the {@link Game#ticker}. Null
+	 * if the {@link Game#ticker} is polled by the main loop.
+	 */
+	private ScheduledExecutorService executor;
+
+	/**
+	 * The {@link Engine} that runs the rules of the game.
+	 */
+	private Engine engine;
+
+	/**
+	 * The {@link MultiEngine} that runs the rules of the game when many snakes
+	 * share the arena. Null if the player has the arena to themselves, in which
+	 * case the {@link Game#engine} runs the rules.
+	 */
+	private MultiEngine shared;
+
+	/**
+	 * The {@link Controller} that steers the snake. Null if the player steers it.
 	 */
-	private Thread movementThread;
+	private Controller controller;
 
 	/**
-	 * The player controlled snake.
+	 * The {@link Controller} of each snake of the {@link Game#shared} game.
 	 */
-	private Snake snake;
+	private Controller[] controllers;
 
 	/**
-	 * The inter-thread buffer that allows the {@link Game#movementThread} to modify
-	 * objects on the main thread.
+	 * The {@link ReplayWriter} that records each tick. Null if the game is not
+	 * recorded.
 	 */
-	public Queue<Integer> buffer;
+	private ReplayWriter recorder;
 
 	/**
-	 * The current score the user has accumulated by playing the game.
+	 * The {@link Direction} the player has turned the snake to. Set by the main
+	 * thread and read by the thread that ticks the {@link Game}.
 	 */
-	private int score;
+	private volatile Direction direction;
+
+	/**
+	 * The latest {@link Snapshot} published at the end of a tick.
+	 */
+	private volatile Snapshot snapshot;
+
+	/**
+	 * The {@link Snapshot} that was last passed to the {@link Game#plane}.
+	 */
+	private Snapshot drawn;
 
 	/**
 	 * Whether the game is currently active or not.
 	 */
-	private static boolean run;
+	private static volatile boolean run;
 
 	/**
 	 * Whether the game is currently paused or not.
@@ -69,64 +144,97 @@ public final class Game extends Graphic {
 	private Plane plane;
 
 	/**
-	 * Constructs a new {@link Game}.
+	 * The {@link RenderMode} the {@link Game#plane} is drawn with if the hardware
+	 * supports it. Null to use the fastest that is supported.
+	 */
+	private RenderMode renderMode;
+
+	/**
+	 * Constructs a new {@link Game} whose ticks are run by the main loop.
 	 */
 	public Game() {
+		this(null, null, System.nanoTime(), null, 1);
+	}
+
+	/**
+	 * Constructs a new {@link Game}.
+	 * 
+	 * @param executor
+	 *            The {@link ScheduledExecutorService} that runs the ticks of the
+	 *            {@link Game}. If null the ticks are run by the main loop.
+	 * @param controller
+	 *            The {@link Controller} that steers the snake. If null the player
+	 *            steers it.
+	 * @param seed
+	 *            The seed that places the food.
+	 * @param recorder
+	 *            The {@link ReplayWriter} that records the game, which the
+	 *            {@link Game} closes once the game ends. If null the game is not
+	 *            recorded. Must be null if there is more than one snake.
+	 * @param snakes
+	 *            The number of snakes in the arena. Every snake other than the
+	 *            player's is steered by an {@link Autopilot}. Greater than zero.
+	 */
+	public Game(ScheduledExecutorService executor, Controller controller, long seed, ReplayWriter recorder,
+			int snakes) {
 
 		super(Window.MEDIUM);
 
+		// A replay only holds the moves of one snake.
+		if (snakes > 1 && recorder != null) {
+			throw new IllegalArgumentException("A game with more than one snake cannot be recorded.");
+		}
+
 		// Initialise Environment state
 		run = true;
 		pause = false;
-		score = 0;
 
 		// Initialise arena
 		arena = new Arena();
 
-		// Initialise Snake
-		snake = new Snake(Direction.RIGHT);
+		direction = Direction.RIGHT;
+		this.controller = controller;
+		this.recorder = recorder;
+
+		// Initialise the engine that runs the snakes and food.
+		if (snakes > 1) {
+			initShared(snakes, seed);
+		} else {
+			engine = new Engine(Arena.RULES, seed);
+			engine.setRenderer(this);
+		}
 
 		// Holds the offset of the plane so that the arena appears in the centre of the
 		// screen.
 		float centerOffset = -Dimension.getAbsoluteValue((Dimension.ARENA.i / 2));
 
-		// Initialise the plane and add the arena and snake to it.
+		// Initialise the plane and add the arena to it.
 		plane = new Plane(centerOffset, centerOffset, -Dimension.getAbsoluteValue(Dimension.GRID.i / 2));
 		arena.addToPlane(plane);
-		snake.addToPlane(plane);
 
 		Keyboard.enableRepeatEvents(true);
 
-		// Initialise the inter-thread buffer queue.
-		buffer = new LinkedTransferQueue<Integer>();
+		// Publish the starting positions so there is something to draw before the
+		// first tick.
+		snapshot = shared != null ? new Snapshot(shared, PLAYER) : new Snapshot(engine.getState());
 
-		// Initialise the movement thread.
-		movementThread = new Thread() {
+		// Initialise the ticks that move the snake.
+		ticker = new TickScheduler(TimeUnit.MILLISECONDS.toNanos(TIME_INTERVAL), new Runnable() {
 
 			/**
-			 * Performs that designated task of this thread.
+			 * Performs a single tick of the game.
 			 */
 			@Override
 			public void run() {
+				tick();
+			}
+		});
 
-				// Constantly iterate until the game ends.
-				while (run) {
-
-					// Wait a predetermined amount of time.
-					try {
-						Thread.sleep(TIME_INTERVAL);
-					} catch (Exception e) {
-					}
+		this.executor = executor;
 
-					// Move the snake if the game is not paused.
-					if (!pause)
-						moveSnake();
-				}
-				System.out.println("GAME OVER");
-				System.out.println("Score: " + score);
-			}
-		};
-		movementThread.start();
+		if (executor != null) {
+			ticker.start(executor);
+		}
 
 	}
 
@@ -134,19 +242,124 @@ public final class Game extends Graphic {
 	 * Runs the {@link Game}.
 	 * 
 	 * @param args
-	 *            Unused.
+	 *            If any argument is <code>threaded</code> the snake is moved on a
+	 *            background thread rather than by the main loop. If any argument
+	 *            is <code>autopilot</code> the snake is steered by an
+	 *            {@link Autopilot} rather than the player. If an argument is
+	 *            <code>replay</code> the replay at the path in the next argument
+	 *            is played back, otherwise the game is recorded to a new replay
+	 *            in the working directory. If an argument is <code>snakes</code>
+	 *            the arena is shared by the number of snakes in the next
+	 *            argument, and the game is neither played back nor recorded. If
+	 *            any argument is <code>shaded</code> the game is drawn by
+	 *            {@link RenderMode#SHADED}. If an argument is
+	 *            <code>headless</code> the number of frames in the next argument
+	 *            are rendered off screen by {@link Graphic#runHeadless(int, File)}
+	 *            and the frame rate is printed; the game is steered by an
+	 *            {@link Autopilot} with a fixed seed unless a replay is played
+	 *            back, and is not recorded. If an argument is
+	 *            <code>capture</code> the headless frames are also written as PNG
+	 *            images to the directory in the next argument.
+	 * @throws Exception
+	 *             If the replay cannot be read or the headless frames cannot be
+	 *             rendered.
 	 */
-	public static void main(String[] args) {
+	public static void main(String[] args) throws Exception {
+
+		// Only create the background thread if it was asked for.
+		ScheduledExecutorService executor = null;
+		if (Arrays.asList(args).contains("threaded")) {
+			executor = Executors.newSingleThreadScheduledExecutor();
+		}
+
+		// Render off screen if a number of frames was given.
+		int headlessIndex = Arrays.asList(args).indexOf("headless");
+		boolean headless = headlessIndex >= 0 && headlessIndex + 1 < args.length;
+
+		// Only create the autopilot if it was asked for or there is no player.
+		Controller controller = null;
+		long seed = headless ? HEADLESS_SEED : System.nanoTime();
+		if (headless || Arrays.asList(args).contains("autopilot")) {
+			controller = new Autopilot();
+		}
+
+		// Share the arena if more than one snake was asked for.
+		int snakesIndex = Arrays.asList(args).indexOf("snakes");
+		int snakes = 1;
+		if (snakesIndex >= 0 && snakesIndex + 1 < args.length) {
+			snakes = Integer.parseInt(args[snakesIndex + 1]);
+		}
+
+		// Play back a replay if one was given, otherwise record the new game. Neither
+		// holds more than one snake.
+		int replayIndex = Arrays.asList(args).indexOf("replay");
+		ReplayWriter recorder = null;
+
+		if (snakes == 1 && replayIndex >= 0 && replayIndex + 1 < args.length) {
+
+			Replay replay = Replay.read(Paths.get(args[replayIndex + 1]));
+			if (!replay.getRules().equals(Arena.RULES)) {
+				throw new IllegalArgumentException("The replay was not recorded in the 3D arena.");
+			}
+
+			controller = replay.newController();
+			seed = replay.getSeed();
+
+		} else if (snakes == 1 && !headless) {
+			recorder = createRecorder(seed);
+		}
 
 		// Create an instance of the game and run it.
-		Game game = new Game();
-		game.run(WINDOWED, "Snake 2 - THE ONE THAT BREAKS YOU", 0.01f);
+		Game game = new Game(executor, controller, seed, recorder, snakes);
+		if (Arrays.asList(args).contains("shaded")) {
+			game.setRenderMode(RenderMode.SHADED);
+		}
+
+		if (headless) {
+			int captureIndex = Arrays.asList(args).indexOf("capture");
+			File captureDirectory = null;
+			if (captureIndex >= 0 && captureIndex + 1 < args.length) {
+				captureDirectory = new File(args[captureIndex + 1]);
+			}
+			game.runHeadless(Integer.parseInt(args[headlessIndex + 1]), captureDirectory);
+		} else {
+			game.run(WINDOWED, "Snake 2 - THE ONE THAT BREAKS YOU", 1.0f);
+		}
 	}
 
 	@Override
 	protected void initScene() throws Exception {
 		GL11.glDisable(GL11.GL_LINE);
 		GL11.glPolygonMode(GL11.GL_FRONT_AND_BACK, GL11.GL_FILL);
+
+		// Use the render mode that was asked for, otherwise draw every object with
+		// one instanced draw call if the hardware allows it.
+		if (renderMode != null && renderMode.isSupported()) {
+			plane.setRenderMode(renderMode);
+		} else if (RenderMode.INSTANCED.isSupported()) {
+			plane.setRenderMode(RenderMode.INSTANCED);
+		}
+	}
+
+	@Override
+	protected void cameraChanged(Matrix camera) {
+		plane.setCamera(camera);
+	}
+
+	/**
+	 * Sets the {@link RenderMode} the {@link Game} is drawn with if the hardware
+	 * supports it. Must be set before the {@link Game} is run.
+	 * 
+	 * @param renderMode
+	 *            {@link RenderMode} NOT NULL.
+	 */
+	public void setRenderMode(RenderMode renderMode) {
+
+		if (renderMode == null) {
+			throw new IllegalArgumentException("Render mode cannot be null.");
+		}
+
+		this.renderMode = renderMode;
 	}
 
 	@Override
@@ -163,7 +376,7 @@ public final class Game extends Graphic {
 				pause = !pause;
 
 			} else if (key == Keyboard.KEY_ESCAPE) {
-				run = !run;
+				endGame();
 			}
 			// Otherwise if the input is to be accepted and the game is not
 			// paused. Process the direction the user pressed.
@@ -171,9 +384,9 @@ public final class Game extends Graphic {
 
 				// If the direction the event specifies is not opposite to
 				// the snakes current direction.
-				if (snake.getDirection().getOpposite() != Direction.getDirection(key)
+				if (direction.getOpposite() != Direction.getDirection(key)
 						&& Direction.getDirection(key) != null) {
-					snake.setDirection(Direction.getDirection(key));
+					direction = Direction.getDirection(key);
 				}
 			}
 		}
@@ -182,81 +395,194 @@ public final class Game extends Graphic {
 	@Override
 	protected void updateScene() {
 
-		// If the game is running the move the plane.
-		if (run) {
-			plane.move();
+		// If the game is running the move the plane, otherwise hold it still.
+		plane.move(run ? getTimeStep() : 0.0f);
+
+		// If the ticks are not run by the executor run any that are now due.
+		if (executor == null) {
+			ticker.poll(getSimulationTime());
 		}
-		checkBuffer();
 
-	}
+		Snapshot latest = snapshot;
 
-	@Override
-	protected void renderScene() {
-		plane.draw();
-	}
+		// If a tick has published a new snapshot pass it to the plane.
+		if (latest != drawn) {
 
-	/**
-	 * Checks the {@link Game#buffer} to see if there is any actions that the main
-	 * thread must undertake. If there is they are executed in this method.
-	 */
-	private void checkBuffer() {
+			// Speed up the plane for each food eaten since the last snapshot.
+			if (drawn != null) {
+				for (int eaten = drawn.getScore(); eaten < latest.getScore(); eaten++) {
+					plane.increaseSpeed();
+				}
+			}
 
-		// If there are item(s) in the buffer.
-		if (!buffer.isEmpty()) {
+			plane.update(latest);
+			drawn = latest;
+		}
 
-			// Iterate through all the elements in the buffer.
-			while (!buffer.isEmpty()) {
+	}
 
-				// Get the head of the buffer.
-				int head = buffer.poll();
+	@Override
+	protected void renderScene() {
+		plane.draw(getInterpolation());
+	}
 
-				// If the item is zero this means that the snake needs to increase in size.
-				if (head == 0) {
-					snake.addPart(plane);
-				}
+	@Override
+	protected void cleanupScene() {
+
+		// Stop the background thread so that the program can exit.
+		ticker.stop();
+		if (executor != null) {
+			executor.shutdownNow();
+
+			// Wait for any tick in progress so the recorder is not closed under it.
+			try {
+				executor.awaitTermination(1, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
 			}
-
 		}
+
+		// Finish the replay of a game that was quit before it was lost.
+		stopRecording();
+	}
+
+	/**
+	 * Publishes a {@link Snapshot} of a specified {@link State} for the main thread
+	 * to draw.
+	 * 
+	 * @param state
+	 *            The {@link State} after the latest tick.
+	 */
+	@Override
+	public void render(State state) {
+		snapshot = new Snapshot(state);
 	}
 
 	/**
 	 * Moves the player snake along its current trajectory and runs collision
 	 * detection.
 	 */
-	private void moveSnake() {
+	private void tick() {
+
+		// If the game is over or paused do nothing.
+		if (!run || pause) {
+			return;
+		}
 
-		// Get the current position of the snake head.
-		int x = snake.getHead().getPart().x;
-		int y = snake.getHead().getPart().y;
+		if (shared != null) {
 
-		// If the game is not paused.
-		if (!pause) {
+			// Move every snake at once then publish where they ended up.
+			shared.advance(controllers);
+			snapshot = new Snapshot(shared, PLAYER);
 
-			// If the snake has not collided with its own body or the arena.
-			if (!snake.isEatingItself() && !arena.hasCollided(x, y, snake.getDirection())) {
+			if (!shared.isAlive(PLAYER)) {
+				endGame();
+			}
+			return;
+		}
 
-				// If the snake has eaten the food. Add one to score and increase
-				// the snakes length.
-				if (arena.eatedFood(x, y)) {
+		// Move Snake. The engine handles the collisions, food and score.
+		if (controller != null) {
+			engine.step(controller.decide(engine));
+		} else {
+			engine.step(direction.toEngine());
+		}
 
-					// Tell the other thread to increase the snakes size.
-					buffer.add(0);
+		// Record the direction the snake moved in this tick.
+		if (recorder != null) {
+			try {
+				recorder.record(engine.getDirection());
+			} catch (IOException e) {
+				System.err.println("Recording stopped: " + e.getMessage());
+				stopRecording();
+			}
+		}
 
-					plane.increaseSpeed();
+		// Intercepted wall or collided with itself.
+		if (!engine.isAlive()) {
+			endGame();
+			stopRecording();
+		}
+	}
+
+	/**
+	 * Creates the {@link Game#shared} game of a specified number of snakes in
+	 * which the {@link Game#controller}, or the player if there is none, steers
+	 * the first snake and an {@link Autopilot} steers each other snake.
+	 * 
+	 * @param snakes
+	 *            The number of snakes. Greater than one.
+	 * @param seed
+	 *            The seed that places the snakes and food.
+	 */
+	private void initShared(int snakes, long seed) {
+
+		shared = new MultiEngine(Arena.RULES, snakes, snakes, seed, ForkJoinPool.commonPool());
+		controllers = new Controller[snakes];
 
-					score++;
+		if (controller != null) {
+			controllers[PLAYER] = controller;
+		} else {
+			controllers[PLAYER] = new Controller() {
+
+				/**
+				 * Turns the snake to the direction the player last pressed.
+				 */
+				@Override
+				public snake.Direction decide(GameView view) {
+					return direction.toEngine();
 				}
+			};
+		}
 
-				// Move Snake
-				snake.moveSnake();
+		for (int snake = 0; snake < snakes; snake++) {
+			if (snake != PLAYER) {
+				controllers[snake] = new Autopilot();
+			}
+		}
+	}
 
-			} else {
+	/**
+	 * Creates a {@link ReplayWriter} that records a game to a new replay in the
+	 * working directory.
+	 * 
+	 * @param seed
+	 *            The seed of the game.
+	 * @return {@link ReplayWriter}, or null if the replay cannot be created.
+	 */
+	private static ReplayWriter createRecorder(long seed) {
+		try {
+			return new ReplayWriter(Paths.get("snake3D-" + seed + Replay.EXTENSION), Arena.RULES, seed);
+		} catch (IOException e) {
+			System.err.println("The game will not be recorded: " + e.getMessage());
+			return null;
+		}
+	}
 
-				// Intercepted wall or collided with itself.
-				run = false;
+	/**
+	 * Closes the {@link Game#recorder} if the game is being recorded.
+	 */
+	private void stopRecording() {
 
-			}
+		if (recorder == null) {
+			return;
+		}
+
+		try {
+			recorder.close();
+		} catch (IOException e) {
+			System.err.println("The replay could not be saved: " + e.getMessage());
 		}
+		recorder = null;
+	}
+
+	/**
+	 * Ends the {@link Game} and displays the final score.
+	 */
+	private void endGame() {
+		run = false;
+		System.out.println("GAME OVER");
+		System.out.println("Score: " + snapshot.getScore());
 	}
 
 	/**
@@ -1,13 +1,20 @@
 package snake3D.environment;
 
+import java.util.ArrayList;
 import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
 
 import org.lwjgl.opengl.GL11;
 
 import snake3D.graphics.Colour;
+import snake3D.graphics.InstancedCubes;
+import snake3D.graphics.Matrix;
 import snake3D.graphics.Polygon;
+import snake3D.graphics.RenderMode;
+import snake3D.graphics.SceneShader;
+import snake3D.graphics.VertexBatch;
 
 import java.awt.Rectangle;
 
@@ -23,23 +30,33 @@ public final class Plane {
 
 	/**
 	 * The amount the {@link Game#rotationSpeed} of the {@link Plane}'s rotation
-	 * increases by when the {@link Snake} 'eats' a piece of food. Occurs until the
-	 * snake has 'eaten' 10 pieces of food.
+	 * increases by when the snake 'eats' a piece of food. Occurs until the
+	 * snake has 'eaten' 10 pieces of food. Measured in degrees per second.
 	 */
-	private static final float ROTATIONAL_SPEED_INCREMENT = 0.01f;
+	private static final float ROTATIONAL_SPEED_INCREMENT = 0.6f;
 
 	/**
 	 * The amount the {@link Game#rotationSpeed} of the {@link Plane}'s rotation
-	 * increases by when the {@link Snake} 'eats' a piece of food. Occurs after the
-	 * snake has 'eaten' 10 pieces of food.
+	 * increases by when the snake 'eats' a piece of food. Occurs after the
+	 * snake has 'eaten' 10 pieces of food. Measured in units per second.
 	 */
-	private static final float MOVEMENT_SPEED_INCREMENT = 0.00002f;
+	private static final float MOVEMENT_SPEED_INCREMENT = 0.0012f;
 
 	/**
 	 * The maximum value that {@link Plane#getRotationSpeed()} will return before
 	 * the {@link Plane} starts to move as well as rotate.
 	 */
-	public static final float START_MOVING_BOUNDRY = 0.05f;
+	public static final float START_MOVING_BOUNDRY = 3.0f;
+
+	/**
+	 * The {@link Colour} of each part of the snake.
+	 */
+	private static final Colour SNAKE_COLOUR = Colour.CYAN;
+
+	/**
+	 * The {@link Colour} of the food.
+	 */
+	private static final Colour FOOD_COLOUR = Colour.GREEN;
 
 	/**
 	 * The X coordinate of the {@link Plane}.
@@ -69,32 +86,64 @@ public final class Plane {
 	private float vectorY;
 
 	/**
-	 * The x speed that the plane moves in the {@link Game}.
+	 * The value of {@link Plane#vectorZ} before the last time the {@link Plane}
+	 * moved.
+	 */
+	private float previousVectorZ;
+
+	/**
+	 * The value of {@link Plane#vectorY} before the last time the {@link Plane}
+	 * moved.
+	 */
+	private float previousVectorY;
+
+	/**
+	 * The x speed that the plane moves in the {@link Game} in units per second.
 	 */
 	private float zSpeed;
 
 	/**
-	 * The y speed that the plane moves in the {@link Game}.
+	 * The y speed that the plane moves in the {@link Game} in units per second.
 	 */
 	private float ySpeed;
 
 	/**
-	 * The speed of the {@link Plane}s rotation. The plane initially rotates at 0.01
-	 * degrees per refresh.
+	 * The speed of the {@link Plane}s rotation. The plane initially rotates at 0.6
+	 * degrees per second.
 	 * 
 	 * @see Game#angle
 	 */
 	private double rotationSpeed;
 
 	/**
-	 * The {@link Map} that contains the objects from the {@link Game} as the key
-	 * and the {@link Colour} of those objects as the value.
+	 * The {@link Map} that contains the objects from the {@link Game} that never
+	 * move relative to the {@link Plane} as the key and the {@link Colour} of those
+	 * objects as the value.
 	 * 
 	 * @see Rectangle
 	 * @see Colour
 	 * 
 	 */
-	private Map<Rectangle, Colour> objects;
+	private Map<Rectangle, Colour> staticObjects;
+
+	/**
+	 * The latest {@link Snapshot} of the objects from the {@link Game} that move
+	 * around the {@link Plane}. Null until the first {@link Snapshot} is given to
+	 * the {@link Plane}.
+	 */
+	private Snapshot snapshot;
+
+	/**
+	 * Whether {@link Plane#staticObjects} has changed since the static geometry
+	 * was last built.
+	 */
+	private boolean staticModified;
+
+	/**
+	 * Whether {@link Plane#snapshot} has changed since the dynamic geometry was
+	 * last built.
+	 */
+	private boolean dynamicModified;
 
 	/**
 	 * The current angle of the {@link Plane}. This angle is in degrees and should
@@ -102,12 +151,117 @@ public final class Plane {
 	 */
 	private double angle;
 
+	/**
+	 * The value of {@link Plane#angle} before the last time the {@link Plane}
+	 * moved.
+	 */
+	private double previousAngle;
+
+	/**
+	 * The {@link VertexBatch} that the faces of all the objects in
+	 * {@link Plane#staticObjects} are compiled into once.
+	 */
+	private VertexBatch staticBatch;
+
+	/**
+	 * The {@link VertexBatch} that the faces of all the objects in
+	 * {@link Plane#snapshot} are collected into when it changes.
+	 */
+	private VertexBatch dynamicBatch;
+
+	/**
+	 * The {@link InstancedCubes} that each object in {@link Plane#staticObjects}
+	 * is added to when the {@link Plane} is drawn using
+	 * {@link RenderMode#INSTANCED}.
+	 */
+	private InstancedCubes staticInstances;
+
+	/**
+	 * The {@link InstancedCubes} that each object in {@link Plane#snapshot} is
+	 * added to when the {@link Plane} is drawn using {@link RenderMode#INSTANCED}.
+	 */
+	private InstancedCubes dynamicInstances;
+
+	/**
+	 * The {@link SnakeMesh} that merges the parts of the snakes in
+	 * {@link Plane#snapshot} into straight runs.
+	 */
+	private SnakeMesh snakeMesh;
+
+	/**
+	 * The objects in {@link Plane#staticObjects} that lie on the grid. They are
+	 * few and as large as the walls of the {@link Arena}, so a cell is tested
+	 * against the bounds of each rather than the cells they cover being held.
+	 */
+	private List<Rectangle> staticSurfaces;
+
+	/**
+	 * The cells filled by the snakes in the last {@link Snapshot} that was
+	 * built.
+	 */
+	private CellGrid snakeCells;
+
+	/**
+	 * The {@link Snapshot} the {@link Plane#snakeCells} were filled from, or
+	 * null.
+	 */
+	private Snapshot filledSnapshot;
+
+	/**
+	 * The {@link SceneShader} that draws the {@link Plane} when using
+	 * {@link RenderMode#SHADED}.
+	 */
+	private SceneShader shader;
+
+	/**
+	 * The camera the {@link Plane} is seen through when using
+	 * {@link RenderMode#SHADED}.
+	 */
+	private Matrix camera;
+
+	/**
+	 * Whether {@link Plane#camera} has changed since the transform of the
+	 * {@link Plane#shader} was last computed.
+	 */
+	private boolean cameraModified;
+
+	/**
+	 * The transform from the coordinates of the objects to clip space, computed
+	 * from the {@link Plane#camera} and the position and angle of the
+	 * {@link Plane}.
+	 */
+	private Matrix transform;
+
+	/**
+	 * The angle the {@link Plane#transform} was last computed for.
+	 */
+	private double transformAngle;
+
+	/**
+	 * The 1d vector along the y axis the {@link Plane#transform} was last
+	 * computed for.
+	 */
+	private float transformY;
+
+	/**
+	 * The 1d vector along the z axis the {@link Plane#transform} was last
+	 * computed for.
+	 */
+	private float transformZ;
+
+	/**
+	 * The {@link RenderMode} used to draw the {@link Plane}.
+	 */
+	private RenderMode renderMode;
+
 	/**
 	 * Constructs a the instance of the {@link Plane}.
 	 */
 	public Plane(float x, float y, float z) {
 
-		this.objects = new IdentityHashMap<Rectangle, Colour>();
+		this.staticObjects = new IdentityHashMap<Rectangle, Colour>();
+		this.staticModified = true;
+		this.dynamicModified = true;
 
 		// Initialise the coordinates of the plane so that the centre of the arena is in
 		// the centre of the screen.
@@ -116,16 +270,33 @@ public final class Plane {
 		this.z = z;
 		this.vectorZ = 0f;
 		this.vectorY = 0f;
-		this.rotationSpeed = 0.01;
+		this.previousVectorZ = 0f;
+		this.previousVectorY = 0f;
+		this.rotationSpeed = 0.6;
 		this.zSpeed = 0;
 		this.ySpeed = 0;
 		this.angle = 0;
+		this.previousAngle = 0;
+		this.staticBatch = new VertexBatch(true);
+		this.dynamicBatch = new VertexBatch();
+		this.staticInstances = new InstancedCubes(true);
+		this.dynamicInstances = new InstancedCubes();
+		this.snakeMesh = new SnakeMesh();
+		this.staticSurfaces = new ArrayList<Rectangle>();
+		this.snakeCells = new CellGrid();
+		this.filledSnapshot = null;
+		this.shader = new SceneShader();
+		this.camera = new Matrix();
+		this.cameraModified = true;
+		this.transform = new Matrix();
+		this.renderMode = RenderMode.BATCHED;
 
 	}
 
 	/**
-	 * Adds an object and its assigned {@link Colour} to the {@link Plane} so that
-	 * they may be drawn when the {@link Plane} is rendered.
+	 * Adds an object that never moves relative to the {@link Plane} and its
+	 * assigned {@link Colour} to the {@link Plane}. The geometry of static objects
+	 * is built once and reused every time the {@link Plane} is rendered.
 	 * 
 	 * @param object
 	 *            {@link Rectangle} that denotes a 2d object in the {@link Game}.
@@ -133,46 +304,150 @@ public final class Plane {
 	 *            {@link Colour} assigned to the {@link Rectangle}.
 	 * @see Rectangle
 	 */
-	public void addObject(Rectangle object, Colour colour) {
+	public void addStaticObject(Rectangle object, Colour colour) {
 
 		// Null parameters are illegal.
 		if (object == null || colour == null) {
 			throw new IllegalArgumentException("");
 		}
 
-		// Add the object to the list of objects.
-		objects.put(object, colour);
+		// Add the object to the list of static objects.
+		staticObjects.put(object, colour);
+		staticModified = true;
 	}
 
 	/**
-	 * Iterates through all the items in {@link Plane#objects} and draws them on the
-	 * screen.
+	 * Sets the {@link Snapshot} of the moving objects that is drawn on the
+	 * {@link Plane}. Their geometry is only rebuilt when the {@link Snapshot}
+	 * changes.
+	 * 
+	 * @param snapshot
+	 *            {@link Snapshot} NOT NULL.
 	 */
-	public void draw() {
+	public void update(Snapshot snapshot) {
+
+		if (snapshot == null) {
+			throw new IllegalArgumentException("Snapshot cannot be null.");
+		}
+
+		if (snapshot != this.snapshot) {
+			this.snapshot = snapshot;
+			dynamicModified = true;
+		}
+	}
+
+	/**
+	 * Sets the camera the {@link Plane} is seen through when using
+	 * {@link RenderMode#SHADED}. The other {@link RenderMode}s use the camera in
+	 * the fixed function matrix stack.
+	 * 
+	 * @param camera
+	 *            The {@link Matrix} from the coordinates of the scene to clip
+	 *            space, which is copied. NOT NULL.
+	 */
+	public void setCamera(Matrix camera) {
+
+		if (camera == null) {
+			throw new IllegalArgumentException("Camera cannot be null.");
+		}
+
+		this.camera.set(camera);
+		cameraModified = true;
+	}
+
+	/**
+	 * Draws all the objects on the {@link Plane} on the screen with a constant
+	 * number of draw calls using the current {@link RenderMode}. The geometry of
+	 * the static objects is only built once and the geometry of the dynamic
+	 * objects is only rebuilt if they have changed. When using
+	 * {@link RenderMode#SHADED} the {@link Plane} is placed by a transform that
+	 * is only recomputed when the {@link Plane} or its camera have moved.
+	 * 
+	 * @param interpolation
+	 *            How far between its previous and current position, from zero to
+	 *            one, the {@link Plane} is drawn.
+	 */
+	public void draw(float interpolation) {
+
+		// Draw the plane between the last two times it moved so that its motion is
+		// smooth regardless of the frame rate.
+		float drawnY = previousVectorY + ((vectorY - previousVectorY) * interpolation);
+		float drawnZ = previousVectorZ + ((vectorZ - previousVectorZ) * interpolation);
+		double drawnAngle = previousAngle + ((angle - previousAngle) * interpolation);
 
 		// The view is along the x axis hence movement is z an y.
-		GL11.glTranslatef(0, vectorY, vectorZ);
-		GL11.glRotated(angle, 1, 1, 0.5);
+		if (renderMode == RenderMode.SHADED) {
+			if (cameraModified || drawnAngle != transformAngle || drawnY != transformY || drawnZ != transformZ) {
+				cameraModified = false;
+				transformAngle = drawnAngle;
+				transformY = drawnY;
+				transformZ = drawnZ;
+				shader.setTransform(transform.set(camera).translate(0, drawnY, drawnZ).rotate(drawnAngle, 1, 1, 0.5f));
+			}
+		} else {
+			GL11.glTranslatef(0, drawnY, drawnZ);
+			GL11.glRotated(drawnAngle, 1, 1, 0.5);
+		}
 
-		// Iterate through all the keys in objects.
-		for (Rectangle object : objects.keySet()) {
+		if (staticModified) {
+			staticModified = false;
+			build(staticObjects, staticBatch, staticInstances);
+		}
 
-			// Retrieve the colour assigned to the current colour.
-			Colour colour = objects.get(object);
+		if (dynamicModified) {
+			dynamicModified = false;
+			build(snapshot, dynamicBatch, dynamicInstances);
+		}
 
-			// Draw that object on the screen.
-			drawObject(object, colour);
+		// Draw every object on the screen.
+		if (renderMode == RenderMode.INSTANCED) {
+			staticInstances.draw();
+			dynamicInstances.draw();
+		} else if (renderMode == RenderMode.SHADED) {
+			shader.use();
+			staticBatch.draw(SceneShader.POSITION, SceneShader.COLOUR);
+			dynamicBatch.draw(SceneShader.POSITION, SceneShader.COLOUR);
+			shader.release();
+		} else {
+			staticBatch.draw();
+			dynamicBatch.draw();
 		}
 
 	}
 
 	/**
-	 * Rotates and translates the {@link Plane}.
+	 * Sets the {@link RenderMode} used to draw the {@link Plane}. NOT NULL
+	 * 
+	 * @param renderMode
+	 *            {@link RenderMode}
 	 */
-	public void move() {
+	public void setRenderMode(RenderMode renderMode) {
+		if (renderMode == null) {
+			throw new IllegalArgumentException("Render mode cannot be null.");
+		}
+		this.renderMode = renderMode;
 
-		rotate();
-		translate();
+		// The geometry must be rebuilt in the new render mode.
+		staticModified = true;
+		dynamicModified = true;
+	}
+
+	/**
+	 * Rotates and translates the {@link Plane} by the distance it covers in a
+	 * specified amount of time.
+	 * 
+	 * @param seconds
+	 *            The number of seconds the {@link Plane} moves for.
+	 */
+	public void move(float seconds) {
+
+		// Remember where the plane was so that it can be drawn in between.
+		previousAngle = angle;
+		previousVectorY = vectorY;
+		previousVectorZ = vectorZ;
+
+		rotate(seconds);
+		translate(seconds);
 
 	}
 
@@ -191,32 +466,365 @@ public final class Plane {
 	}
 
 	/**
-	 * Draws a specified object a specified colour on the screen.
+	 * Rebuilds the geometry of a specified set of objects in the current
+	 * {@link RenderMode}. Unless using {@link RenderMode#INSTANCED} the faces of
+	 * objects on the grid that touch another of the objects are left out.
 	 * 
-	 * @param object
-	 *            {@link Rectangle} to be drawn.
+	 * @param objects
+	 *            The objects and their {@link Colour}s.
+	 * @param batch
+	 *            The {@link VertexBatch} the objects are added to when using
+	 *            {@link RenderMode#BATCHED} or {@link RenderMode#SHADED}.
+	 * @param instances
+	 *            The {@link InstancedCubes} the objects are added to when using
+	 *            {@link RenderMode#INSTANCED}.
+	 */
+	private void build(Map<Rectangle, Colour> objects, VertexBatch batch, InstancedCubes instances) {
+
+		batch.clear();
+		instances.clear();
+
+		// Collect every object on the grid first so that each can see its neighbours.
+		staticSurfaces.clear();
+		for (Rectangle object : objects.keySet()) {
+			if (isCullable(object.x, object.y, object.width, object.height)) {
+				staticSurfaces.add(object);
+			}
+		}
+
+		// Iterate through all the keys in objects.
+		for (Rectangle object : objects.keySet()) {
+
+			// Retrieve the colour assigned to the current colour.
+			Colour colour = objects.get(object);
+
+			// Add that object to the batch or instances.
+			if (isCullable(object.x, object.y, object.width, object.height)) {
+				drawSurface(object.x, object.y, object.width, object.height, colour, batch, null);
+			} else {
+				drawObject(object.x, object.y, object.width, object.height, colour, batch, instances);
+			}
+		}
+	}
+
+	/**
+	 * Rebuilds the geometry of the objects in a specified {@link Snapshot} in the
+	 * current {@link RenderMode}. Each straight run of the snakes is drawn as one
+	 * cuboid, so a long snake costs as many boxes as it has turns rather than
+	 * parts. Unless using {@link RenderMode#INSTANCED} the sides of the runs that
+	 * touch another part of a snake or a static object are left out, so the
+	 * faces drawn grow with the surface of the snakes. Only fills the
+	 * {@link VertexBatch} or {@link InstancedCubes} so it can be run, and
+	 * benchmarked, without an OpenGL context.
+	 * 
+	 * @param snapshot
+	 *            The {@link Snapshot} of the moving objects. If null nothing is
+	 *            drawn.
+	 * @param batch
+	 *            The {@link VertexBatch} the objects are added to when using
+	 *            {@link RenderMode#BATCHED} or {@link RenderMode#SHADED}.
+	 * @param instances
+	 *            The {@link InstancedCubes} the objects are added to when using
+	 *            {@link RenderMode#INSTANCED}.
+	 */
+	void build(Snapshot snapshot, VertexBatch batch, InstancedCubes instances) {
+
+		batch.clear();
+		instances.clear();
+
+		if (snapshot == null) {
+			return;
+		}
+
+		int size = Dimension.GRID.i;
+
+		// Add each straight run of the snakes.
+		snakeMesh.update(snapshot);
+		if (renderMode != RenderMode.INSTANCED) {
+
+			fillSnakeCells(snapshot);
+
+			for (int run = 0; run < snakeMesh.getRuns(); run++) {
+				drawSurface(snakeMesh.getX(run), snakeMesh.getY(run), snakeMesh.getWidth(run),
+						snakeMesh.getHeight(run), SNAKE_COLOUR, batch, snakeCells);
+			}
+		} else {
+			for (int run = 0; run < snakeMesh.getRuns(); run++) {
+				drawObject(snakeMesh.getX(run), snakeMesh.getY(run), snakeMesh.getWidth(run),
+						snakeMesh.getHeight(run), SNAKE_COLOUR, batch, instances);
+			}
+		}
+
+		// Add the food.
+		for (int food = 0; food < snapshot.getFoods(); food++) {
+			drawObject(snapshot.getFoodX(food), snapshot.getFoodY(food), size, size, FOOD_COLOUR, batch, instances);
+		}
+	}
+
+	/**
+	 * Fills the {@link Plane#snakeCells} with the parts of the snakes in a
+	 * specified {@link Snapshot}. In the same way as the {@link SnakeMesh}, if
+	 * the {@link Snapshot} is of a single snake one tick on from the last only
+	 * the cell the head entered is filled and, unless the snake grew, the cell
+	 * the tail left is emptied, so the cost does not grow with the snake.
+	 * 
+	 * @param snapshot
+	 *            {@link Snapshot} NOT NULL.
+	 */
+	private void fillSnakeCells(Snapshot snapshot) {
+
+		if (snapshot == filledSnapshot) {
+			return;
+		}
+
+		int size = Dimension.GRID.i;
+
+		if (SnakeMesh.isNextTick(filledSnapshot, snapshot)) {
+
+			if (snapshot.getLength() == filledSnapshot.getLength()) {
+				int tail = filledSnapshot.getLength() - 1;
+				snakeCells.empty(filledSnapshot.getPartX(tail), filledSnapshot.getPartY(tail));
+			}
+			snakeCells.fill(snapshot.getPartX(0), snapshot.getPartY(0), size, size);
+
+		} else {
+
+			snakeCells.clear();
+			for (int part = 0; part < snapshot.getLength(); part++) {
+				snakeCells.fill(snapshot.getPartX(part), snapshot.getPartY(part), size, size);
+			}
+		}
+
+		filledSnapshot = snapshot;
+	}
+
+	/**
+	 * Adds a specified object a specified colour to a {@link VertexBatch} or
+	 * {@link InstancedCubes} depending on the {@link Plane#renderMode}.
+	 * 
+	 * @param objectX
+	 *            Integer x coordinate of the object.
+	 * @param objectY
+	 *            Integer y coordinate of the object.
+	 * @param objectWidth
+	 *            Integer width of the object.
+	 * @param objectHeight
+	 *            Integer height of the object.
 	 * @param colour
-	 *            {@link Colour} of the {@link Rectangle}.
+	 *            {@link Colour} of the object.
+	 * @param batch
+	 *            The {@link VertexBatch} used by {@link RenderMode#BATCHED} and
+	 *            {@link RenderMode#SHADED}.
+	 * @param instances
+	 *            The {@link InstancedCubes} used by {@link RenderMode#INSTANCED}.
 	 */
-	private void drawObject(Rectangle object, Colour colour) {
+	private void drawObject(int objectX, int objectY, int objectWidth, int objectHeight, Colour colour,
+			VertexBatch batch, InstancedCubes instances) {
 
 		// Parameters cannot be null.
-		if (object == null || colour == null) {
+		if (colour == null) {
 			throw new IllegalArgumentException();
 		}
 
 		// Change the coordinates and size of the object to float numbers.
-		float width = Dimension.getAbsoluteValue(object.width);
-		float height = Dimension.getAbsoluteValue(object.height);
-		float x = Float.sum(Dimension.getAbsoluteValue(object.x), this.x);
-		float y = Float.sum(Dimension.getAbsoluteValue(object.y), this.y);
+		float width = Dimension.getAbsoluteValue(objectWidth);
+		float height = Dimension.getAbsoluteValue(objectHeight);
+		float x = Float.sum(Dimension.getAbsoluteValue(objectX), this.x);
+		float y = Float.sum(Dimension.getAbsoluteValue(objectY), this.y);
+
+		// Cubes are as deep as they are wide where as cuboids are one grid space deep.
+		boolean isCube = objectWidth == objectHeight;
+		float depth = isCube ? width : Dimension.GRID.asFloat();
+
+		if (renderMode == RenderMode.INSTANCED) {
+			instances.add(colour, x, y, z, width, height, depth);
+		} else if (isCube) {
+			Polygon.CUBE.draw(batch, colour, x, y, z, width, height, depth);
+		} else {
+			Polygon.CUBOID.draw(batch, colour, x, y, z, width, height, depth);
+		}
+
+	}
 
-		if (object.width == object.height) {
-			Polygon.CUBE.draw(new Object[] { colour, x, y, z, width });
+	/**
+	 * Adds the faces of a specified object that lies on the grid and is one grid
+	 * space deep to a {@link VertexBatch}, leaving out the parts of its sides
+	 * that touch a filled cell or a static object. Each stretch of a side that
+	 * can be seen is added as one face.
+	 * 
+	 * @param objectX
+	 *            Integer x coordinate of the object.
+	 * @param objectY
+	 *            Integer y coordinate of the object.
+	 * @param objectWidth
+	 *            Integer width of the object.
+	 * @param objectHeight
+	 *            Integer height of the object.
+	 * @param colour
+	 *            {@link Colour} of the object.
+	 * @param batch
+	 *            The {@link VertexBatch} the faces are added to.
+	 * @param cells
+	 *            The {@link CellGrid} of the filled cells, or null if only the
+	 *            static objects hide the sides.
+	 */
+	private void drawSurface(int objectX, int objectY, int objectWidth, int objectHeight, Colour colour,
+			VertexBatch batch, CellGrid cells) {
+
+		// Parameters cannot be null.
+		if (colour == null) {
+			throw new IllegalArgumentException();
+		}
+
+		int right = objectX + objectWidth;
+		int bottom = objectY + objectHeight;
+
+		// Nothing is in front of or behind the plane.
+		addFaces(objectX, objectY, right, bottom, VertexBatch.NEAR_FACE | VertexBatch.FAR_FACE, colour, batch);
+
+		drawSide(objectX, objectY, right, bottom, VertexBatch.TOP_FACE, colour, batch, cells);
+		drawSide(objectX, objectY, right, bottom, VertexBatch.BOTTOM_FACE, colour, batch, cells);
+		drawSide(objectX, objectY, right, bottom, VertexBatch.RIGHT_FACE, colour, batch, cells);
+		drawSide(objectX, objectY, right, bottom, VertexBatch.LEFT_FACE, colour, batch, cells);
+	}
+
+	/**
+	 * Adds the stretches of one side of a specified object that do not touch a
+	 * filled cell or a static object to a {@link VertexBatch}.
+	 * 
+	 * @param objectX
+	 *            Integer x coordinate of the object.
+	 * @param objectY
+	 *            Integer y coordinate of the object.
+	 * @param right
+	 *            Integer x coordinate of the right edge of the object.
+	 * @param bottom
+	 *            Integer y coordinate of the bottom edge of the object.
+	 * @param face
+	 *            The side, one of {@link VertexBatch#TOP_FACE},
+	 *            {@link VertexBatch#BOTTOM_FACE}, {@link VertexBatch#RIGHT_FACE}
+	 *            or {@link VertexBatch#LEFT_FACE}.
+	 * @param colour
+	 *            {@link Colour} of the object.
+	 * @param batch
+	 *            The {@link VertexBatch} the faces are added to.
+	 * @param cells
+	 *            The {@link CellGrid} of the filled cells, or null if only the
+	 *            static objects hide the side.
+	 */
+	private void drawSide(int objectX, int objectY, int right, int bottom, int face, Colour colour,
+			VertexBatch batch, CellGrid cells) {
+
+		int size = Dimension.GRID.i;
+
+		// The top and bottom run along the columns and the sides along the rows.
+		boolean isHorizontal = face == VertexBatch.TOP_FACE || face == VertexBatch.BOTTOM_FACE;
+		int from = isHorizontal ? objectX : objectY;
+		int to = isHorizontal ? right : bottom;
+
+		// The row or column of cells the side touches.
+		int neighbour;
+		if (face == VertexBatch.TOP_FACE) {
+			neighbour = objectY - size;
+		} else if (face == VertexBatch.BOTTOM_FACE) {
+			neighbour = bottom;
+		} else if (face == VertexBatch.RIGHT_FACE) {
+			neighbour = objectX - size;
 		} else {
-			Polygon.CUBOID.draw(new Object[] { colour, x, y, z, width, height, Dimension.GRID.asFloat() });
+			neighbour = right;
 		}
 
+		int start = -1;
+		for (int position = from; position <= to; position += size) {
+
+			int x = isHorizontal ? position : neighbour;
+			int y = isHorizontal ? neighbour : position;
+			boolean isVisible = position < to && (cells == null || !cells.isFilled(x, y))
+					&& !isStaticFilled(x, y);
+
+			// Add each stretch of the side once it reaches a hidden cell or the end.
+			if (isVisible && start < 0) {
+				start = position;
+			} else if (!isVisible && start >= 0) {
+				if (isHorizontal) {
+					addFaces(start, objectY, position, bottom, face, colour, batch);
+				} else {
+					addFaces(objectX, start, right, position, face, colour, batch);
+				}
+				start = -1;
+			}
+		}
+	}
+
+	/**
+	 * Adds specified faces of a box one grid space deep to a {@link VertexBatch}.
+	 * 
+	 * @param left
+	 *            Integer x coordinate of the left of the box.
+	 * @param top
+	 *            Integer y coordinate of the top of the box.
+	 * @param right
+	 *            Integer x coordinate of the right of the box.
+	 * @param bottom
+	 *            Integer y coordinate of the bottom of the box.
+	 * @param faces
+	 *            The faces of the box to add.
+	 * @param colour
+	 *            {@link Colour} of the box.
+	 * @param batch
+	 *            The {@link VertexBatch} the faces are added to.
+	 */
+	private void addFaces(int left, int top, int right, int bottom, int faces, Colour colour, VertexBatch batch) {
+		batch.addFaces(colour, Float.sum(Dimension.getAbsoluteValue(left), x),
+				Float.sum(Dimension.getAbsoluteValue(top), y), z, Float.sum(Dimension.getAbsoluteValue(right), x),
+				Float.sum(Dimension.getAbsoluteValue(bottom), y), Float.sum(z, Dimension.GRID.asFloat()), faces);
+	}
+
+	/**
+	 * Whether the cell at a specified coordinate is covered by one of the
+	 * {@link Plane#staticSurfaces}.
+	 * 
+	 * @param cellX
+	 *            Integer x coordinate of the cell.
+	 * @param cellY
+	 *            Integer y coordinate of the cell.
+	 * @return {@code Boolean}
+	 */
+	private boolean isStaticFilled(int cellX, int cellY) {
+
+		for (int index = 0; index < staticSurfaces.size(); index++) {
+			Rectangle object = staticSurfaces.get(index);
+			if (cellX >= object.x && cellY >= object.y && cellX - object.x < object.width
+					&& cellY - object.y < object.height) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Whether the hidden faces of a specified object can be left out. Only
+	 * objects on the grid that are one grid space deep are drawn into a
+	 * {@link VertexBatch} without their hidden faces.
+	 * 
+	 * @param objectX
+	 *            Integer x coordinate of the object.
+	 * @param objectY
+	 *            Integer y coordinate of the object.
+	 * @param objectWidth
+	 *            Integer width of the object.
+	 * @param objectHeight
+	 *            Integer height of the object.
+	 * @return {@code Boolean}
+	 */
+	private boolean isCullable(int objectX, int objectY, int objectWidth, int objectHeight) {
+
+		// Cubes are as deep as they are wide so only a single cell cube is flat.
+		boolean isFlat = objectWidth != objectHeight || objectWidth == Dimension.GRID.i;
+
+		return renderMode != RenderMode.INSTANCED && isFlat
+				&& CellGrid.isAligned(objectX, objectY, objectWidth, objectHeight);
 	}
 
 	/**
@@ -258,16 +866,22 @@ public final class Plane {
 
 	/**
 	 * Rotates the {@link Plane}.
+	 * 
+	 * @param seconds
+	 *            The number of seconds the {@link Plane} rotates for.
 	 */
-	private void rotate() {
-		angle += rotationSpeed;
+	private void rotate(float seconds) {
+		angle += rotationSpeed * seconds;
 	}
 
 	/**
 	 * Translates the {@link Plane} based on the {@link Plane#zSpeed} and
 	 * {@link Plane#ySpeed}.
+	 * 
+	 * @param seconds
+	 *            The number of seconds the {@link Plane} translates for.
 	 */
-	private void translate() {
+	private void translate(float seconds) {
 
 		// If there z speed is larger than zero.
 		if (zSpeed != 0) {
@@ -277,7 +891,7 @@ public final class Plane {
 			if (vectorZ >= 0.25f || vectorZ <= -0.25f) {
 				zSpeed *= -1;
 			}
-			vectorZ = Float.sum(vectorZ, zSpeed);
+			vectorZ = Float.sum(vectorZ, zSpeed * seconds);
 		}
 
 		// If there y speed is larger than zero.
@@ -288,7 +902,7 @@ public final class Plane {
 			if (vectorY >= 0.25f || vectorY <= -0.25f) {
 				ySpeed *= -1;
 			}
-			vectorY = Float.sum(vectorY, ySpeed);
+			vectorY = Float.sum(vectorY, ySpeed * seconds);
 		}
 
 	}
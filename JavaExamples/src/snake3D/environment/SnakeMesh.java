@@ -0,0 +1,283 @@
+package snake3D.environment;
+
+/**
+ * The snakes of a {@link Snapshot} merged into straight runs of adjacent parts
+ * so that each run can be drawn as one cuboid rather than a cube per part. The
+ * runs are held in order from the head of the first snake in a circular
+ * buffer.
+ * <p>
+ * When the next {@link Snapshot} of a single snake is one tick on from the last
+ * the runs are updated in constant time: the head run is extended if the head
+ * carried on in a straight line, or a new run is started if it turned, and
+ * unless the snake grew the tail run is shortened by one part. Any other
+ * {@link Snapshot} is meshed from scratch by adding its parts from the tail in
+ * the same way. The two only differ at the tail: meshing from scratch joins
+ * the last part to the run in front of it, where an update may leave it as a
+ * run of its own until it moves on, so an updated mesh has at most one more
+ * run than a fresh one.
+ *
+ * @author Joshua_Eddy
+ *
+ * @see Plane
+ *
+ */
+final class SnakeMesh {
+
+	/**
+	 * The number of runs the buffers can hold before they must grow. Always a
+	 * power of two.
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * The x coordinate of the end of each run nearest the head.
+	 */
+	private int[] headX;
+
+	/**
+	 * The y coordinate of the end of each run nearest the head.
+	 */
+	private int[] headY;
+
+	/**
+	 * The x coordinate of the end of each run nearest the tail.
+	 */
+	private int[] tailX;
+
+	/**
+	 * The y coordinate of the end of each run nearest the tail.
+	 */
+	private int[] tailY;
+
+	/**
+	 * The index in the buffers of the run at the head.
+	 */
+	private int first;
+
+	/**
+	 * The number of runs.
+	 */
+	private int size;
+
+	/**
+	 * The {@link Snapshot} the runs were built from, or null.
+	 */
+	private Snapshot meshed;
+
+	/**
+	 * Constructs a new empty {@link SnakeMesh}.
+	 */
+	SnakeMesh() {
+		this.headX = new int[INITIAL_CAPACITY];
+		this.headY = new int[INITIAL_CAPACITY];
+		this.tailX = new int[INITIAL_CAPACITY];
+		this.tailY = new int[INITIAL_CAPACITY];
+		this.first = 0;
+		this.size = 0;
+	}
+
+	/**
+	 * Updates the runs to those of a specified {@link Snapshot}.
+	 *
+	 * @param snapshot
+	 *            {@link Snapshot} NOT NULL.
+	 */
+	void update(Snapshot snapshot) {
+
+		if (snapshot == meshed) {
+			return;
+		}
+
+		if (isNextTick(meshed, snapshot)) {
+
+			// The tail leaves its cell before the head moves unless the snake grew.
+			if (snapshot.getLength() == meshed.getLength()) {
+				retract();
+			}
+			advance(snapshot.getPartX(0), snapshot.getPartY(0));
+
+		} else {
+
+			size = 0;
+			for (int index = snapshot.getLength() - 1; index >= 0; index--) {
+				advance(snapshot.getPartX(index), snapshot.getPartY(index));
+			}
+		}
+
+		meshed = snapshot;
+	}
+
+	/**
+	 * @return The number of runs.
+	 */
+	int getRuns() {
+		return size;
+	}
+
+	/**
+	 * Retrieves the x coordinate of the left of a specified run.
+	 *
+	 * @param run
+	 *            The run where zero is the run at the head.
+	 * @return x coordinate.
+	 */
+	int getX(int run) {
+		int index = getIndex(run);
+		return Math.min(headX[index], tailX[index]);
+	}
+
+	/**
+	 * Retrieves the y coordinate of the top of a specified run.
+	 *
+	 * @param run
+	 *            The run where zero is the run at the head.
+	 * @return y coordinate.
+	 */
+	int getY(int run) {
+		int index = getIndex(run);
+		return Math.min(headY[index], tailY[index]);
+	}
+
+	/**
+	 * Retrieves the width of a specified run.
+	 *
+	 * @param run
+	 *            The run where zero is the run at the head.
+	 * @return The width.
+	 */
+	int getWidth(int run) {
+		int index = getIndex(run);
+		return Math.abs(headX[index] - tailX[index]) + Dimension.GRID.i;
+	}
+
+	/**
+	 * Retrieves the height of a specified run.
+	 *
+	 * @param run
+	 *            The run where zero is the run at the head.
+	 * @return The height.
+	 */
+	int getHeight(int run) {
+		int index = getIndex(run);
+		return Math.abs(headY[index] - tailY[index]) + Dimension.GRID.i;
+	}
+
+	/**
+	 * Whether a specified {@link Snapshot} is of the same single snake as a
+	 * previous {@link Snapshot} one tick later. Only the parts either side of
+	 * the body that both share are compared.
+	 *
+	 * @param previous
+	 *            The previous {@link Snapshot}, or null.
+	 * @param next
+	 *            The next {@link Snapshot}. NOT NULL.
+	 * @return {@code Boolean}
+	 */
+	static boolean isNextTick(Snapshot previous, Snapshot next) {
+
+		if (previous == null || previous.getSnakes() != 1 || next.getSnakes() != 1) {
+			return false;
+		}
+
+		int length = next.getLength();
+		int growth = length - previous.getLength();
+
+		// Each part of the snake moves into the cell of the part in front of it.
+		return (growth == 0 || growth == 1) && length > 1 && next.getPartX(1) == previous.getPartX(0)
+				&& next.getPartY(1) == previous.getPartY(0)
+				&& next.getPartX(length - 1) == previous.getPartX(length - 2)
+				&& next.getPartY(length - 1) == previous.getPartY(length - 2);
+	}
+
+	/**
+	 * Adds a part in front of the head, extending the head run if the part
+	 * carries on in a straight line from it.
+	 *
+	 * @param x
+	 *            The x coordinate of the part.
+	 * @param y
+	 *            The y coordinate of the part.
+	 */
+	private void advance(int x, int y) {
+
+		if (size > 0) {
+
+			int dx = x - headX[first];
+			int dy = y - headY[first];
+			boolean single = headX[first] == tailX[first] && headY[first] == tailY[first];
+
+			// A part next to the head run extends it if it is in line with the run.
+			if (Math.abs(dx) + Math.abs(dy) == Dimension.GRID.i && (single
+					|| (Integer.signum(dx) == Integer.signum(headX[first] - tailX[first])
+							&& Integer.signum(dy) == Integer.signum(headY[first] - tailY[first])))) {
+				headX[first] = x;
+				headY[first] = y;
+				return;
+			}
+		}
+
+		if (size == headX.length) {
+			grow();
+		}
+
+		first = (first - 1) & (headX.length - 1);
+		headX[first] = x;
+		headY[first] = y;
+		tailX[first] = x;
+		tailY[first] = y;
+		size++;
+	}
+
+	/**
+	 * Removes the part at the tail, removing the tail run once it is empty.
+	 */
+	private void retract() {
+
+		int last = getIndex(size - 1);
+
+		if (headX[last] == tailX[last] && headY[last] == tailY[last]) {
+			size--;
+		} else {
+			tailX[last] += Integer.signum(headX[last] - tailX[last]) * Dimension.GRID.i;
+			tailY[last] += Integer.signum(headY[last] - tailY[last]) * Dimension.GRID.i;
+		}
+	}
+
+	/**
+	 * Retrieves the index in the buffers of a specified run.
+	 *
+	 * @param run
+	 *            The run where zero is the run at the head.
+	 * @return The index.
+	 */
+	private int getIndex(int run) {
+		return (first + run) & (headX.length - 1);
+	}
+
+	/**
+	 * Doubles the capacity of the buffers, moving the head run to the start.
+	 */
+	private void grow() {
+
+		int capacity = headX.length * 2;
+		int[] newHeadX = new int[capacity];
+		int[] newHeadY = new int[capacity];
+		int[] newTailX = new int[capacity];
+		int[] newTailY = new int[capacity];
+
+		for (int run = 0; run < size; run++) {
+			int index = getIndex(run);
+			newHeadX[run] = headX[index];
+			newHeadY[run] = headY[index];
+			newTailX[run] = tailX[index];
+			newTailY[run] = tailY[index];
+		}
+
+		headX = newHeadX;
+		headY = newHeadY;
+		tailX = newTailX;
+		tailY = newTailY;
+		first = 0;
+	}
+
+}
@@ -0,0 +1,197 @@
+package snake3D.environment;
+
+import snake.engine.MultiEngine;
+import snake.engine.State;
+
+/**
+ * An immutable copy of the positions of the moving objects of the
+ * {@link Game} taken at the end of a tick. The cells of each {@link State} or
+ * {@link MultiEngine} are converted to coordinates on the {@link Plane} once so
+ * that drawing the {@link Snapshot} does no conversion. The parts of every
+ * snake are held one snake after another.
+ *
+ * @author Joshua_Eddy
+ * @see TickScheduler
+ *
+ */
+public final class Snapshot {
+
+	/**
+	 * The x coordinates of each part of the snakes ordered from the head of each
+	 * snake.
+	 */
+	private final int[] partX;
+
+	/**
+	 * The y coordinates of each part of the snakes ordered from the head of each
+	 * snake.
+	 */
+	private final int[] partY;
+
+	/**
+	 * The x coordinate of each piece of food.
+	 */
+	private final int[] foodX;
+
+	/**
+	 * The y coordinate of each piece of food.
+	 */
+	private final int[] foodY;
+
+	/**
+	 * The score when this {@link Snapshot} was taken.
+	 */
+	private final int score;
+
+	/**
+	 * The number of snakes whose parts are held.
+	 */
+	private final int snakes;
+
+	/**
+	 * Constructs a new {@link Snapshot} of a specified {@link State} of a game
+	 * played in the {@link Arena}.
+	 *
+	 * @param state
+	 *            {@link State} NOT NULL.
+	 */
+	public Snapshot(State state) {
+
+		this.partX = new int[state.getLength()];
+		this.partY = new int[state.getLength()];
+
+		// Convert the cell of each part of the snake into coordinates.
+		for (int index = 0; index < partX.length; index++) {
+			partX[index] = Arena.getCoordinate(state.getColumn(index));
+			partY[index] = Arena.getCoordinate(state.getRow(index));
+		}
+
+		this.foodX = new int[] { Arena.getCoordinate(state.getFoodColumn()) };
+		this.foodY = new int[] { Arena.getCoordinate(state.getFoodRow()) };
+		this.score = state.getScore();
+		this.snakes = 1;
+	}
+
+	/**
+	 * Constructs a new {@link Snapshot} of the living snakes and food of a
+	 * specified {@link MultiEngine} played in the {@link Arena}. Must not be
+	 * taken while the {@link MultiEngine} is advancing.
+	 *
+	 * @param engine
+	 *            {@link MultiEngine} NOT NULL.
+	 * @param player
+	 *            The snake whose score is shown.
+	 */
+	public Snapshot(MultiEngine engine, int player) {
+
+		int parts = 0;
+		int living = 0;
+		for (int snake = 0; snake < engine.getSnakes(); snake++) {
+			if (engine.isAlive(snake)) {
+				parts += engine.getLength(snake);
+				living++;
+			}
+		}
+
+		this.partX = new int[parts];
+		this.partY = new int[parts];
+
+		// Convert the cell of each part of each living snake into coordinates.
+		int part = 0;
+		for (int snake = 0; snake < engine.getSnakes(); snake++) {
+			if (engine.isAlive(snake)) {
+				for (int index = 0; index < engine.getLength(snake); index++) {
+					long cell = engine.getCell(snake, index);
+					partX[part] = Arena.getCoordinate(Arena.RULES.getColumn(cell));
+					partY[part++] = Arena.getCoordinate(Arena.RULES.getRow(cell));
+				}
+			}
+		}
+
+		this.foodX = new int[engine.getFoods()];
+		this.foodY = new int[engine.getFoods()];
+
+		for (int food = 0; food < foodX.length; food++) {
+			foodX[food] = Arena.getCoordinate(Arena.RULES.getColumn(engine.getFood(food)));
+			foodY[food] = Arena.getCoordinate(Arena.RULES.getRow(engine.getFood(food)));
+		}
+
+		this.score = engine.getScore(player);
+		this.snakes = living;
+	}
+
+	/**
+	 * @return The number of parts the snakes had.
+	 */
+	public int getLength() {
+		return partX.length;
+	}
+
+	/**
+	 * Retrieves the x coordinate of a specified part of the snakes.
+	 *
+	 * @param index
+	 *            The position of the part where zero is the head of the first
+	 *            snake.
+	 * @return x coordinate.
+	 */
+	public int getPartX(int index) {
+		return partX[index];
+	}
+
+	/**
+	 * Retrieves the y coordinate of a specified part of the snakes.
+	 *
+	 * @param index
+	 *            The position of the part where zero is the head of the first
+	 *            snake.
+	 * @return y coordinate.
+	 */
+	public int getPartY(int index) {
+		return partY[index];
+	}
+
+	/**
+	 * @return The number of snakes whose parts are held.
+	 */
+	public int getSnakes() {
+		return snakes;
+	}
+
+	/**
+	 * @return The number of pieces of food.
+	 */
+	public int getFoods() {
+		return foodX.length;
+	}
+
+	/**
+	 * Retrieves the x coordinate of a specified piece of food.
+	 *
+	 * @param food
+	 *            The piece of food.
+	 * @return x coordinate.
+	 */
+	public int getFoodX(int food) {
+		return foodX[food];
+	}
+
+	/**
+	 * Retrieves the y coordinate of a specified piece of food.
+	 *
+	 * @param food
+	 *            The piece of food.
+	 * @return y coordinate.
+	 */
+	public int getFoodY(int food) {
+		return foodY[food];
+	}
+
+	/**
+	 * @return The score when this {@link Snapshot} was taken.
+	 */
+	public int getScore() {
+		return score;
+	}
+
+}
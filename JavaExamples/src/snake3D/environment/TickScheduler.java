@@ -0,0 +1,144 @@
+package snake3D.environment;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a task at a fixed period. The task can either be driven by the main
+ * loop calling {@link TickScheduler#poll(long)} with the current time, or run
+ * on a {@link ScheduledExecutorService}.
+ * <p>
+ * Each tick is scheduled from the deadline of the previous tick rather than
+ * from when it actually ran so that the tick rate does not drift.
+ *
+ * @author Joshua_Eddy
+ * @see Game
+ *
+ */
+public final class TickScheduler {
+
+	/**
+	 * The most ticks that {@link TickScheduler#poll(long)} will run to catch up
+	 * before it gives up on the missed ticks and restarts the schedule.
+	 */
+	private static final int MAX_CATCH_UP = 4;
+
+	/**
+	 * The number of nanoseconds between each tick.
+	 */
+	private final long period;
+
+	/**
+	 * The task that is run every tick.
+	 */
+	private final Runnable task;
+
+	/**
+	 * The time in nanoseconds that the next tick is due when the
+	 * {@link TickScheduler} is driven by {@link TickScheduler#poll(long)}.
+	 */
+	private long deadline;
+
+	/**
+	 * Whether {@link TickScheduler#deadline} has been set yet.
+	 */
+	private boolean started;
+
+	/**
+	 * The scheduled task when the {@link TickScheduler} is run on a
+	 * {@link ScheduledExecutorService}. Null otherwise.
+	 */
+	private ScheduledFuture<?> future;
+
+	/**
+	 * Constructs a new {@link TickScheduler}.
+	 *
+	 * @param period
+	 *            The number of nanoseconds between each tick. Greater than zero.
+	 * @param task
+	 *            The task that is run every tick. NOT NULL.
+	 */
+	public TickScheduler(long period, Runnable task) {
+
+		if (period <= 0) {
+			throw new IllegalArgumentException("Period must be greater than zero.");
+		}
+		if (task == null) {
+			throw new IllegalArgumentException("Task cannot be null.");
+		}
+
+		this.period = period;
+		this.task = task;
+		this.started = false;
+	}
+
+	/**
+	 * Runs every tick that has become due by the specified time. The first call
+	 * starts the schedule so the first tick is due one period later.
+	 *
+	 * @param now
+	 *            The current time in nanoseconds. Must only ever increase.
+	 * @return The number of ticks that were run.
+	 */
+	public int poll(long now) {
+
+		if (future != null) {
+			throw new IllegalStateException("Ticks are being run by an executor.");
+		}
+
+		if (!started) {
+			deadline = now + period;
+			started = true;
+			return 0;
+		}
+
+		int ticks = 0;
+
+		// Run each tick that is due, scheduling the next from the deadline of the
+		// last so that the rate does not drift.
+		while (now - deadline >= 0 && ticks < MAX_CATCH_UP) {
+			task.run();
+			deadline += period;
+			ticks++;
+		}
+
+		// If the ticks have fallen too far behind drop the ones that were missed.
+		if (now - deadline >= 0) {
+			deadline = now + period;
+		}
+
+		return ticks;
+	}
+
+	/**
+	 * Runs the ticks on a specified {@link ScheduledExecutorService} instead of
+	 * from {@link TickScheduler#poll(long)}.
+	 *
+	 * @param executor
+	 *            {@link ScheduledExecutorService} NOT NULL.
+	 */
+	public void start(ScheduledExecutorService executor) {
+
+		if (executor == null) {
+			throw new IllegalArgumentException("Executor cannot be null.");
+		}
+		if (future != null) {
+			throw new IllegalStateException("Ticks are already being run by an executor.");
+		}
+
+		// Fixed rate scheduling is measured from the start of the schedule so it does
+		// not drift.
+		future = executor.scheduleAtFixedRate(task, period, period, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Stops the ticks being run by a {@link ScheduledExecutorService}.
+	 */
+	public void stop() {
+		if (future != null) {
+			future.cancel(false);
+		}
+	}
+
+}
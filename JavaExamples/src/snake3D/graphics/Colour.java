@@ -47,6 +47,25 @@ public class Colour
 		this.blue = ((float) blue)/255.0f;
 	}
 	
+    /**
+     * @return the red component of this colour
+     */
+    public final float getRed()
+    {   return red;
+    }
+    /**
+     * @return the green component of this colour
+     */
+    public final float getGreen()
+    {   return green;
+    }
+    /**
+     * @return the blue component of this colour
+     */
+    public final float getBlue()
+    {   return blue;
+    }
+
 	/**
 	 * Submits this Colour to OpenGL using an immediate mode call
 	 */
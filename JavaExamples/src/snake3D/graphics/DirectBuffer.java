@@ -0,0 +1,216 @@
+package snake3D.graphics;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayDeque;
+
+import org.lwjgl.BufferUtils;
+
+/**
+ * A block of direct memory used to pass data to OpenGL, taken from a pool so
+ * that uploading does not allocate new direct memory each time. Each block is
+ * the smallest power of two bytes that holds what was asked for, and a
+ * released block is kept on a free list of the thread that released it for
+ * the next {@link DirectBuffer#allocate(int)} of the same size class on that
+ * thread. Free lists are per thread so that allocating and releasing need no
+ * locks and concurrent callers never share a block. Blocks larger than 4 MiB
+ * are rare and are allocated exactly and left to the garbage collector, so
+ * the free lists never pin a large amount of memory.
+ * <p>
+ * A {@link DirectBuffer} must be released exactly once when it is no longer
+ * used and must not be used after it is released. A block that is never
+ * released is simply reclaimed by the garbage collector.
+ *
+ * @author Joshua_Eddy
+ * @see VertexBatch
+ * @see InstancedCubes
+ *
+ */
+public final class DirectBuffer {
+
+	/**
+	 * The base two logarithm of the bytes of the smallest size class.
+	 */
+	private static final int MIN_SHIFT = 6;
+
+	/**
+	 * The base two logarithm of the bytes of the largest size class, 4 MiB.
+	 * Larger blocks are allocated exactly and never pooled, so that a thread
+	 * never holds on to more than a few megabytes of each size class.
+	 */
+	private static final int MAX_SHIFT = 22;
+
+	/**
+	 * The number of released blocks of each size class a thread keeps.
+	 */
+	private static final int MAX_FREE = 4;
+
+	/**
+	 * The free lists of each thread, indexed by size class.
+	 */
+	private static final ThreadLocal<ArrayDeque<DirectBuffer>[]> FREE = new ThreadLocal<ArrayDeque<DirectBuffer>[]>() {
+
+		/**
+		 * Creates the empty free lists of a thread.
+		 */
+		@Override
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		protected ArrayDeque<DirectBuffer>[] initialValue() {
+			ArrayDeque<DirectBuffer>[] free = new ArrayDeque[(MAX_SHIFT - MIN_SHIFT) + 1];
+			for (int sizeClass = 0; sizeClass < free.length; sizeClass++) {
+				free[sizeClass] = new ArrayDeque<DirectBuffer>(MAX_FREE);
+			}
+			return free;
+		}
+	};
+
+	/**
+	 * The direct memory of this {@link DirectBuffer}.
+	 */
+	private final ByteBuffer bytes;
+
+	/**
+	 * The memory of this {@link DirectBuffer} viewed as <code>float</code>s.
+	 */
+	private final java.nio.FloatBuffer floats;
+
+	/**
+	 * The memory of this {@link DirectBuffer} viewed as <code>int</code>s.
+	 */
+	private final IntBuffer ints;
+
+	/**
+	 * The size class of this {@link DirectBuffer}, or -1 if it is too large to
+	 * be pooled.
+	 */
+	private final int sizeClass;
+
+	/**
+	 * Whether this {@link DirectBuffer} has been released.
+	 */
+	private boolean released;
+
+	/**
+	 * Constructs a new {@link DirectBuffer}.
+	 *
+	 * @param capacity
+	 *            The number of bytes of direct memory.
+	 * @param sizeClass
+	 *            The size class, or -1 if it is not pooled.
+	 */
+	private DirectBuffer(int capacity, int sizeClass) {
+		this.bytes = BufferUtils.createByteBuffer(capacity);
+		this.floats = bytes.asFloatBuffer();
+		this.ints = bytes.asIntBuffer();
+		this.sizeClass = sizeClass;
+		this.released = false;
+	}
+
+	/**
+	 * Takes a {@link DirectBuffer} that holds at least a specified number of
+	 * bytes from the pool, allocating one if the free list of the current thread
+	 * is empty. The views of the returned {@link DirectBuffer} are cleared.
+	 *
+	 * @param capacity
+	 *            The number of bytes required. Not negative.
+	 * @return {@link DirectBuffer}
+	 */
+	public static DirectBuffer allocate(int capacity) {
+
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Capacity cannot be negative.");
+		}
+
+		// The smallest power of two that holds the capacity.
+		int shift = Math.max(MIN_SHIFT, 32 - Integer.numberOfLeadingZeros(Math.max(capacity, 1) - 1));
+
+		if (shift > MAX_SHIFT) {
+			return new DirectBuffer(capacity, -1);
+		}
+
+		int sizeClass = shift - MIN_SHIFT;
+		DirectBuffer buffer = FREE.get()[sizeClass].pollFirst();
+
+		if (buffer == null) {
+			buffer = new DirectBuffer(1 << shift, sizeClass);
+		} else {
+			buffer.released = false;
+		}
+
+		buffer.bytes.clear();
+		buffer.floats.clear();
+		buffer.ints.clear();
+
+		return buffer;
+	}
+
+	/**
+	 * Takes a {@link DirectBuffer} that holds at least a specified number of
+	 * <code>float</code>s from the pool.
+	 *
+	 * @param count
+	 *            The number of <code>float</code>s required. Not negative.
+	 * @return {@link DirectBuffer}
+	 */
+	public static DirectBuffer allocateFloats(int count) {
+		return allocate(Math.multiplyExact(count, Float.BYTES));
+	}
+
+	/**
+	 * Takes a {@link DirectBuffer} that holds at least a specified number of
+	 * <code>int</code>s from the pool.
+	 *
+	 * @param count
+	 *            The number of <code>int</code>s required. Not negative.
+	 * @return {@link DirectBuffer}
+	 */
+	public static DirectBuffer allocateInts(int count) {
+		return allocate(Math.multiplyExact(count, Integer.BYTES));
+	}
+
+	/**
+	 * @return The memory of this {@link DirectBuffer} as bytes.
+	 */
+	public ByteBuffer getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * @return The memory of this {@link DirectBuffer} as <code>float</code>s.
+	 */
+	public java.nio.FloatBuffer getFloats() {
+		return floats;
+	}
+
+	/**
+	 * @return The memory of this {@link DirectBuffer} as <code>int</code>s.
+	 */
+	public IntBuffer getInts() {
+		return ints;
+	}
+
+	/**
+	 * Returns this {@link DirectBuffer} to the free list of the current thread
+	 * so that its memory can be reused. If the free list is full the memory is
+	 * left to the garbage collector.
+	 *
+	 * @throws IllegalStateException
+	 *             If this {@link DirectBuffer} has already been released.
+	 */
+	public void release() {
+
+		if (released) {
+			throw new IllegalStateException("The buffer has already been released.");
+		}
+
+		released = true;
+
+		if (sizeClass >= 0) {
+			ArrayDeque<DirectBuffer> free = FREE.get()[sizeClass];
+			if (free.size() < MAX_FREE) {
+				free.addFirst(this);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,321 @@
+package snake3D.graphics;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL21;
+
+/**
+ * Reads the frames drawn into the current framebuffer back from OpenGL without
+ * stalling the frames drawn after them. Each frame is copied into the next of
+ * a ring of pixel buffer objects, which OpenGL does in the background, and is
+ * only mapped once the ring comes back round to it, by which time the copy has
+ * usually finished. Reading a frame therefore only waits for OpenGL if the
+ * ring is too short to cover the time the copy takes.
+ * <p>
+ * If the {@link FrameReader} is given a directory each frame is also written
+ * to it as a PNG image named by the number of the frame. The images are
+ * encoded on a background thread; once too many are waiting the render thread
+ * encodes the next itself so that the waiting frames cannot use up the heap.
+ * <p>
+ * Every method must be called on the render thread, where there is a current
+ * OpenGL context that supports OpenGL 2.1.
+ *
+ * @author Joshua_Eddy
+ * @see Framebuffer
+ *
+ */
+public final class FrameReader {
+
+	/**
+	 * The number of images that may wait to be written before the render thread
+	 * writes them itself.
+	 */
+	private static final int MAX_PENDING_IMAGES = 8;
+
+	/**
+	 * The OpenGL names of the pixel buffer objects in the ring.
+	 */
+	private final int[] bufferIDs;
+
+	/**
+	 * The number of the frame being copied into each pixel buffer object, or -1
+	 * if it holds no frame.
+	 */
+	private final long[] pending;
+
+	/**
+	 * The width of each frame in pixels.
+	 */
+	private final int width;
+
+	/**
+	 * The height of each frame in pixels.
+	 */
+	private final int height;
+
+	/**
+	 * The directory the images are written to. Null if no images are written.
+	 */
+	private final File directory;
+
+	/**
+	 * The thread that encodes and writes the images. Null if no images are
+	 * written.
+	 */
+	private final ThreadPoolExecutor writer;
+
+	/**
+	 * The number of frames that have been copied into the ring.
+	 */
+	private long copied;
+
+	/**
+	 * The number of frames that have been read back from the ring.
+	 */
+	private long read;
+
+	/**
+	 * The mapping of the last pixel buffer object read, which OpenGL may reuse.
+	 */
+	private ByteBuffer mapped;
+
+	/**
+	 * The first error that stopped an image being written, or null.
+	 */
+	private volatile IOException failure;
+
+	/**
+	 * Constructs a new {@link FrameReader}.
+	 *
+	 * @param width
+	 *            The width of each frame in pixels. Greater than zero.
+	 * @param height
+	 *            The height of each frame in pixels. Greater than zero.
+	 * @param buffers
+	 *            The number of pixel buffer objects in the ring. At least two.
+	 * @param directory
+	 *            The directory the frames are written to as PNG images, which is
+	 *            created if it does not exist. If null the frames are read back
+	 *            but not written.
+	 * @throws IOException
+	 *             If the directory cannot be created.
+	 */
+	public FrameReader(int width, int height, int buffers, File directory) throws IOException {
+
+		if (width <= 0 || height <= 0) {
+			throw new IllegalArgumentException("Width and height must be greater than zero.");
+		}
+
+		if (buffers < 2) {
+			throw new IllegalArgumentException("There must be at least two pixel buffers.");
+		}
+
+		if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Could not create " + directory);
+		}
+
+		this.width = width;
+		this.height = height;
+		this.directory = directory;
+		this.bufferIDs = new int[buffers];
+		this.pending = new long[buffers];
+		this.copied = 0;
+		this.read = 0;
+
+		for (int index = 0; index < buffers; index++) {
+			bufferIDs[index] = GL15.glGenBuffers();
+			GL15.glBindBuffer(GL21.GL_PIXEL_PACK_BUFFER, bufferIDs[index]);
+			GL15.glBufferData(GL21.GL_PIXEL_PACK_BUFFER, (long) width * height * 4, GL15.GL_STREAM_READ);
+			pending[index] = -1;
+		}
+		GL15.glBindBuffer(GL21.GL_PIXEL_PACK_BUFFER, 0);
+
+		if (directory == null) {
+			writer = null;
+		} else {
+
+			// Once the queue is full the render thread writes the image itself.
+			writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+					new ArrayBlockingQueue<Runnable>(MAX_PENDING_IMAGES), new ThreadFactory() {
+
+						/**
+						 * Creates a daemon thread that writes images.
+						 */
+						@Override
+						public Thread newThread(Runnable runnable) {
+							Thread thread = new Thread(runnable, "Frame writer");
+							thread.setDaemon(true);
+							return thread;
+						}
+					}, new ThreadPoolExecutor.CallerRunsPolicy());
+		}
+	}
+
+	/**
+	 * Starts copying the frame that has just been drawn into the next pixel
+	 * buffer object of the ring, first reading back the frame that buffer
+	 * already holds.
+	 */
+	public void read() {
+
+		int index = (int) (copied % bufferIDs.length);
+
+		if (pending[index] >= 0) {
+			collect(index);
+		}
+
+		GL11.glPixelStorei(GL11.GL_PACK_ALIGNMENT, 1);
+		GL15.glBindBuffer(GL21.GL_PIXEL_PACK_BUFFER, bufferIDs[index]);
+		GL11.glReadPixels(0, 0, width, height, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, 0L);
+		GL15.glBindBuffer(GL21.GL_PIXEL_PACK_BUFFER, 0);
+
+		pending[index] = copied++;
+	}
+
+	/**
+	 * Reads back every frame still in the ring and waits for their images to be
+	 * written. The {@link FrameReader} cannot read any more frames afterwards.
+	 *
+	 * @throws IOException
+	 *             If an image could not be written.
+	 */
+	public void finish() throws IOException {
+
+		// Read the remaining frames back in the order they were drawn.
+		for (long frame = read; frame < copied; frame++) {
+			collect((int) (frame % bufferIDs.length));
+		}
+
+		if (writer != null) {
+			writer.shutdown();
+			try {
+				writer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while writing frames", e);
+			}
+		}
+
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * Deletes the pixel buffer objects from OpenGL and abandons any images that
+	 * have not been written. The {@link FrameReader} cannot be used afterwards.
+	 */
+	public void destroy() {
+
+		if (writer != null) {
+			writer.shutdownNow();
+		}
+
+		for (int bufferID : bufferIDs) {
+			GL15.glDeleteBuffers(bufferID);
+		}
+	}
+
+	/**
+	 * @return The number of frames that have been read back.
+	 */
+	public long getFrames() {
+		return read;
+	}
+
+	/**
+	 * Maps a specified pixel buffer object and reads back the frame it holds,
+	 * handing it to the {@link FrameReader#writer} if images are written.
+	 *
+	 * @param index
+	 *            The index of the pixel buffer object in the ring.
+	 */
+	private void collect(int index) {
+
+		GL15.glBindBuffer(GL21.GL_PIXEL_PACK_BUFFER, bufferIDs[index]);
+		mapped = GL15.glMapBuffer(GL21.GL_PIXEL_PACK_BUFFER, GL15.GL_READ_ONLY, mapped);
+
+		if (mapped != null && writer != null) {
+			write(pending[index], toPixels(mapped));
+		}
+
+		GL15.glUnmapBuffer(GL21.GL_PIXEL_PACK_BUFFER);
+		GL15.glBindBuffer(GL21.GL_PIXEL_PACK_BUFFER, 0);
+
+		pending[index] = -1;
+		read++;
+	}
+
+	/**
+	 * Copies the pixels of a frame out of OpenGL's memory, turning it the right
+	 * way up as OpenGL stores the bottom row first.
+	 *
+	 * @param bytes
+	 *            The red, green, blue and alpha bytes of each pixel of the frame.
+	 * @return The RGB value of each pixel from the top row down.
+	 */
+	private int[] toPixels(ByteBuffer bytes) {
+
+		int[] pixels = new int[width * height];
+
+		for (int row = 0; row < height; row++) {
+			int source = (height - 1 - row) * width * 4;
+			int target = row * width;
+			for (int column = 0; column < width; column++) {
+				int offset = source + (column * 4);
+				pixels[target + column] = ((bytes.get(offset) & 0xFF) << 16) | ((bytes.get(offset + 1) & 0xFF) << 8)
+						| (bytes.get(offset + 2) & 0xFF);
+			}
+		}
+
+		return pixels;
+	}
+
+	/**
+	 * Writes a frame to the {@link FrameReader#directory} as a PNG image on the
+	 * {@link FrameReader#writer}.
+	 *
+	 * @param frame
+	 *            The number of the frame.
+	 * @param pixels
+	 *            The RGB value of each pixel from the top row down.
+	 */
+	private void write(final long frame, final int[] pixels) {
+
+		writer.execute(new Runnable() {
+
+			/**
+			 * Encodes and writes the image.
+			 */
+			@Override
+			public void run() {
+
+				BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+				image.setRGB(0, 0, width, height, pixels, 0, width);
+
+				File file = new File(directory, String.format("frame%06d.png", frame));
+				try {
+					if (!ImageIO.write(image, "png", file)) {
+						throw new IOException("No PNG writer is available.");
+					}
+				} catch (IOException e) {
+					if (failure == null) {
+						failure = new IOException("Could not write " + file, e);
+					}
+				}
+			}
+		});
+	}
+
+}
@@ -0,0 +1,131 @@
+package snake3D.graphics;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL14;
+import org.lwjgl.opengl.GL30;
+
+/**
+ * Encapsulates an OpenGL framebuffer object with a colour and a depth
+ * renderbuffer so that a scene can be drawn without a window. The framebuffer
+ * is created when it is constructed so there must be a current OpenGL context
+ * that supports OpenGL 3.0.
+ * <p>
+ * The colour renderbuffer holds 8 bits for each of red, green, blue and alpha
+ * so that each pixel is read back as four bytes without conversion.
+ *
+ * @author Joshua_Eddy
+ * @see FrameReader
+ *
+ */
+public final class Framebuffer {
+
+	/**
+	 * The OpenGL name of this {@link Framebuffer}.
+	 */
+	private final int framebufferID;
+
+	/**
+	 * The OpenGL name of the renderbuffer that holds the colour of each pixel.
+	 */
+	private final int colourID;
+
+	/**
+	 * The OpenGL name of the renderbuffer that holds the depth of each pixel.
+	 */
+	private final int depthID;
+
+	/**
+	 * The width of this {@link Framebuffer} in pixels.
+	 */
+	private final int width;
+
+	/**
+	 * The height of this {@link Framebuffer} in pixels.
+	 */
+	private final int height;
+
+	/**
+	 * Constructs a new {@link Framebuffer} of a specified size.
+	 *
+	 * @param width
+	 *            The width in pixels. Greater than zero.
+	 * @param height
+	 *            The height in pixels. Greater than zero.
+	 * @throws IllegalStateException
+	 *             If the context cannot draw into the {@link Framebuffer}.
+	 */
+	public Framebuffer(int width, int height) {
+
+		if (width <= 0 || height <= 0) {
+			throw new IllegalArgumentException("Width and height must be greater than zero.");
+		}
+
+		this.width = width;
+		this.height = height;
+
+		colourID = GL30.glGenRenderbuffers();
+		GL30.glBindRenderbuffer(GL30.GL_RENDERBUFFER, colourID);
+		GL30.glRenderbufferStorage(GL30.GL_RENDERBUFFER, GL11.GL_RGBA8, width, height);
+
+		depthID = GL30.glGenRenderbuffers();
+		GL30.glBindRenderbuffer(GL30.GL_RENDERBUFFER, depthID);
+		GL30.glRenderbufferStorage(GL30.GL_RENDERBUFFER, GL14.GL_DEPTH_COMPONENT24, width, height);
+		GL30.glBindRenderbuffer(GL30.GL_RENDERBUFFER, 0);
+
+		framebufferID = GL30.glGenFramebuffers();
+		GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, framebufferID);
+		GL30.glFramebufferRenderbuffer(GL30.GL_FRAMEBUFFER, GL30.GL_COLOR_ATTACHMENT0, GL30.GL_RENDERBUFFER,
+				colourID);
+		GL30.glFramebufferRenderbuffer(GL30.GL_FRAMEBUFFER, GL30.GL_DEPTH_ATTACHMENT, GL30.GL_RENDERBUFFER,
+				depthID);
+
+		int status = GL30.glCheckFramebufferStatus(GL30.GL_FRAMEBUFFER);
+		GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+
+		if (status != GL30.GL_FRAMEBUFFER_COMPLETE) {
+			destroy();
+			throw new IllegalStateException("Framebuffer is incomplete: 0x" + Integer.toHexString(status));
+		}
+	}
+
+	/**
+	 * Makes this {@link Framebuffer} the target of drawing and reading, and sets
+	 * the viewport to cover it.
+	 */
+	public void bind() {
+		GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, framebufferID);
+		GL11.glViewport(0, 0, width, height);
+	}
+
+	/**
+	 * Restores the default framebuffer of the context.
+	 */
+	public void release() {
+		GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+	}
+
+	/**
+	 * Deletes this {@link Framebuffer} and its renderbuffers from OpenGL. The
+	 * {@link Framebuffer} cannot be used afterwards.
+	 */
+	public void destroy() {
+		GL30.glDeleteFramebuffers(framebufferID);
+		GL30.glDeleteRenderbuffers(colourID);
+		GL30.glDeleteRenderbuffers(depthID);
+	}
+
+	/**
+	 * @return The width of this {@link Framebuffer} in pixels.
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return The height of this {@link Framebuffer} in pixels.
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+}
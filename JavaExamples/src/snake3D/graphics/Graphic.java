@@ -6,13 +6,16 @@
  */
 package snake3D.graphics;
 
+import java.io.File;
+
+import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.Display;
 import org.lwjgl.opengl.DisplayMode;
 import org.lwjgl.opengl.GL11;
-import org.lwjgl.util.glu.GLU;
+import org.lwjgl.opengl.GLContext;
+import org.lwjgl.opengl.Pbuffer;
+import org.lwjgl.opengl.PixelFormat;
 import org.newdawn.slick.opengl.Texture;
-import org.newdawn.slick.opengl.TextureLoader;
-import org.newdawn.slick.util.ResourceLoader;
 import org.lwjgl.input.Keyboard;
 
 /**
@@ -42,6 +45,36 @@ public abstract class Graphic {
 	 */
 	public static final int WINDOWED = 1;
 
+	/**
+	 * The number of times per second that {@link Graphic#updateScene()} is called
+	 * regardless of how quickly frames are rendered.
+	 */
+	public static final int UPDATES_PER_SECOND = 60;
+
+	/**
+	 * The number of nanoseconds of real time that pass between each call of
+	 * {@link Graphic#updateScene()}.
+	 */
+	private static final long NANOS_PER_UPDATE = 1000000000L / UPDATES_PER_SECOND;
+
+	/**
+	 * The most real time in nanoseconds that a single frame will catch up on. This
+	 * stops a long stall, such as dragging the window, causing a burst of updates.
+	 */
+	private static final long MAX_FRAME_NANOS = 250000000L;
+
+	/**
+	 * The number of bytes of texture memory that the loaded textures may take up
+	 * before the least recently used are released.
+	 */
+	private static final long TEXTURE_CACHE_BYTES = 64L * 1024 * 1024;
+
+	/**
+	 * The number of pixel buffer objects that frames rendered off screen are read
+	 * back through, so that each is read two frames after it was drawn.
+	 */
+	private static final int PIXEL_BUFFERS = 3;
+
 	/**
 	 * Whether the games main loop is running or not.
 	 */
@@ -64,6 +97,12 @@ public abstract class Graphic {
 	 */
 	protected DisplayMode displayMode;
 
+	/**
+	 * The {@link Window} the games display is created from, whose size is also
+	 * used when rendering off screen.
+	 */
+	private final Window window;
+
 	/**
 	 * The width height ratio.
 	 */
@@ -91,6 +130,67 @@ public abstract class Graphic {
 	 */
 	private float animationScale;
 
+	/**
+	 * How far, as a fraction of an update, the current frame is between the last
+	 * update and the next. Used to interpolate the rendered scene between
+	 * updates.
+	 */
+	private float interpolation;
+
+	/**
+	 * The number of updates that have been run since the application loop began.
+	 */
+	private long updates;
+
+	/**
+	 * The maximum number of frames rendered per second. Zero or less means that
+	 * the frame rate is not capped.
+	 */
+	private int frameCap;
+
+	/**
+	 * Whether each frame waits for the vertical refresh of the display.
+	 */
+	private boolean vSyncEnabled;
+
+	/**
+	 * The projection of the camera. Only recomputed when the
+	 * {@link Graphic#viewingAxisDistance} or the window ratio change.
+	 */
+	private final Matrix projection;
+
+	/**
+	 * The viewpoint of the camera. Only recomputed when the
+	 * {@link Graphic#viewingAxisDistance} changes.
+	 */
+	private final Matrix view;
+
+	/**
+	 * The product of the {@link Graphic#projection} and {@link Graphic#view}.
+	 */
+	private final Matrix camera;
+
+	/**
+	 * The {@link Graphic#viewingAxisDistance} the camera was last computed for.
+	 */
+	private float cameraDistance;
+
+	/**
+	 * The window ratio the camera was last computed for.
+	 */
+	private float cameraRatio;
+
+	/**
+	 * The direct buffer used to load the camera into the matrix stack.
+	 */
+	private final java.nio.FloatBuffer cameraUpload;
+
+	/**
+	 * The {@link TextureCache} that decodes and keeps the textures loaded by the
+	 * scene.
+	 */
+	private final TextureCache textures;
+
 	/**
 	 * Constructs a new {@link Graphic}.
 	 */
@@ -100,7 +200,20 @@ public abstract class Graphic {
 		viewingAxisDistanceMax = 100.0f;
 		viewingAxisDistance = 1.0f;
 		viewingMode = WINDOWED;
+		this.window = window;
 		displayMode = window.displayMode;
+		interpolation = 0.0f;
+		updates = 0;
+		frameCap = 60;
+		vSyncEnabled = true;
+		projection = new Matrix();
+		view = new Matrix();
+		camera = new Matrix();
+		cameraDistance = Float.NaN;
+		cameraRatio = Float.NaN;
+		cameraUpload = BufferUtils.createFloatBuffer(16);
+		textures = new TextureCache(TEXTURE_CACHE_BYTES,
+				Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
 	}
 
 	/**
@@ -148,6 +261,62 @@ public abstract class Graphic {
 		this.animationScale = animationScale;
 	}
 
+	/**
+	 * Retrieves the number of seconds of animation that each call of
+	 * {@link Graphic#updateScene()} represents. This is the real time between
+	 * updates scaled by the {@link Graphic#getAnimationScale()}.
+	 * 
+	 * @return seconds of animation per update
+	 */
+	public final float getTimeStep() {
+		return (NANOS_PER_UPDATE / 1000000000.0f) * animationScale;
+	}
+
+	/**
+	 * Retrieves how much time the updates of the scene have simulated. Unlike
+	 * {@link System#nanoTime()} this advances by exactly the same amount for every
+	 * update so anything scheduled from it is deterministic.
+	 * 
+	 * @return nanoseconds simulated since the application loop began
+	 */
+	public final long getSimulationTime() {
+		return updates * NANOS_PER_UPDATE;
+	}
+
+	/**
+	 * @return how far, as a fraction of an update between zero and one, the frame
+	 *         being rendered is past the last update
+	 */
+	public final float getInterpolation() {
+		return interpolation;
+	}
+
+	/**
+	 * Sets the maximum number of frames rendered per second.
+	 * 
+	 * @param frameCap
+	 *            the new frame cap, zero or less to render as many frames as
+	 *            possible
+	 */
+	public final void setFrameCap(int frameCap) {
+		this.frameCap = frameCap;
+	}
+
+	/**
+	 * Sets whether each frame waits for the vertical refresh of the display.
+	 * 
+	 * @param vSyncEnabled
+	 *            whether vertical synchronisation is enabled
+	 */
+	public final void setVSyncEnabled(boolean vSyncEnabled) {
+		this.vSyncEnabled = vSyncEnabled;
+
+		// If the window already exists apply the change immediately.
+		if (Display.isCreated()) {
+			Display.setVSyncEnabled(vSyncEnabled);
+		}
+	}
+
 	/**
 	 * Runs the deriving lab sample by handing runtime control over to GraphicsLab's
 	 * application loop
@@ -169,16 +338,38 @@ public abstract class Graphic {
 		try {
 			// initialise the application and lab sample
 			init();
+
+			// the real time that has passed which has yet to be simulated by updates
+			long lag = 0;
+			long previousTime = System.nanoTime();
+
 			while (running) {
+				long currentTime = System.nanoTime();
+				lag += Math.min(currentTime - previousTime, MAX_FRAME_NANOS);
+				previousTime = currentTime;
+
 				// check for user input
 				checkInput();
 
-				// update everything for this frame
-				setSceneCamera();
-				updateScene();
+				// update everything in fixed steps until the scene has caught up with real time
+				while (lag >= NANOS_PER_UPDATE) {
+					updates++;
+					updateScene();
+					lag -= NANOS_PER_UPDATE;
+				}
+				interpolation = (float) lag / NANOS_PER_UPDATE;
+
+				// upload any textures that have been decoded in the background
+				textures.upload();
 
 				// render this frame
+				setSceneCamera();
 				renderFrame();
+
+				// wait so that the frame rate does not exceed the cap
+				if (frameCap > 0) {
+					Display.sync(frameCap);
+				}
 			}
 			// allow the application to perform any last-minute actions
 			cleanup();
@@ -188,6 +379,99 @@ public abstract class Graphic {
 		}
 	}
 
+	/**
+	 * Renders a fixed number of frames of the scene into an off-screen
+	 * framebuffer rather than the application's display, so that the rendering
+	 * can be measured without a window. Each frame is read back through a ring
+	 * of pixel buffer objects by a {@link FrameReader}, as a capture would be,
+	 * and is optionally written as a PNG image. The number of frames rendered per
+	 * second is printed and returned
+	 * 
+	 * <p>
+	 * The scene is updated exactly once per frame and drawn with no
+	 * interpolation, so the same scene always produces the same frames however
+	 * fast they are rendered. No user input is checked. The context is a 1x1
+	 * pixel buffer that is only used to hold the framebuffer object, so this
+	 * needs OpenGL 3.0 but no display mode; on a Linux machine without a screen
+	 * it can be run under Xvfb with Mesa's software rasteriser
+	 * </p>
+	 * 
+	 * @param frames
+	 *            The number of frames to render. Greater than zero
+	 * @param captureDirectory
+	 *            The directory each frame is written to as a PNG image. If null
+	 *            the frames are read back but not written, and the frame rate
+	 *            only measures rendering and read back
+	 * @return The number of frames rendered per second, excluding initialising
+	 *         the scene
+	 * @throws Exception
+	 *             If the context cannot be created or does not support
+	 *             rendering off screen, or a frame cannot be written
+	 */
+	public final double runHeadless(int frames, File captureDirectory) throws Exception {
+
+		if (frames <= 0) {
+			throw new IllegalArgumentException("There must be at least one frame.");
+		}
+
+		if ((Pbuffer.getCapabilities() & Pbuffer.PBUFFER_SUPPORTED) == 0) {
+			throw new IllegalStateException("Pixel buffers are not supported.");
+		}
+
+		hwratio = (float) window.width / (float) window.height;
+
+		Pbuffer context = new Pbuffer(1, 1, new PixelFormat(), null);
+		try {
+			context.makeCurrent();
+
+			if (!GLContext.getCapabilities().OpenGL30) {
+				throw new IllegalStateException("Rendering off screen needs OpenGL 3.0.");
+			}
+
+			Framebuffer framebuffer = new Framebuffer(window.width, window.height);
+			FrameReader reader = null;
+			try {
+				reader = new FrameReader(window.width, window.height, PIXEL_BUFFERS, captureDirectory);
+
+				framebuffer.bind();
+				initState();
+				initScene();
+
+				long start = System.nanoTime();
+
+				for (int frame = 0; frame < frames; frame++) {
+					updates++;
+					updateScene();
+					interpolation = 0.0f;
+
+					textures.upload();
+					setSceneCamera();
+					drawFrame();
+					reader.read();
+				}
+
+				// every frame has been drawn once it has been read back
+				reader.finish();
+
+				double seconds = (System.nanoTime() - start) / 1000000000.0;
+				double framesPerSecond = frames / seconds;
+				System.out.println(String.format("Rendered %d frames of %dx%d in %.3f s: %.1f frames per second",
+						frames, window.width, window.height, seconds, framesPerSecond));
+
+				return framesPerSecond;
+			} finally {
+				cleanupScene();
+				textures.destroy();
+				if (reader != null) {
+					reader.destroy();
+				}
+				framebuffer.destroy();
+			}
+		} finally {
+			context.destroy();
+		}
+	}
+
 	/**
 	 * Creates application resources and sets some initial OpenGL states
 	 * 
@@ -199,13 +483,20 @@ public abstract class Graphic {
 		createWindow();
 		// IL.create();
 
+		initState();
+
+		// initialise the sample's scene
+		initScene();
+	}
+
+	/**
+	 * Sets the initial OpenGL states of the current context
+	 */
+	private void initState() {
 		// set OpenGL's clear colour, depth settings, and enable back face culling
 		GL11.glClearColor(0.0f, 0.0f, 0.0f, 0.0f);
 		GL11.glDepthFunc(GL11.GL_LEQUAL);
 		GL11.glEnable(GL11.GL_DEPTH_TEST);
-
-		// initialise the sample's scene
-		initScene();
 	}
 
 	/**
@@ -222,6 +513,7 @@ public abstract class Graphic {
 		Display.setDisplayMode(displayMode);
 		Display.setTitle(windowTitle);
 		Display.create();
+		Display.setVSyncEnabled(vSyncEnabled);
 	}
 
 	/**
@@ -249,23 +541,47 @@ public abstract class Graphic {
 	 * Sets default values for the sample's viewpoint and projection settings. This
 	 * behaviour may be overriden by each sample to provide customised camera
 	 * control; alternatively, deriving classes may call super.setSceneCamera and
-	 * then provide custom camera position and orientation
+	 * then provide custom camera position and orientation. The camera is only
+	 * recomputed when the viewing distance or window ratio have changed and is
+	 * otherwise loaded from the last time it was computed
 	 */
 	protected void setSceneCamera() {
-		// default projection is a perspective projection with a 90 (45*2) degree field
-		// of view, width/height
-		// aspect ratio and visible range of 0.1 to 100.0 scene units
+
+		if (viewingAxisDistance != cameraDistance || hwratio != cameraRatio) {
+			cameraDistance = viewingAxisDistance;
+			cameraRatio = hwratio;
+
+			// default projection is an orthographic projection with a width/height
+			// aspect ratio and visible range of 0.1 to 100.0 scene units
+			projection.setOrtho(-viewingAxisDistance * hwratio, viewingAxisDistance * hwratio,
+					-viewingAxisDistance, viewingAxisDistance, 0.1f, 100.0f);
+
+			// default viewpoint is positioned along the X axis facing the scene origin
+			view.setLookAt(viewingAxisDistance, 0.0f, 0.0f, 0.0f, 0.0f, 0.0f, 0.0f, 1.0f, 0.0f);
+
+			camera.setProduct(projection, view);
+			cameraChanged(camera);
+		}
+
 		GL11.glMatrixMode(GL11.GL_PROJECTION);
-		GL11.glLoadIdentity();
-		GL11.glOrtho(-viewingAxisDistance * hwratio, viewingAxisDistance * hwratio, -viewingAxisDistance,
-				viewingAxisDistance, 0.1f, 100.0f);
+		projection.store(cameraUpload);
+		GL11.glLoadMatrix(cameraUpload);
 
-		// default viewpoint is positioned at the scene origin facing along the negative
-		// Z axis
 		GL11.glMatrixMode(GL11.GL_MODELVIEW);
-		GL11.glLoadIdentity();
-		GLU.gluLookAt(viewingAxisDistance, 0.0f, 0.0f, 0.0f, 0.0f, 0.0f, 0.0f, 1.0f, 0.0f);
+		view.store(cameraUpload);
+		GL11.glLoadMatrix(cameraUpload);
+	}
 
+	/**
+	 * Called each time the camera is recomputed so that a scene drawn without
+	 * the fixed function matrix stack, such as by a {@link SceneShader}, can
+	 * follow it. Does nothing unless overridden
+	 * 
+	 * @param camera
+	 *            the product of the projection and viewpoint of the camera, which
+	 *            is only valid until the camera is next recomputed
+	 */
+	protected void cameraChanged(Matrix camera) {
 	}
 
 	/**
@@ -273,6 +589,16 @@ public abstract class Graphic {
 	 * is in use, appropriate axis lines will also be drawn
 	 */
 	private void renderFrame() {
+		drawFrame();
+
+		// inform the display that this frame is ready for rendering to screen
+		Display.update();
+	}
+
+	/**
+	 * Draws a single frame into the current framebuffer
+	 */
+	private void drawFrame() {
 		// clear the previous frame from the display
 		GL11.glClear(GL11.GL_COLOR_BUFFER_BIT | GL11.GL_DEPTH_BUFFER_BIT);
 
@@ -289,9 +615,6 @@ public abstract class Graphic {
 			renderScene();
 		}
 		GL11.glPopMatrix();
-
-		// inform the display that this frame is ready for rendering to screen
-		Display.update();
 	}
 
 	/**
@@ -332,9 +655,18 @@ public abstract class Graphic {
 	 * destroyed
 	 */
 	private void cleanup() {
+		cleanupScene();
+		textures.destroy();
 		Display.destroy();
 	}
 
+	/**
+	 * Releases any resources held by the scene before the display is destroyed.
+	 * Does nothing unless overridden
+	 */
+	protected void cleanupScene() {
+	}
+
 	/**
 	 * Initialises the scene
 	 */
@@ -346,34 +678,39 @@ public abstract class Graphic {
 	protected abstract void checkSceneInput();
 
 	/**
-	 * Updates the scene
+	 * Updates the scene by one fixed step of {@link Graphic#getTimeStep()}
+	 * seconds. Called {@link Graphic#UPDATES_PER_SECOND} times a second
+	 * regardless of the frame rate
 	 */
 	protected abstract void updateScene();
 
 	/**
-	 * Renders the scene
+	 * Renders the scene. Deriving classes should use
+	 * {@link Graphic#getInterpolation()} to draw the scene between its last two
+	 * updates
 	 */
 	protected abstract void renderScene();
 
 	/**
-	 * Loads a texture from a given image file. Note: when using this function,
+	 * Loads a texture from a given BMP image file. Note: when using this function,
 	 * prefer to use square textures whose width and height are both a power of 2;
 	 * otherwise, your graphics card may not support the texture, or it may affect
 	 * the performance of your animated scenes
 	 * 
 	 * <p>
-	 * Texture loading code adapted from LWJGL documentation of the Slick-util
-	 * library
+	 * The texture is cached, so loading the same path again does not decode it
+	 * again while it is cached. If it is already being decoded in the background
+	 * this waits for it to finish
 	 * </p>
 	 * 
 	 * @param path
 	 *            The absolute or relative path of the image file to load as a
 	 *            texture
 	 * @return A Texture object
+	 * @see Graphic#loadTexture(String, String)
 	 */
 	protected final Texture loadTexture(String path) throws Exception {
-		Texture tex = TextureLoader.getTexture("BMP", ResourceLoader.getResourceAsStream(path), true);
-		return tex;
+		return loadTexture(path, "BMP");
 	}
 
 	/**
@@ -383,8 +720,12 @@ public abstract class Graphic {
 	 * the performance of your animated scenes
 	 * 
 	 * <p>
-	 * Texture loading code adapted from LWJGL documentation of the Slick-util
-	 * library
+	 * The image is decoded on a background thread and only uploaded on the
+	 * render thread. The texture is kept in a cache keyed by the path and image
+	 * type that releases the least recently used textures once they take up too
+	 * much texture memory, so the texture should be loaded each time it is used
+	 * rather than kept. Loading a cached texture is cheap; if it is already
+	 * being decoded this waits for it to finish
 	 * </p>
 	 * 
 	 * @param path
@@ -393,10 +734,40 @@ public abstract class Graphic {
 	 * @param imageType
 	 *            The type of image, e.g. "BMP", "JPG", "PNG"
 	 * @return A Texture object
+	 * @see Graphic#requestTexture(String, String)
 	 */
 	protected final Texture loadTexture(String path, String imageType) throws Exception {
-		Texture tex = TextureLoader.getTexture(imageType, ResourceLoader.getResourceAsStream(path), true);
-		return tex;
+		return textures.load(path, imageType);
+	}
+
+	/**
+	 * Starts decoding a texture from a given image file in the background so that
+	 * a later {@link Graphic#loadTexture(String, String)} or
+	 * {@link Graphic#getTexture(String, String)} of it does not stall a frame.
+	 * Does nothing if the texture is already cached or being decoded
+	 * 
+	 * @param path
+	 *            The absolute or relative path of the image file
+	 * @param imageType
+	 *            The type of image, e.g. "BMP", "JPG", "PNG"
+	 */
+	protected final void requestTexture(String path, String imageType) {
+		textures.request(path, imageType);
+	}
+
+	/**
+	 * Retrieves a texture from a given image file if it has been decoded,
+	 * otherwise starts decoding it in the background. Never waits for the image
+	 * to be decoded, so the scene can draw without the texture until it is ready
+	 * 
+	 * @param path
+	 *            The absolute or relative path of the image file
+	 * @param imageType
+	 *            The type of image, e.g. "BMP", "JPG", "PNG"
+	 * @return A Texture object, or null if the image is still being decoded
+	 */
+	protected final Texture getTexture(String path, String imageType) throws Exception {
+		return textures.get(path, imageType);
 	}
 
 }
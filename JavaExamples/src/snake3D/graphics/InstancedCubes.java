@@ -0,0 +1,331 @@
+package snake3D.graphics;
+
+import java.util.Arrays;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL31;
+import org.lwjgl.opengl.GL33;
+
+/**
+ * Draws many axis aligned boxes with a single instanced draw call. One unit
+ * cube mesh is kept on the GPU and every box is described by a single instance
+ * made up of its offset, scale and {@link Colour}.
+ * <p>
+ * The buffer objects and {@link ShaderProgram} are only created once the
+ * {@link InstancedCubes} are first drawn as there must be a current OpenGL
+ * context. Requires OpenGL 3.3.
+ *
+ * @author Joshua_Eddy
+ * @see GL31#glDrawArraysInstanced(int, int, int, int)
+ * @see GL33#glVertexAttribDivisor(int, int)
+ *
+ */
+public final class InstancedCubes {
+
+	/**
+	 * The vertex shader that scales and offsets the unit cube by the instance
+	 * attributes.
+	 */
+	private static final String VERTEX_SHADER = "#version 120\n"
+			+ "attribute vec3 position;\n"
+			+ "attribute vec3 offset;\n"
+			+ "attribute vec3 scale;\n"
+			+ "attribute vec3 colour;\n"
+			+ "varying vec3 fragmentColour;\n"
+			+ "void main() {\n"
+			+ "    fragmentColour = colour;\n"
+			+ "    gl_Position = gl_ModelViewProjectionMatrix * vec4(offset + (position * scale), 1.0);\n"
+			+ "}\n";
+
+	/**
+	 * The fragment shader that fills each cube with its instance colour.
+	 */
+	private static final String FRAGMENT_SHADER = "#version 120\n"
+			+ "varying vec3 fragmentColour;\n"
+			+ "void main() {\n"
+			+ "    gl_FragColor = vec4(fragmentColour, 1.0);\n"
+			+ "}\n";
+
+	/**
+	 * The attribute location of the unit cube vertex position.
+	 */
+	private static final int POSITION = 0;
+
+	/**
+	 * The attribute location of the instance offset.
+	 */
+	private static final int OFFSET = 1;
+
+	/**
+	 * The attribute location of the instance scale.
+	 */
+	private static final int SCALE = 2;
+
+	/**
+	 * The attribute location of the instance colour.
+	 */
+	private static final int COLOUR = 3;
+
+	/**
+	 * The number of <code>float</code>s that make up a single instance. Three for
+	 * each of the offset, scale and colour.
+	 */
+	private static final int FLOATS_PER_INSTANCE = 9;
+
+	/**
+	 * The number of bytes between the start of one instance and the next in the
+	 * instance buffer object.
+	 */
+	private static final int STRIDE = FLOATS_PER_INSTANCE * Float.BYTES;
+
+	/**
+	 * The number of instances the {@link InstancedCubes} can hold before it must
+	 * grow.
+	 */
+	private static final int INITIAL_CAPACITY = 256;
+
+	/**
+	 * The 8 corners of the unit cube. Ordered as the lower corners followed by the
+	 * upper corners in the same order as {@link Polygon#CUBE}.
+	 */
+	private static final float[][] CORNERS = { { 1, 1, 0 }, { 1, 0, 0 }, { 0, 0, 0 }, { 0, 1, 0 }, { 1, 1, 1 },
+			{ 1, 0, 1 }, { 0, 0, 1 }, { 0, 1, 1 } };
+
+	/**
+	 * The indexes into {@link InstancedCubes#CORNERS} of the four corners of each
+	 * face of the unit cube. Ordered near, left, right, top, bottom and far.
+	 */
+	private static final int[][] FACES = { { 2, 1, 0, 3 }, { 1, 5, 4, 0 }, { 6, 2, 3, 7 }, { 6, 5, 1, 2 },
+			{ 3, 0, 4, 7 }, { 5, 6, 7, 4 } };
+
+	/**
+	 * The number of vertices in the unit cube mesh. Each face is made of two
+	 * triangles.
+	 */
+	private static final int MESH_VERTICES = FACES.length * 6;
+
+	/**
+	 * The per instance data of this {@link InstancedCubes}.
+	 */
+	private float[] instances;
+
+	/**
+	 * The number of <code>float</code>s in {@link InstancedCubes#instances} that
+	 * are in use.
+	 */
+	private int size;
+
+	/**
+	 * The OpenGL name of the buffer object that holds the unit cube mesh.
+	 */
+	private int meshID;
+
+	/**
+	 * The OpenGL name of the buffer object that holds the instances.
+	 */
+	private int instanceID;
+
+	/**
+	 * The {@link ShaderProgram} that positions and colours each instance.
+	 */
+	private ShaderProgram program;
+
+	/**
+	 * Whether {@link InstancedCubes#instances} has changed since it was last sent
+	 * to the instance buffer object.
+	 */
+	private boolean modified;
+
+	/**
+	 * The OpenGL usage hint passed when the data is sent to the instance
+	 * buffer object.
+	 */
+	private final int usage;
+
+	/**
+	 * Constructs a new empty {@link InstancedCubes} whose contents are expected to
+	 * change often.
+	 */
+	public InstancedCubes() {
+		this(false);
+	}
+
+	/**
+	 * Constructs a new empty {@link InstancedCubes}.
+	 *
+	 * @param isStatic
+	 *            Whether the contents will rarely change once they have been drawn.
+	 *            Static contents are kept by OpenGL in memory optimised for
+	 *            drawing many times.
+	 */
+	public InstancedCubes(boolean isStatic) {
+		this.instances = new float[INITIAL_CAPACITY * FLOATS_PER_INSTANCE];
+		this.size = 0;
+		this.modified = true;
+		this.usage = isStatic ? GL15.GL_STATIC_DRAW : GL15.GL_DYNAMIC_DRAW;
+	}
+
+	/**
+	 * Removes all the instances from this {@link InstancedCubes}.
+	 */
+	public void clear() {
+		size = 0;
+		modified = true;
+	}
+
+	/**
+	 * Adds an axis aligned box to this {@link InstancedCubes}.
+	 *
+	 * @param colour
+	 *            {@link Colour} of the box.
+	 * @param x
+	 *            <code>float</code> x coordinate of the box.
+	 * @param y
+	 *            <code>float</code> y coordinate of the box.
+	 * @param z
+	 *            <code>float</code> z coordinate of the box.
+	 * @param width
+	 *            <code>float</code> width of the box.
+	 * @param height
+	 *            <code>float</code> height of the box.
+	 * @param depth
+	 *            <code>float</code> depth of the box.
+	 */
+	public void add(Colour colour, float x, float y, float z, float width, float height, float depth) {
+
+		// If the instances are full double their capacity.
+		if (size + FLOATS_PER_INSTANCE > instances.length) {
+			instances = Arrays.copyOf(instances, instances.length * 2);
+		}
+
+		instances[size++] = x;
+		instances[size++] = y;
+		instances[size++] = z;
+		instances[size++] = width;
+		instances[size++] = height;
+		instances[size++] = depth;
+		instances[size++] = colour.getRed();
+		instances[size++] = colour.getGreen();
+		instances[size++] = colour.getBlue();
+
+		modified = true;
+	}
+
+	/**
+	 * Draws all the instances in this {@link InstancedCubes} on the screen with a
+	 * single draw call. The instances are only sent to the GPU if they have been
+	 * modified since the last time this {@link InstancedCubes} was drawn.
+	 */
+	public void draw() {
+
+		// Create the GPU resources now that there is a context.
+		if (program == null) {
+			create();
+		}
+
+		program.use();
+
+		// The unit cube advances once per vertex.
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, meshID);
+		GL20.glEnableVertexAttribArray(POSITION);
+		GL20.glVertexAttribPointer(POSITION, 3, GL11.GL_FLOAT, false, 0, 0);
+
+		// The instance attributes advance once per cube.
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, instanceID);
+
+		if (modified) {
+			upload();
+		}
+
+		enableInstanceAttribute(OFFSET, 0);
+		enableInstanceAttribute(SCALE, 3);
+		enableInstanceAttribute(COLOUR, 6);
+
+		GL31.glDrawArraysInstanced(GL11.GL_TRIANGLES, 0, MESH_VERTICES, size / FLOATS_PER_INSTANCE);
+
+		disableInstanceAttribute(COLOUR);
+		disableInstanceAttribute(SCALE);
+		disableInstanceAttribute(OFFSET);
+		GL20.glDisableVertexAttribArray(POSITION);
+
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+		program.release();
+	}
+
+	/**
+	 * Creates the {@link ShaderProgram} and buffer objects and uploads the unit
+	 * cube mesh.
+	 */
+	private void create() {
+
+		program = new ShaderProgram(VERTEX_SHADER, FRAGMENT_SHADER, "position", "offset", "scale", "colour");
+
+		DirectBuffer buffer = DirectBuffer.allocateFloats(MESH_VERTICES * 3);
+		try {
+			java.nio.FloatBuffer mesh = buffer.getFloats();
+
+			// Split each face into two triangles.
+			for (int[] face : FACES) {
+				mesh.put(CORNERS[face[0]]).put(CORNERS[face[1]]).put(CORNERS[face[2]]);
+				mesh.put(CORNERS[face[0]]).put(CORNERS[face[2]]).put(CORNERS[face[3]]);
+			}
+			mesh.flip();
+
+			meshID = GL15.glGenBuffers();
+			GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, meshID);
+			GL15.glBufferData(GL15.GL_ARRAY_BUFFER, mesh, GL15.GL_STATIC_DRAW);
+		} finally {
+			buffer.release();
+		}
+
+		instanceID = GL15.glGenBuffers();
+	}
+
+	/**
+	 * Sends {@link InstancedCubes#instances} to the currently bound buffer object
+	 * through a {@link DirectBuffer} that is released once OpenGL has copied it.
+	 */
+	private void upload() {
+
+		DirectBuffer buffer = DirectBuffer.allocateFloats(size);
+		try {
+			buffer.getFloats().put(instances, 0, size).flip();
+			GL15.glBufferData(GL15.GL_ARRAY_BUFFER, buffer.getFloats(), usage);
+		} finally {
+			buffer.release();
+		}
+
+		modified = false;
+	}
+
+	/**
+	 * Enables a three component attribute that advances once per instance from
+	 * the currently bound buffer object.
+	 *
+	 * @param location
+	 *            The attribute location.
+	 * @param offset
+	 *            The number of <code>float</code>s from the start of an instance
+	 *            to the attribute.
+	 */
+	private static void enableInstanceAttribute(int location, int offset) {
+		GL20.glEnableVertexAttribArray(location);
+		GL20.glVertexAttribPointer(location, 3, GL11.GL_FLOAT, false, STRIDE, offset * Float.BYTES);
+		GL33.glVertexAttribDivisor(location, 1);
+	}
+
+	/**
+	 * Disables an attribute enabled by
+	 * {@link InstancedCubes#enableInstanceAttribute(int, int)}.
+	 *
+	 * @param location
+	 *            The attribute location.
+	 */
+	private static void disableInstanceAttribute(int location) {
+		GL33.glVertexAttribDivisor(location, 0);
+		GL20.glDisableVertexAttribArray(location);
+	}
+
+}
@@ -0,0 +1,263 @@
+package snake3D.graphics;
+
+/**
+ * A 4x4 transformation matrix computed on the CPU so that it can be passed to
+ * a {@link ShaderProgram} as a uniform or loaded into the fixed function
+ * matrix stack. The elements are held in column major order, as OpenGL
+ * expects, and each transformation multiplies the matrix on the right in the
+ * same way as the <code>GL11</code> matrix functions.
+ * <p>
+ * Every operation writes into the {@link Matrix} it is called on so that
+ * recomputing a transformation does not allocate any objects.
+ *
+ * @author Joshua_Eddy
+ * @see ShaderProgram
+ *
+ */
+public final class Matrix {
+
+	/**
+	 * The elements of this {@link Matrix} in column major order.
+	 */
+	private final float[] elements;
+
+	/**
+	 * The elements of the product of a multiplication before they are copied
+	 * into {@link Matrix#elements}, so that either matrix multiplied can be this
+	 * {@link Matrix}.
+	 */
+	private final float[] product;
+
+	/**
+	 * Constructs a new identity {@link Matrix}.
+	 */
+	public Matrix() {
+		this.elements = new float[16];
+		this.product = new float[16];
+		setIdentity();
+	}
+
+	/**
+	 * Sets this {@link Matrix} to the identity.
+	 *
+	 * @return This {@link Matrix}.
+	 */
+	public Matrix setIdentity() {
+		for (int index = 0; index < elements.length; index++) {
+			elements[index] = index % 5 == 0 ? 1 : 0;
+		}
+		return this;
+	}
+
+	/**
+	 * Sets this {@link Matrix} to a copy of a specified {@link Matrix}.
+	 *
+	 * @param matrix
+	 *            {@link Matrix} NOT NULL.
+	 * @return This {@link Matrix}.
+	 */
+	public Matrix set(Matrix matrix) {
+		System.arraycopy(matrix.elements, 0, elements, 0, elements.length);
+		return this;
+	}
+
+	/**
+	 * Sets this {@link Matrix} to the product of two specified {@link Matrix}s.
+	 * Either may be this {@link Matrix}.
+	 *
+	 * @param left
+	 *            The {@link Matrix} on the left. NOT NULL.
+	 * @param right
+	 *            The {@link Matrix} on the right. NOT NULL.
+	 * @return This {@link Matrix}.
+	 */
+	public Matrix setProduct(Matrix left, Matrix right) {
+
+		for (int column = 0; column < 4; column++) {
+			for (int row = 0; row < 4; row++) {
+				float sum = 0;
+				for (int index = 0; index < 4; index++) {
+					sum += left.elements[(index * 4) + row] * right.elements[(column * 4) + index];
+				}
+				product[(column * 4) + row] = sum;
+			}
+		}
+
+		System.arraycopy(product, 0, elements, 0, elements.length);
+		return this;
+	}
+
+	/**
+	 * Sets this {@link Matrix} to an orthographic projection in the same way as
+	 * <code>glOrtho</code>.
+	 *
+	 * @param left
+	 *            The left clipping plane.
+	 * @param right
+	 *            The right clipping plane.
+	 * @param bottom
+	 *            The bottom clipping plane.
+	 * @param top
+	 *            The top clipping plane.
+	 * @param near
+	 *            The near clipping plane.
+	 * @param far
+	 *            The far clipping plane.
+	 * @return This {@link Matrix}.
+	 */
+	public Matrix setOrtho(float left, float right, float bottom, float top, float near, float far) {
+		setIdentity();
+		elements[0] = 2 / (right - left);
+		elements[5] = 2 / (top - bottom);
+		elements[10] = -2 / (far - near);
+		elements[12] = -(right + left) / (right - left);
+		elements[13] = -(top + bottom) / (top - bottom);
+		elements[14] = -(far + near) / (far - near);
+		return this;
+	}
+
+	/**
+	 * Sets this {@link Matrix} to a viewing transformation in the same way as
+	 * <code>gluLookAt</code>.
+	 *
+	 * @param eyeX
+	 *            The x coordinate of the eye.
+	 * @param eyeY
+	 *            The y coordinate of the eye.
+	 * @param eyeZ
+	 *            The z coordinate of the eye.
+	 * @param centreX
+	 *            The x coordinate of the point looked at.
+	 * @param centreY
+	 *            The y coordinate of the point looked at.
+	 * @param centreZ
+	 *            The z coordinate of the point looked at.
+	 * @param upX
+	 *            The x component of the up direction.
+	 * @param upY
+	 *            The y component of the up direction.
+	 * @param upZ
+	 *            The z component of the up direction.
+	 * @return This {@link Matrix}.
+	 */
+	public Matrix setLookAt(float eyeX, float eyeY, float eyeZ, float centreX, float centreY, float centreZ,
+			float upX, float upY, float upZ) {
+
+		// The direction looked along.
+		float forwardX = centreX - eyeX;
+		float forwardY = centreY - eyeY;
+		float forwardZ = centreZ - eyeZ;
+		float length = (float) Math.sqrt((forwardX * forwardX) + (forwardY * forwardY) + (forwardZ * forwardZ));
+		forwardX /= length;
+		forwardY /= length;
+		forwardZ /= length;
+
+		// The direction to the side of the eye.
+		float sideX = (forwardY * upZ) - (forwardZ * upY);
+		float sideY = (forwardZ * upX) - (forwardX * upZ);
+		float sideZ = (forwardX * upY) - (forwardY * upX);
+		length = (float) Math.sqrt((sideX * sideX) + (sideY * sideY) + (sideZ * sideZ));
+		sideX /= length;
+		sideY /= length;
+		sideZ /= length;
+
+		// The up direction at right angles to both.
+		float trueUpX = (sideY * forwardZ) - (sideZ * forwardY);
+		float trueUpY = (sideZ * forwardX) - (sideX * forwardZ);
+		float trueUpZ = (sideX * forwardY) - (sideY * forwardX);
+
+		setIdentity();
+		elements[0] = sideX;
+		elements[4] = sideY;
+		elements[8] = sideZ;
+		elements[1] = trueUpX;
+		elements[5] = trueUpY;
+		elements[9] = trueUpZ;
+		elements[2] = -forwardX;
+		elements[6] = -forwardY;
+		elements[10] = -forwardZ;
+
+		return translate(-eyeX, -eyeY, -eyeZ);
+	}
+
+	/**
+	 * Multiplies this {@link Matrix} by a translation in the same way as
+	 * <code>glTranslatef</code>.
+	 *
+	 * @param x
+	 *            The distance along the x axis.
+	 * @param y
+	 *            The distance along the y axis.
+	 * @param z
+	 *            The distance along the z axis.
+	 * @return This {@link Matrix}.
+	 */
+	public Matrix translate(float x, float y, float z) {
+		for (int row = 0; row < 4; row++) {
+			elements[12 + row] += (elements[row] * x) + (elements[4 + row] * y) + (elements[8 + row] * z);
+		}
+		return this;
+	}
+
+	/**
+	 * Multiplies this {@link Matrix} by a rotation about an axis through the
+	 * origin in the same way as <code>glRotated</code>.
+	 *
+	 * @param degrees
+	 *            The angle of the rotation in degrees.
+	 * @param x
+	 *            The x component of the axis.
+	 * @param y
+	 *            The y component of the axis.
+	 * @param z
+	 *            The z component of the axis.
+	 * @return This {@link Matrix}.
+	 */
+	public Matrix rotate(double degrees, float x, float y, float z) {
+
+		float length = (float) Math.sqrt((x * x) + (y * y) + (z * z));
+		x /= length;
+		y /= length;
+		z /= length;
+
+		float cos = (float) Math.cos(Math.toRadians(degrees));
+		float sin = (float) Math.sin(Math.toRadians(degrees));
+		float versine = 1 - cos;
+
+		// The columns of the rotation.
+		float r0 = (x * x * versine) + cos;
+		float r1 = (y * x * versine) + (z * sin);
+		float r2 = (x * z * versine) - (y * sin);
+		float r4 = (x * y * versine) - (z * sin);
+		float r5 = (y * y * versine) + cos;
+		float r6 = (y * z * versine) + (x * sin);
+		float r8 = (x * z * versine) + (y * sin);
+		float r9 = (y * z * versine) - (x * sin);
+		float r10 = (z * z * versine) + cos;
+
+		for (int row = 0; row < 4; row++) {
+			float column0 = elements[row];
+			float column1 = elements[4 + row];
+			float column2 = elements[8 + row];
+			elements[row] = (column0 * r0) + (column1 * r1) + (column2 * r2);
+			elements[4 + row] = (column0 * r4) + (column1 * r5) + (column2 * r6);
+			elements[8 + row] = (column0 * r8) + (column1 * r9) + (column2 * r10);
+		}
+
+		return this;
+	}
+
+	/**
+	 * Writes the elements of this {@link Matrix} in column major order to the
+	 * start of a specified buffer, leaving it ready to be read.
+	 *
+	 * @param buffer
+	 *            The buffer that can hold at least 16 <code>float</code>s. NOT
+	 *            NULL.
+	 */
+	public void store(java.nio.FloatBuffer buffer) {
+		buffer.clear();
+		buffer.put(elements).flip();
+	}
+
+}
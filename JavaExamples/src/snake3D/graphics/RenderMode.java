@@ -0,0 +1,62 @@
+package snake3D.graphics;
+
+import org.lwjgl.opengl.GLContext;
+
+/**
+ * The ways in which the objects of the game can be sent to OpenGL to be drawn.
+ *
+ * @author Joshua_Eddy
+ * @see VertexBatch
+ * @see InstancedCubes
+ * @see SceneShader
+ *
+ */
+public enum RenderMode {
+
+	/**
+	 * Every face of every object is collected into one {@link VertexBatch}.
+	 */
+	BATCHED() {
+		/**
+		 * Whether vertex buffer objects are supported by the current context.
+		 */
+		@Override
+		public boolean isSupported() {
+			return GLContext.getCapabilities().OpenGL15;
+		}
+	},
+	/**
+	 * One unit cube is drawn once per object using {@link InstancedCubes}.
+	 */
+	INSTANCED() {
+		/**
+		 * Whether instanced arrays are supported by the current context.
+		 */
+		@Override
+		public boolean isSupported() {
+			return GLContext.getCapabilities().OpenGL33;
+		}
+	},
+	/**
+	 * Every face of every object is collected into one {@link VertexBatch} that
+	 * is drawn by a {@link SceneShader} rather than the fixed function pipeline.
+	 */
+	SHADED() {
+		/**
+		 * Whether GLSL shaders are supported by the current context.
+		 */
+		@Override
+		public boolean isSupported() {
+			return GLContext.getCapabilities().OpenGL20;
+		}
+	};
+
+	/**
+	 * Retrieves whether the current OpenGL context can draw using this
+	 * {@link RenderMode}. There must be a current OpenGL context.
+	 *
+	 * @return {@code Boolean}
+	 */
+	public abstract boolean isSupported();
+
+}
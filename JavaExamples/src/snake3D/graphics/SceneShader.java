@@ -0,0 +1,141 @@
+package snake3D.graphics;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL20;
+
+/**
+ * Draws {@link VertexBatch}s through a {@link ShaderProgram} rather than the
+ * fixed function pipeline. Every vertex is placed by a single transform
+ * uniform that is computed on the CPU as a {@link Matrix}, so nothing is read
+ * from the deprecated matrix stack. The uniform is only sent to the
+ * {@link ShaderProgram} when it has changed, as a program keeps its uniforms
+ * between uses.
+ * <p>
+ * The shaders are written in GLSL 1.20 using only generic vertex attributes so
+ * that they run on any OpenGL 2.0 context, including Mesa's software
+ * rasteriser. The {@link ShaderProgram} is only created once the
+ * {@link SceneShader} is first used as there must be a current OpenGL context.
+ *
+ * @author Joshua_Eddy
+ * @see VertexBatch#draw(int, int)
+ *
+ */
+public final class SceneShader {
+
+	/**
+	 * The vertex shader that places each vertex by the transform.
+	 */
+	private static final String VERTEX_SHADER = "#version 120\n"
+			+ "uniform mat4 transform;\n"
+			+ "attribute vec3 position;\n"
+			+ "attribute vec3 colour;\n"
+			+ "varying vec3 fragmentColour;\n"
+			+ "void main() {\n"
+			+ "    fragmentColour = colour;\n"
+			+ "    gl_Position = transform * vec4(position, 1.0);\n"
+			+ "}\n";
+
+	/**
+	 * The fragment shader that fills each face with its vertex colour.
+	 */
+	private static final String FRAGMENT_SHADER = "#version 120\n"
+			+ "varying vec3 fragmentColour;\n"
+			+ "void main() {\n"
+			+ "    gl_FragColor = vec4(fragmentColour, 1.0);\n"
+			+ "}\n";
+
+	/**
+	 * The attribute location of the vertex position.
+	 */
+	public static final int POSITION = 0;
+
+	/**
+	 * The attribute location of the vertex colour.
+	 */
+	public static final int COLOUR = 1;
+
+	/**
+	 * The transform from the coordinates of the vertices to clip space.
+	 */
+	private final Matrix transform;
+
+	/**
+	 * The direct buffer used to pass {@link SceneShader#transform} to OpenGL.
+	 */
+	private final java.nio.FloatBuffer upload;
+
+	/**
+	 * Whether {@link SceneShader#transform} has changed since it was last sent to
+	 * the {@link ShaderProgram}.
+	 */
+	private boolean modified;
+
+	/**
+	 * The {@link ShaderProgram} that places and colours each vertex. Null until
+	 * the {@link SceneShader} is first used.
+	 */
+	private ShaderProgram program;
+
+	/**
+	 * The location of the transform uniform in the {@link SceneShader#program}.
+	 */
+	private int transformLocation;
+
+	/**
+	 * Constructs a new {@link SceneShader} whose transform is the identity.
+	 */
+	public SceneShader() {
+		this.transform = new Matrix();
+		this.upload = BufferUtils.createFloatBuffer(16);
+		this.modified = true;
+	}
+
+	/**
+	 * Sets the transform applied to every vertex drawn while this
+	 * {@link SceneShader} is in use.
+	 *
+	 * @param transform
+	 *            The {@link Matrix} from the coordinates of the vertices to clip
+	 *            space, which is copied. NOT NULL.
+	 */
+	public void setTransform(Matrix transform) {
+
+		if (transform == null) {
+			throw new IllegalArgumentException("Transform cannot be null.");
+		}
+
+		this.transform.set(transform);
+		modified = true;
+	}
+
+	/**
+	 * Makes this {@link SceneShader} the current program, sending the transform
+	 * to it if it has changed.
+	 */
+	public void use() {
+
+		// Create the program now that there is a context.
+		if (program == null) {
+			program = new ShaderProgram(VERTEX_SHADER, FRAGMENT_SHADER, "position", "colour");
+			transformLocation = program.getUniformLocation("transform");
+		}
+
+		program.use();
+
+		if (modified) {
+			transform.store(upload);
+			GL20.glUniformMatrix4(transformLocation, false, upload);
+			modified = false;
+		}
+	}
+
+	/**
+	 * Restores the fixed function pipeline.
+	 */
+	public void release() {
+		if (program != null) {
+			program.release();
+		}
+	}
+
+}
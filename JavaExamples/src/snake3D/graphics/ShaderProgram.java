@@ -0,0 +1,131 @@
+package snake3D.graphics;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL20;
+
+/**
+ * Encapsulates an OpenGL shader program made up of a vertex shader and a
+ * fragment shader. The program is compiled and linked when it is constructed
+ * so there must be a current OpenGL context.
+ *
+ * @author Joshua_Eddy
+ * @see GL20
+ *
+ */
+public final class ShaderProgram {
+
+	/**
+	 * The OpenGL name of this {@link ShaderProgram}.
+	 */
+	private final int programID;
+
+	/**
+	 * Constructs a new {@link ShaderProgram} by compiling and linking a specified
+	 * vertex and fragment shader source. The vertex attributes are bound to the
+	 * index of their name in the specified attribute array before linking.
+	 *
+	 * @param vertexSource
+	 *            The GLSL source of the vertex shader.
+	 * @param fragmentSource
+	 *            The GLSL source of the fragment shader.
+	 * @param attributes
+	 *            The names of the vertex attributes in the order of their
+	 *            location.
+	 * @throws IllegalStateException
+	 *             If either shader fails to compile or the program fails to link.
+	 */
+	public ShaderProgram(String vertexSource, String fragmentSource, String... attributes) {
+
+		int vertexShader = compile(GL20.GL_VERTEX_SHADER, vertexSource);
+
+		// Do not leak the vertex shader if the fragment shader fails to compile.
+		int fragmentShader;
+		try {
+			fragmentShader = compile(GL20.GL_FRAGMENT_SHADER, fragmentSource);
+		} catch (IllegalStateException e) {
+			GL20.glDeleteShader(vertexShader);
+			throw e;
+		}
+
+		programID = GL20.glCreateProgram();
+		GL20.glAttachShader(programID, vertexShader);
+		GL20.glAttachShader(programID, fragmentShader);
+
+		// Fix the location of each attribute so that they can be referred to by
+		// index.
+		for (int index = 0; index < attributes.length; index++) {
+			GL20.glBindAttribLocation(programID, index, attributes[index]);
+		}
+
+		GL20.glLinkProgram(programID);
+
+		// The shaders are no longer needed once they are part of the program.
+		GL20.glDeleteShader(vertexShader);
+		GL20.glDeleteShader(fragmentShader);
+
+		if (GL20.glGetProgrami(programID, GL20.GL_LINK_STATUS) == GL11.GL_FALSE) {
+			String log = GL20.glGetProgramInfoLog(programID,
+					GL20.glGetProgrami(programID, GL20.GL_INFO_LOG_LENGTH));
+			GL20.glDeleteProgram(programID);
+			throw new IllegalStateException("Shader program failed to link: " + log);
+		}
+	}
+
+	/**
+	 * Makes this {@link ShaderProgram} the current program.
+	 */
+	public void use() {
+		GL20.glUseProgram(programID);
+	}
+
+	/**
+	 * Restores the fixed function pipeline by removing the current program.
+	 */
+	public void release() {
+		GL20.glUseProgram(0);
+	}
+
+	/**
+	 * Retrieves the location of a specified uniform in this
+	 * {@link ShaderProgram}.
+	 *
+	 * @param name
+	 *            The name of the uniform.
+	 * @return The location of the uniform or -1 if the uniform is not active.
+	 */
+	public int getUniformLocation(String name) {
+		return GL20.glGetUniformLocation(programID, name);
+	}
+
+	/**
+	 * Deletes this {@link ShaderProgram} from OpenGL.
+	 */
+	public void destroy() {
+		GL20.glDeleteProgram(programID);
+	}
+
+	/**
+	 * Compiles a shader of a specified type from a specified source.
+	 *
+	 * @param type
+	 *            The type of the shader.
+	 * @param source
+	 *            The GLSL source of the shader.
+	 * @return The OpenGL name of the compiled shader.
+	 */
+	private static int compile(int type, String source) {
+
+		int shaderID = GL20.glCreateShader(type);
+		GL20.glShaderSource(shaderID, source);
+		GL20.glCompileShader(shaderID);
+
+		if (GL20.glGetShaderi(shaderID, GL20.GL_COMPILE_STATUS) == GL11.GL_FALSE) {
+			String log = GL20.glGetShaderInfoLog(shaderID, GL20.glGetShaderi(shaderID, GL20.GL_INFO_LOG_LENGTH));
+			GL20.glDeleteShader(shaderID);
+			throw new IllegalStateException("Shader failed to compile: " + log);
+		}
+
+		return shaderID;
+	}
+
+}
@@ -0,0 +1,453 @@
+package snake3D.graphics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.lwjgl.opengl.GL11;
+import org.newdawn.slick.opengl.ImageDataFactory;
+import org.newdawn.slick.opengl.LoadableImageData;
+import org.newdawn.slick.opengl.Texture;
+import org.newdawn.slick.opengl.TextureImpl;
+import org.newdawn.slick.util.ResourceLoader;
+
+/**
+ * Loads {@link Texture}s for a {@link Graphic} and keeps the most recently used
+ * of them. Images are decoded on a pool of background threads and only the
+ * upload of the decoded pixels to OpenGL is done on the render thread, so
+ * loading many images does not stall the frames drawn meanwhile. Each image is
+ * decoded at most once while its {@link Texture} is cached.
+ * <p>
+ * The {@link Texture}s are keyed by the path and type of their image and the
+ * cache is bounded by the number of bytes of texture memory they take up. Once
+ * it is full the least recently used {@link Texture} is released from OpenGL,
+ * so a {@link Texture} should be retrieved from the cache each time it is used
+ * rather than kept.
+ * <p>
+ * Every method other than the decoding must be called on the render thread,
+ * where there is a current OpenGL context.
+ *
+ * @author Joshua_Eddy
+ * @see Graphic#loadTexture(String, String)
+ *
+ */
+public final class TextureCache {
+
+	/**
+	 * The {@link Texture}s that have been uploaded to OpenGL in order from the
+	 * least recently used.
+	 */
+	private final LinkedHashMap<String, Texture> textures;
+
+	/**
+	 * The images that are being decoded, or have been decoded but not yet
+	 * uploaded, by their key.
+	 */
+	private final Map<String, Future<Decoded>> decoding;
+
+	/**
+	 * Why each image that failed to decode in the background failed, by its key,
+	 * until the failure is reported.
+	 */
+	private final Map<String, IOException> failures;
+
+	/**
+	 * The threads that decode the images.
+	 */
+	private final ExecutorService decoders;
+
+	/**
+	 * The greatest number of bytes the cached {@link Texture}s may take up.
+	 */
+	private final long capacity;
+
+	/**
+	 * The number of bytes the cached {@link Texture}s take up.
+	 */
+	private long bytes;
+
+	/**
+	 * Constructs a new empty {@link TextureCache}.
+	 *
+	 * @param capacity
+	 *            The greatest number of bytes of texture memory the cached
+	 *            {@link Texture}s may take up. Greater than zero. The most
+	 *            recently used {@link Texture} is always kept even if it is
+	 *            larger.
+	 * @param threads
+	 *            The number of threads that decode images. Greater than zero.
+	 */
+	public TextureCache(long capacity, int threads) {
+
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be greater than zero.");
+		}
+
+		if (threads <= 0) {
+			throw new IllegalArgumentException("There must be at least one decoding thread.");
+		}
+
+		this.textures = new LinkedHashMap<String, Texture>(16, 0.75f, true);
+		this.decoding = new HashMap<String, Future<Decoded>>();
+		this.failures = new HashMap<String, IOException>();
+		this.capacity = capacity;
+		this.bytes = 0;
+
+		// Decoding threads must not keep the application running once it closes.
+		this.decoders = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+			/**
+			 * Creates a daemon thread that decodes images.
+			 */
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "Texture decoder");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Starts decoding an image in the background unless its {@link Texture} is
+	 * already cached or being decoded, or it failed to decode and the failure
+	 * has not yet been reported.
+	 *
+	 * @param path
+	 *            The absolute or relative path of the image file. NOT NULL.
+	 * @param imageType
+	 *            The type of image, e.g. "BMP", "JPG", "PNG". NOT NULL.
+	 */
+	public void request(final String path, final String imageType) {
+
+		if (path == null || imageType == null) {
+			throw new IllegalArgumentException("Path and image type cannot be null.");
+		}
+
+		final String key = getKey(path, imageType);
+
+		if (textures.containsKey(key) || decoding.containsKey(key) || failures.containsKey(key)) {
+			return;
+		}
+
+		decoding.put(key, decoders.submit(new Callable<Decoded>() {
+
+			/**
+			 * Decodes the image.
+			 */
+			@Override
+			public Decoded call() throws IOException {
+				return decode(path, imageType);
+			}
+		}));
+	}
+
+	/**
+	 * Retrieves the {@link Texture} of an image if it is ready, otherwise starts
+	 * decoding it in the background. Never waits for an image to be decoded.
+	 *
+	 * @param path
+	 *            The absolute or relative path of the image file. NOT NULL.
+	 * @param imageType
+	 *            The type of image, e.g. "BMP", "JPG", "PNG". NOT NULL.
+	 * @return The {@link Texture}, or null if the image is still being decoded.
+	 * @throws IOException
+	 *             If the image could not be decoded.
+	 */
+	public Texture get(String path, String imageType) throws IOException {
+
+		request(path, imageType);
+
+		String key = getKey(path, imageType);
+		reportFailure(key);
+
+		Future<Decoded> decoded = decoding.get(key);
+
+		if (decoded != null && decoded.isDone()) {
+			finish(key, decoded);
+		}
+
+		return textures.get(key);
+	}
+
+	/**
+	 * Retrieves the {@link Texture} of an image, waiting for it to be decoded if
+	 * it is not ready.
+	 *
+	 * @param path
+	 *            The absolute or relative path of the image file. NOT NULL.
+	 * @param imageType
+	 *            The type of image, e.g. "BMP", "JPG", "PNG". NOT NULL.
+	 * @return The {@link Texture}.
+	 * @throws IOException
+	 *             If the image could not be decoded.
+	 */
+	public Texture load(String path, String imageType) throws IOException {
+
+		request(path, imageType);
+
+		String key = getKey(path, imageType);
+		reportFailure(key);
+
+		Future<Decoded> decoded = decoding.get(key);
+
+		if (decoded != null) {
+			finish(key, decoded);
+		}
+
+		return textures.get(key);
+	}
+
+	/**
+	 * Uploads every image that has finished decoding since this was last called
+	 * to OpenGL. Images that failed to decode are set aside for the next
+	 * {@link TextureCache#get(String, String)} or
+	 * {@link TextureCache#load(String, String)} of them to report once.
+	 */
+	public void upload() {
+
+		Iterator<Map.Entry<String, Future<Decoded>>> entries = decoding.entrySet().iterator();
+		while (entries.hasNext()) {
+
+			Map.Entry<String, Future<Decoded>> entry = entries.next();
+			if (entry.getValue().isDone()) {
+				try {
+					Decoded decoded = entry.getValue().get();
+					entries.remove();
+					add(entry.getKey(), decoded);
+				} catch (ExecutionException e) {
+					entries.remove();
+					failures.put(entry.getKey(), toIOException(entry.getKey(), e));
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Releases every cached {@link Texture} from OpenGL and stops decoding
+	 * images. The {@link TextureCache} cannot be used afterwards.
+	 */
+	public void destroy() {
+
+		decoders.shutdownNow();
+		decoding.clear();
+		failures.clear();
+
+		for (Texture texture : textures.values()) {
+			texture.release();
+		}
+		textures.clear();
+		bytes = 0;
+	}
+
+	/**
+	 * @return The number of bytes of texture memory the cached {@link Texture}s
+	 *         take up.
+	 */
+	public long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * Waits for a specified image to be decoded then uploads it to OpenGL.
+	 *
+	 * @param key
+	 *            The key of the image.
+	 * @param decoded
+	 *            The {@link Future} of the decoded image.
+	 * @throws IOException
+	 *             If the image could not be decoded.
+	 */
+	private void finish(String key, Future<Decoded> decoded) throws IOException {
+
+		decoding.remove(key);
+
+		try {
+			add(key, decoded.get());
+		} catch (ExecutionException e) {
+			throw toIOException(key, e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while decoding " + key, e);
+		}
+	}
+
+	/**
+	 * Throws the failure of a specified image that failed to decode in the
+	 * background, if there is one, so that it is only reported once and the
+	 * image can be requested again afterwards.
+	 *
+	 * @param key
+	 *            The key of the image.
+	 * @throws IOException
+	 *             If the image failed to decode.
+	 */
+	private void reportFailure(String key) throws IOException {
+
+		IOException failure = failures.remove(key);
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * Uploads a decoded image to OpenGL and caches its {@link Texture}, releasing
+	 * the least recently used {@link Texture}s until the cache is within its
+	 * capacity.
+	 *
+	 * @param key
+	 *            The key of the image.
+	 * @param decoded
+	 *            The {@link Decoded} image.
+	 */
+	private void add(String key, Decoded decoded) {
+
+		LoadableImageData image = decoded.image;
+		boolean hasAlpha = image.getDepth() == 32;
+
+		int textureID = GL11.glGenTextures();
+		TextureImpl texture = new TextureImpl(key, GL11.GL_TEXTURE_2D, textureID);
+		texture.setWidth(image.getWidth());
+		texture.setHeight(image.getHeight());
+		texture.setTextureWidth(image.getTexWidth());
+		texture.setTextureHeight(image.getTexHeight());
+		texture.setAlpha(hasAlpha);
+
+		GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureID);
+		GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
+		GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
+		GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, hasAlpha ? GL11.GL_RGBA8 : GL11.GL_RGB8, image.getTexWidth(),
+				image.getTexHeight(), 0, hasAlpha ? GL11.GL_RGBA : GL11.GL_RGB, GL11.GL_UNSIGNED_BYTE, decoded.pixels);
+
+		Texture replaced = textures.put(key, texture);
+		if (replaced != null) {
+			replaced.release();
+			bytes -= getBytes(replaced);
+		}
+		bytes += getBytes(texture);
+
+		// Release the least recently used textures, always keeping the newest.
+		Iterator<Texture> eldest = textures.values().iterator();
+		while (bytes > capacity && textures.size() > 1) {
+			Texture evicted = eldest.next();
+			eldest.remove();
+			evicted.release();
+			bytes -= getBytes(evicted);
+		}
+	}
+
+	/**
+	 * Decodes an image. Called on a decoding thread.
+	 *
+	 * @param path
+	 *            The absolute or relative path of the image file.
+	 * @param imageType
+	 *            The type of image.
+	 * @return The {@link Decoded} image.
+	 * @throws IOException
+	 *             If the image could not be read or decoded.
+	 */
+	private static Decoded decode(String path, String imageType) throws IOException {
+
+		InputStream stream = ResourceLoader.getResourceAsStream(path);
+		if (stream == null) {
+			throw new IOException("Image not found: " + path);
+		}
+
+		// The decoder is chosen by the extension in the same way as the TextureLoader.
+		LoadableImageData image = ImageDataFactory.getImageDataFor(path + "." + imageType.toLowerCase());
+
+		try {
+			return new Decoded(image, image.loadImage(stream, true, null));
+		} finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * Retrieves the {@link IOException} that stopped an image being decoded.
+	 *
+	 * @param key
+	 *            The key of the image.
+	 * @param e
+	 *            The {@link ExecutionException} thrown by the {@link Future} of
+	 *            the decoded image.
+	 * @return {@link IOException}
+	 */
+	private static IOException toIOException(String key, ExecutionException e) {
+		return e.getCause() instanceof IOException ? (IOException) e.getCause()
+				: new IOException("Failed to decode " + key, e.getCause());
+	}
+
+	/**
+	 * Retrieves the number of bytes of texture memory a specified
+	 * {@link Texture} takes up.
+	 *
+	 * @param texture
+	 *            {@link Texture} NOT NULL.
+	 * @return The number of bytes.
+	 */
+	private static long getBytes(Texture texture) {
+		return (long) texture.getTextureWidth() * texture.getTextureHeight() * 4;
+	}
+
+	/**
+	 * Retrieves the key of the {@link Texture} of a specified image.
+	 *
+	 * @param path
+	 *            The path of the image file.
+	 * @param imageType
+	 *            The type of image.
+	 * @return The key.
+	 */
+	private static String getKey(String path, String imageType) {
+		return imageType.toUpperCase() + ":" + path;
+	}
+
+	/**
+	 * An image that has been decoded but not yet uploaded to OpenGL.
+	 *
+	 * @author Joshua_Eddy
+	 *
+	 */
+	private static final class Decoded {
+
+		/**
+		 * The dimensions and depth of the image.
+		 */
+		private final LoadableImageData image;
+
+		/**
+		 * The pixels of the image padded to the texture size.
+		 */
+		private final ByteBuffer pixels;
+
+		/**
+		 * Constructs a new {@link Decoded}.
+		 *
+		 * @param image
+		 *            The dimensions and depth of the image.
+		 * @param pixels
+		 *            The pixels of the image padded to the texture size.
+		 */
+		private Decoded(LoadableImageData image, ByteBuffer pixels) {
+			this.image = image;
+			this.pixels = pixels;
+		}
+
+	}
+
+}
@@ -0,0 +1,430 @@
+package snake3D.graphics;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+
+/**
+ * Collects the faces of many {@link Polygon}s into a single vertex buffer
+ * object so that they can all be drawn by {@link GL11} with one draw call
+ * rather than one <code>glBegin</code>/<code>glEnd</code> pair per face.
+ * <p>
+ * Each vertex is stored interleaved as its position followed by its colour.
+ * The buffer object is only created once a {@link VertexBatch} is first drawn
+ * as there must be a current OpenGL context.
+ *
+ * @author Joshua_Eddy
+ * @see Polygon
+ * @see GL15
+ *
+ */
+public final class VertexBatch {
+
+	/**
+	 * The face of a box at its lower z bound.
+	 */
+	public static final int NEAR_FACE = 1;
+
+	/**
+	 * The face of a box at its upper x bound.
+	 */
+	public static final int LEFT_FACE = 1 << 1;
+
+	/**
+	 * The face of a box at its lower x bound.
+	 */
+	public static final int RIGHT_FACE = 1 << 2;
+
+	/**
+	 * The face of a box at its lower y bound.
+	 */
+	public static final int TOP_FACE = 1 << 3;
+
+	/**
+	 * The face of a box at its upper y bound.
+	 */
+	public static final int BOTTOM_FACE = 1 << 4;
+
+	/**
+	 * The face of a box at its upper z bound.
+	 */
+	public static final int FAR_FACE = 1 << 5;
+
+	/**
+	 * Every face of a box.
+	 */
+	public static final int ALL_FACES = NEAR_FACE | LEFT_FACE | RIGHT_FACE | TOP_FACE | BOTTOM_FACE | FAR_FACE;
+
+	/**
+	 * The number of <code>float</code>s that make up a single vertex. Three for
+	 * the position and three for the colour.
+	 */
+	private static final int FLOATS_PER_VERTEX = 6;
+
+	/**
+	 * The number of bytes between the start of one vertex and the next in the
+	 * vertex buffer object.
+	 */
+	private static final int STRIDE = FLOATS_PER_VERTEX * Float.BYTES;
+
+	/**
+	 * The byte offset of the colour from the start of a vertex.
+	 */
+	private static final long COLOUR_OFFSET = 3 * Float.BYTES;
+
+	/**
+	 * The number of vertices the {@link VertexBatch} can hold before it must
+	 * grow.
+	 */
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/**
+	 * The interleaved vertex data of this {@link VertexBatch}.
+	 */
+	private float[] data;
+
+	/**
+	 * The number of <code>float</code>s in {@link VertexBatch#data} that are in
+	 * use.
+	 */
+	private int size;
+
+	/**
+	 * The OpenGL name of the vertex buffer object. Zero until the
+	 * {@link VertexBatch} is first drawn.
+	 */
+	private int bufferID;
+
+	/**
+	 * The OpenGL name of the buffer object that holds the indices which split
+	 * each face into two triangles. Zero until the {@link VertexBatch} is first
+	 * drawn by a {@link SceneShader}.
+	 */
+	private int indexID;
+
+	/**
+	 * The number of faces the indices in the buffer object named by
+	 * {@link VertexBatch#indexID} cover.
+	 */
+	private int indexedFaces;
+
+	/**
+	 * Whether {@link VertexBatch#data} has changed since it was last sent to the
+	 * vertex buffer object.
+	 */
+	private boolean modified;
+
+	/**
+	 * The OpenGL usage hint passed when the data is sent to the vertex
+	 * buffer object.
+	 */
+	private final int usage;
+
+	/**
+	 * Constructs a new empty {@link VertexBatch} whose contents are expected to
+	 * change often.
+	 */
+	public VertexBatch() {
+		this(false);
+	}
+
+	/**
+	 * Constructs a new empty {@link VertexBatch}.
+	 *
+	 * @param isStatic
+	 *            Whether the contents will rarely change once they have been drawn.
+	 *            Static contents are kept by OpenGL in memory optimised for
+	 *            drawing many times.
+	 */
+	public VertexBatch(boolean isStatic) {
+		this.data = new float[INITIAL_CAPACITY * FLOATS_PER_VERTEX];
+		this.size = 0;
+		this.bufferID = 0;
+		this.indexID = 0;
+		this.indexedFaces = 0;
+		this.modified = true;
+		this.usage = isStatic ? GL15.GL_STATIC_DRAW : GL15.GL_DYNAMIC_DRAW;
+	}
+
+	/**
+	 * Removes all the vertices from this {@link VertexBatch}.
+	 */
+	public void clear() {
+		size = 0;
+		modified = true;
+	}
+
+	/**
+	 * Adds the six faces of an axis aligned box filled with a specified
+	 * {@link Colour}. Each face is wound in the same order as the original
+	 * immediate mode {@link Polygon}s.
+	 *
+	 * @param colour
+	 *            {@link Colour} of the box.
+	 * @param x
+	 *            <code>float</code> lower x bound of the box.
+	 * @param y
+	 *            <code>float</code> lower y bound of the box.
+	 * @param z
+	 *            <code>float</code> lower z bound of the box.
+	 * @param upperX
+	 *            <code>float</code> upper x bound of the box.
+	 * @param upperY
+	 *            <code>float</code> upper y bound of the box.
+	 * @param upperZ
+	 *            <code>float</code> upper z bound of the box.
+	 */
+	public void addBox(Colour colour, float x, float y, float z, float upperX, float upperY, float upperZ) {
+		addFaces(colour, x, y, z, upperX, upperY, upperZ, ALL_FACES);
+	}
+
+	/**
+	 * Adds some of the faces of an axis aligned box filled with a specified
+	 * {@link Colour}, so that faces which can never be seen are left out.
+	 *
+	 * @param colour
+	 *            {@link Colour} of the box.
+	 * @param x
+	 *            <code>float</code> lower x bound of the box.
+	 * @param y
+	 *            <code>float</code> lower y bound of the box.
+	 * @param z
+	 *            <code>float</code> lower z bound of the box.
+	 * @param upperX
+	 *            <code>float</code> upper x bound of the box.
+	 * @param upperY
+	 *            <code>float</code> upper y bound of the box.
+	 * @param upperZ
+	 *            <code>float</code> upper z bound of the box.
+	 * @param faces
+	 *            The faces to add combined from {@link VertexBatch#NEAR_FACE},
+	 *            {@link VertexBatch#LEFT_FACE}, {@link VertexBatch#RIGHT_FACE},
+	 *            {@link VertexBatch#TOP_FACE}, {@link VertexBatch#BOTTOM_FACE}
+	 *            and {@link VertexBatch#FAR_FACE}.
+	 */
+	public void addFaces(Colour colour, float x, float y, float z, float upperX, float upperY, float upperZ,
+			int faces) {
+
+		ensureCapacity(size + (Integer.bitCount(faces & ALL_FACES) * 4 * FLOATS_PER_VERTEX));
+
+		float red = colour.getRed();
+		float green = colour.getGreen();
+		float blue = colour.getBlue();
+
+		if ((faces & NEAR_FACE) != 0) {
+			addVertex(x, y, z, red, green, blue);
+			addVertex(upperX, y, z, red, green, blue);
+			addVertex(upperX, upperY, z, red, green, blue);
+			addVertex(x, upperY, z, red, green, blue);
+		}
+
+		if ((faces & LEFT_FACE) != 0) {
+			addVertex(upperX, y, z, red, green, blue);
+			addVertex(upperX, y, upperZ, red, green, blue);
+			addVertex(upperX, upperY, upperZ, red, green, blue);
+			addVertex(upperX, upperY, z, red, green, blue);
+		}
+
+		if ((faces & RIGHT_FACE) != 0) {
+			addVertex(x, y, upperZ, red, green, blue);
+			addVertex(x, y, z, red, green, blue);
+			addVertex(x, upperY, z, red, green, blue);
+			addVertex(x, upperY, upperZ, red, green, blue);
+		}
+
+		if ((faces & TOP_FACE) != 0) {
+			addVertex(x, y, upperZ, red, green, blue);
+			addVertex(upperX, y, upperZ, red, green, blue);
+			addVertex(upperX, y, z, red, green, blue);
+			addVertex(x, y, z, red, green, blue);
+		}
+
+		if ((faces & BOTTOM_FACE) != 0) {
+			addVertex(x, upperY, z, red, green, blue);
+			addVertex(upperX, upperY, z, red, green, blue);
+			addVertex(upperX, upperY, upperZ, red, green, blue);
+			addVertex(x, upperY, upperZ, red, green, blue);
+		}
+
+		if ((faces & FAR_FACE) != 0) {
+			addVertex(upperX, y, upperZ, red, green, blue);
+			addVertex(x, y, upperZ, red, green, blue);
+			addVertex(x, upperY, upperZ, red, green, blue);
+			addVertex(upperX, upperY, upperZ, red, green, blue);
+		}
+
+		modified = true;
+	}
+
+	/**
+	 * Draws all the vertices in this {@link VertexBatch} on the screen. The data
+	 * is only sent to the vertex buffer object if it has been modified since the
+	 * last time this {@link VertexBatch} was drawn.
+	 */
+	public void draw() {
+
+		// Create the buffer object now that there is a context.
+		if (bufferID == 0) {
+			bufferID = GL15.glGenBuffers();
+		}
+
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, bufferID);
+
+		// Only upload the vertices if they have changed.
+		if (modified) {
+			upload();
+		}
+
+		GL11.glEnableClientState(GL11.GL_VERTEX_ARRAY);
+		GL11.glEnableClientState(GL11.GL_COLOR_ARRAY);
+		{
+			GL11.glVertexPointer(3, GL11.GL_FLOAT, STRIDE, 0);
+			GL11.glColorPointer(3, GL11.GL_FLOAT, STRIDE, COLOUR_OFFSET);
+
+			GL11.glDrawArrays(GL11.GL_QUADS, 0, size / FLOATS_PER_VERTEX);
+		}
+		GL11.glDisableClientState(GL11.GL_COLOR_ARRAY);
+		GL11.glDisableClientState(GL11.GL_VERTEX_ARRAY);
+
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+	}
+
+	/**
+	 * Draws all the vertices in this {@link VertexBatch} as triangles through
+	 * the generic vertex attributes of the current {@link ShaderProgram}, such as
+	 * that of a {@link SceneShader}. The vertices are only sent to the vertex
+	 * buffer object if they have been modified, and the indices that split each
+	 * face into two triangles are only sent when there are more faces than
+	 * before.
+	 *
+	 * @param positionLocation
+	 *            The attribute location of the vertex position.
+	 * @param colourLocation
+	 *            The attribute location of the vertex colour.
+	 */
+	public void draw(int positionLocation, int colourLocation) {
+
+		// Create the buffer objects now that there is a context.
+		if (bufferID == 0) {
+			bufferID = GL15.glGenBuffers();
+		}
+		if (indexID == 0) {
+			indexID = GL15.glGenBuffers();
+		}
+
+		int faces = size / (4 * FLOATS_PER_VERTEX);
+
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, bufferID);
+		GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, indexID);
+
+		// Only upload the vertices if they have changed.
+		if (modified) {
+			upload();
+		}
+		if (faces > indexedFaces) {
+			uploadIndices(faces);
+		}
+
+		GL20.glEnableVertexAttribArray(positionLocation);
+		GL20.glEnableVertexAttribArray(colourLocation);
+		{
+			GL20.glVertexAttribPointer(positionLocation, 3, GL11.GL_FLOAT, false, STRIDE, 0);
+			GL20.glVertexAttribPointer(colourLocation, 3, GL11.GL_FLOAT, false, STRIDE, COLOUR_OFFSET);
+
+			GL11.glDrawElements(GL11.GL_TRIANGLES, faces * 6, GL11.GL_UNSIGNED_INT, 0);
+		}
+		GL20.glDisableVertexAttribArray(colourLocation);
+		GL20.glDisableVertexAttribArray(positionLocation);
+
+		GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, 0);
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+	}
+
+	/**
+	 * Sends the indices that split each of at least a specified number of faces
+	 * into two triangles to the currently bound element buffer object. Room is
+	 * left for as many faces as {@link VertexBatch#data} can hold so that the
+	 * indices are rarely sent again.
+	 *
+	 * @param faces
+	 *            The number of faces that must be covered.
+	 */
+	private void uploadIndices(int faces) {
+
+		indexedFaces = Math.max(faces, data.length / (4 * FLOATS_PER_VERTEX));
+
+		DirectBuffer buffer = DirectBuffer.allocateInts(indexedFaces * 6);
+		try {
+			IntBuffer indices = buffer.getInts();
+			for (int face = 0; face < indexedFaces; face++) {
+				int corner = face * 4;
+				indices.put(corner).put(corner + 1).put(corner + 2);
+				indices.put(corner).put(corner + 2).put(corner + 3);
+			}
+			indices.flip();
+
+			GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, indices, GL15.GL_STATIC_DRAW);
+		} finally {
+			buffer.release();
+		}
+	}
+
+	/**
+	 * Sends {@link VertexBatch#data} to the currently bound vertex buffer object
+	 * through a {@link DirectBuffer} that is released once OpenGL has copied it.
+	 */
+	private void upload() {
+
+		DirectBuffer buffer = DirectBuffer.allocateFloats(size);
+		try {
+			buffer.getFloats().put(data, 0, size).flip();
+			GL15.glBufferData(GL15.GL_ARRAY_BUFFER, buffer.getFloats(), usage);
+		} finally {
+			buffer.release();
+		}
+
+		modified = false;
+	}
+
+	/**
+	 * Appends a single vertex to {@link VertexBatch#data}.
+	 *
+	 * @param x
+	 *            <code>float</code> x coordinate of the vertex.
+	 * @param y
+	 *            <code>float</code> y coordinate of the vertex.
+	 * @param z
+	 *            <code>float</code> z coordinate of the vertex.
+	 * @param red
+	 *            The red component of the vertex colour.
+	 * @param green
+	 *            The green component of the vertex colour.
+	 * @param blue
+	 *            The blue component of the vertex colour.
+	 */
+	private void addVertex(float x, float y, float z, float red, float green, float blue) {
+		data[size++] = x;
+		data[size++] = y;
+		data[size++] = z;
+		data[size++] = red;
+		data[size++] = green;
+		data[size++] = blue;
+	}
+
+	/**
+	 * Grows {@link VertexBatch#data} so that it can hold at least the specified
+	 * number of <code>float</code>s.
+	 *
+	 * @param required
+	 *            The number of <code>float</code>s required.
+	 */
+	private void ensureCapacity(int required) {
+		if (required > data.length) {
+			data = Arrays.copyOf(data, Math.max(required, data.length * 2));
+		}
+	}
+
+}
@@ -20,6 +20,16 @@ public enum Window {
 	 */
 	public final DisplayMode displayMode;
 
+	/**
+	 * The width of this {@link Window} in pixels.
+	 */
+	public final int width;
+
+	/**
+	 * The height of this {@link Window} in pixels.
+	 */
+	public final int height;
+
 	/**
 	 * Constructs a new {@link Window}.
 	 * 
@@ -30,6 +40,9 @@ public enum Window {
 	 */
 	private Window(int width, int height) {
 
+		this.width = width;
+		this.height = height;
+
 		// Windows colour depth.
 		final int windowsColorDepth = 32;
 
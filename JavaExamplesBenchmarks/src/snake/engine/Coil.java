@@ -0,0 +1,156 @@
+package snake.engine;
+
+import snake.Direction;
+
+/**
+ * A game in which a snake of a fixed length is coiled along a route that
+ * visits every row of the grid apart from the first. The route is a closed
+ * loop so the snake can follow it forever without colliding, and the only
+ * piece of food is in the first row so the snake never eats it and never
+ * changes length.
+ *
+ * @author Joshua_Eddy
+ *
+ * @see EngineBenchmark
+ *
+ */
+public final class Coil {
+
+	/**
+	 * The {@link Rules} of the game.
+	 */
+	private final Rules rules;
+
+	/**
+	 * The {@link Direction} the snake must move from each cell to follow the
+	 * route. Null for the cells of the first row.
+	 */
+	private final Direction[] route;
+
+	/**
+	 * The {@link State} at the start of the game.
+	 */
+	private final State state;
+
+	/**
+	 * Constructs a new {@link Coil}.
+	 *
+	 * @param length
+	 *            The number of cells the snake occupies. Greater than zero.
+	 */
+	public Coil(int length) {
+
+		if (length <= 0) {
+			throw new IllegalArgumentException("Length must be greater than zero.");
+		}
+
+		// The route is a square of an even size that is longer than the snake.
+		int size = 4;
+		while ((long) size * size <= length) {
+			size += 2;
+		}
+
+		// The food can only ever be placed in the top left cell.
+		this.rules = new Rules(size, size + 1, 1, 1, 0, 1, Direction.RIGHT, 0, 0);
+		this.route = new Direction[(int) rules.getCells()];
+
+		for (int row = 1; row <= size; row++) {
+			for (int column = 0; column < size; column++) {
+				route[(int) rules.getCell(column, row)] = getDirection(column, row - 1, size);
+			}
+		}
+
+		// Lay the snake along the route from the top left corner with the head
+		// furthest along it.
+		long[] body = new long[length];
+		int cell = (int) rules.getCell(0, 1);
+		Direction direction = Direction.RIGHT;
+
+		for (int index = length - 1; index >= 0; index--) {
+			body[index] = cell;
+			if (index > 0) {
+				direction = route[cell];
+				cell = next(cell, direction);
+			}
+		}
+
+		this.state = new State(rules, body, direction, rules.getFirstFood(), 0, true, 0, 0);
+	}
+
+	/**
+	 * @return The {@link Rules} of the game.
+	 */
+	public Rules getRules() {
+		return rules;
+	}
+
+	/**
+	 * @return The {@link State} at the start of the game.
+	 */
+	public State getState() {
+		return state;
+	}
+
+	/**
+	 * Retrieves the {@link Direction} the snake must move from a specified cell
+	 * to follow the route.
+	 *
+	 * @param cell
+	 *            A cell of the grid outside the first row.
+	 * @return {@link Direction}
+	 */
+	public Direction getDirection(long cell) {
+		return route[(int) cell];
+	}
+
+	/**
+	 * Retrieves the cell next to a specified cell along a specified
+	 * {@link Direction}.
+	 *
+	 * @param cell
+	 *            A cell of the grid.
+	 * @param direction
+	 *            {@link Direction}
+	 * @return The next cell.
+	 */
+	private int next(int cell, Direction direction) {
+
+		switch (direction) {
+		case RIGHT:
+			return cell + 1;
+		case LEFT:
+			return cell - 1;
+		case UP:
+			return cell - rules.getColumns();
+		default:
+			return cell + rules.getColumns();
+		}
+	}
+
+	/**
+	 * Retrieves the {@link Direction} of the route from a specified position in a
+	 * square. The route runs back and forth along each row from the second column
+	 * then returns up the first column.
+	 *
+	 * @param column
+	 *            The column in the square.
+	 * @param row
+	 *            The row in the square.
+	 * @param size
+	 *            The width and height of the square. Even.
+	 * @return {@link Direction}
+	 */
+	private static Direction getDirection(int column, int row, int size) {
+
+		if (column == 0) {
+			return row == 0 ? Direction.RIGHT : Direction.UP;
+		} else if (row % 2 == 0) {
+			return column == size - 1 ? Direction.DOWN : Direction.RIGHT;
+		} else if (column == 1) {
+			return row == size - 1 ? Direction.LEFT : Direction.DOWN;
+		} else {
+			return Direction.LEFT;
+		}
+	}
+
+}
@@ -0,0 +1,99 @@
+package snake.engine;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a tick of the {@link Engine}. Every tick checks the head of the
+ * snake for collisions with itself and the walls, moves the snake and checks
+ * whether the food was eaten. The snake follows a {@link Coil} so it never
+ * dies or grows.
+ *
+ * @author Joshua_Eddy
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineBenchmark {
+
+	/**
+	 * The number of cells the snake occupies.
+	 */
+	@Param({ "10", "1000", "100000" })
+	public int length;
+
+	/**
+	 * The game the snake is played in.
+	 */
+	private Coil coil;
+
+	/**
+	 * The {@link Engine} that is ticked.
+	 */
+	private Engine engine;
+
+	/**
+	 * Creates the {@link Coil} the snake follows.
+	 */
+	@Setup(Level.Trial)
+	public void createCoil() {
+		coil = new Coil(length);
+	}
+
+	/**
+	 * Starts a new {@link Engine} from the start of the {@link Coil}.
+	 */
+	@Setup(Level.Iteration)
+	public void createEngine() {
+		engine = new Engine(coil.getState());
+	}
+
+	/**
+	 * Moves the game on by one tick without taking a {@link snake.engine.State}.
+	 *
+	 * @return Whether the snake is still alive.
+	 */
+	@Benchmark
+	public boolean advance() {
+		return engine.advance(coil.getDirection(engine.getHead()));
+	}
+
+	/**
+	 * Moves the game on by one tick and takes an immutable
+	 * {@link snake.engine.State} of it, as the front ends do to draw each tick.
+	 *
+	 * @return The {@link snake.engine.State} after the tick.
+	 */
+	@Benchmark
+	public snake.engine.State step() {
+		return engine.step(coil.getDirection(engine.getHead()));
+	}
+
+	/**
+	 * Looks up the cell of the tail of the snake in the {@link Occupancy}, as the
+	 * {@link Engine} does to detect collisions.
+	 *
+	 * @return {@code Boolean}
+	 */
+	@Benchmark
+	public boolean isOccupied() {
+		return engine.isOccupied(engine.getCell(engine.getLength() - 1));
+	}
+
+}
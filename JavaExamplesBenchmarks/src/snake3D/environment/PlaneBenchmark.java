@@ -0,0 +1,147 @@
+package snake3D.environment;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import snake.engine.Coil;
+import snake.engine.Engine;
+import snake3D.graphics.InstancedCubes;
+import snake3D.graphics.RenderMode;
+import snake3D.graphics.VertexBatch;
+
+/**
+ * Measures preparing the geometry of the snake and food that the
+ * {@link Plane} draws each time the game ticks. Only the CPU side is measured
+ * so no OpenGL context is needed.
+ *
+ * @author Joshua_Eddy
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlaneBenchmark {
+
+	/**
+	 * The number of cells the snake occupies.
+	 */
+	@Param({ "10", "1000", "100000" })
+	public int length;
+
+	/**
+	 * The {@link RenderMode} the geometry is prepared for.
+	 */
+	@Param({ "BATCHED", "INSTANCED" })
+	public RenderMode renderMode;
+
+	/**
+	 * The game the snake is played in.
+	 */
+	private Coil coil;
+
+	/**
+	 * The two {@link Snapshot}s of the same snake that are drawn in turn, so
+	 * that the runs of the snake are meshed from scratch each time.
+	 */
+	private Snapshot[] snapshots;
+
+	/**
+	 * The number of times the geometry has been built.
+	 */
+	private int builds;
+
+	/**
+	 * The {@link Engine} that moves the snake along the route.
+	 */
+	private Engine engine;
+
+	/**
+	 * The {@link Plane} the geometry is prepared by.
+	 */
+	private Plane plane;
+
+	/**
+	 * The {@link VertexBatch} filled when using {@link RenderMode#BATCHED}.
+	 */
+	private VertexBatch batch;
+
+	/**
+	 * The {@link InstancedCubes} filled when using {@link RenderMode#INSTANCED}.
+	 */
+	private InstancedCubes instances;
+
+	/**
+	 * Creates the {@link Plane} and a {@link Snapshot} of a snake of the
+	 * benchmarked length.
+	 */
+	@Setup(Level.Trial)
+	public void createPlane() {
+
+		coil = new Coil(length);
+		snapshots = new Snapshot[] { new Snapshot(coil.getState()), new Snapshot(coil.getState()) };
+
+		plane = new Plane(0, 0, 0);
+		plane.setRenderMode(renderMode);
+
+		batch = new VertexBatch();
+		instances = new InstancedCubes();
+	}
+
+	/**
+	 * Starts the snake at the start of the route.
+	 */
+	@Setup(Level.Iteration)
+	public void createEngine() {
+		engine = new Engine(coil.getState());
+	}
+
+	/**
+	 * Rebuilds the geometry of the snake and food from scratch.
+	 *
+	 * @return The {@link Plane} the geometry was built by.
+	 */
+	@Benchmark
+	public Plane build() {
+		plane.build(snapshots[builds++ & 1], batch, instances);
+		return plane;
+	}
+
+	/**
+	 * Moves the snake on by one tick along the route and builds the geometry of
+	 * the {@link Snapshot} after it, as the game does each tick.
+	 *
+	 * @return The {@link Plane} the geometry was built by.
+	 */
+	@Benchmark
+	public Plane tick() {
+		plane.build(new Snapshot(engine.step(coil.getDirection(engine.getHead()))), batch, instances);
+		return plane;
+	}
+
+	/**
+	 * Converts a {@link snake.engine.State} into a {@link Snapshot} the
+	 * {@link Plane} can draw.
+	 *
+	 * @return {@link Snapshot}
+	 */
+	@Benchmark
+	public Snapshot snapshot() {
+		return new Snapshot(coil.getState());
+	}
+
+}